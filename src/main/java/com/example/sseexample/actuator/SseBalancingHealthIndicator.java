@@ -0,0 +1,31 @@
+package com.example.sseexample.actuator;
+
+import com.example.sseexample.service.EventService;
+import com.example.sseexample.service.LoadShedder;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code sseBalancing}: out of service while {@link LoadShedder} is refusing new
+ * streams, up otherwise. The readiness group includes it next to Spring's own
+ * {@code readinessState}, so either one takes the pod out of the Service and the
+ * shedder never has to publish, or override, the application's readiness.
+ */
+@Component
+public class SseBalancingHealthIndicator implements HealthIndicator {
+
+    private final LoadShedder loadShedder;
+    private final EventService eventService;
+
+    public SseBalancingHealthIndicator(LoadShedder loadShedder, EventService eventService) {
+        this.loadShedder = loadShedder;
+        this.eventService = eventService;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder health = loadShedder.isRefusing() ? Health.outOfService() : Health.up();
+        return health.withDetail("load", eventService.load()).build();
+    }
+}
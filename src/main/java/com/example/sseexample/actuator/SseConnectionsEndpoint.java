@@ -0,0 +1,58 @@
+package com.example.sseexample.actuator;
+
+import com.example.sseexample.service.ConnectionInfo;
+import com.example.sseexample.service.ConnectionPage;
+import com.example.sseexample.service.EventService;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/sseconnections}: who is connected, from where, for how long and
+ * how far behind. {@code GET ?after=<id>&limit=<n>} pages through open streams in
+ * admission order, {@code GET /<id>} reads one, and {@code DELETE /<id>} evicts it.
+ * Not exposed by default: it lists client addresses and can disconnect clients on
+ * an unauthenticated port (issue #13).
+ */
+@Component
+@WebEndpoint(id = "sseconnections")
+public class SseConnectionsEndpoint {
+
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 1000;
+
+    private final EventService eventService;
+
+    public SseConnectionsEndpoint(EventService eventService) {
+        this.eventService = eventService;
+    }
+
+    @ReadOperation
+    public ConnectionPage connections(@Nullable Long after, @Nullable Integer limit) {
+        int pageSize = limit == null ? DEFAULT_LIMIT : limit;
+        if (pageSize < 1 || pageSize > MAX_LIMIT) {
+            String reason = "limit must be between 1 and " + MAX_LIMIT;
+            throw new InvalidEndpointRequestException(reason, reason);
+        }
+        return eventService.connections(after == null ? 0 : after, pageSize);
+    }
+
+    @ReadOperation
+    public WebEndpointResponse<ConnectionInfo> connection(@Selector long id) {
+        return eventService.connection(id)
+            .map(info -> new WebEndpointResponse<>(info, WebEndpointResponse.STATUS_OK))
+            .orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<Void> evict(@Selector long id) {
+        return new WebEndpointResponse<>(eventService.evict(id)
+            ? WebEndpointResponse.STATUS_NO_CONTENT
+            : WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.sseexample.actuator;
+
+import com.example.sseexample.service.SseFlightRecording;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * {@code /actuator/ssejfr}: downloads the SSE Flight Recorder recording (see
+ * {@code app.sse.diagnostics.jfr}) for JDK Mission Control or {@code jfr print}.
+ * Returns 404 while no recording runs. Not exposed by default: the dump can name
+ * event types and connection counts on an unauthenticated port (issue #13).
+ */
+@Component
+@WebEndpoint(id = "ssejfr")
+public class SseFlightRecorderEndpoint {
+
+    private final SseFlightRecording recording;
+
+    public SseFlightRecorderEndpoint(SseFlightRecording recording) {
+        this.recording = recording;
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> dump() throws IOException {
+        Optional<Path> file = recording.dump();
+        if (file.isEmpty()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        return new WebEndpointResponse<>(new DeleteOnCloseResource(file.get()), WebEndpointResponse.STATUS_OK);
+    }
+
+    /** The dump is a temporary file; it is removed once the response has streamed it. */
+    private static final class DeleteOnCloseResource extends FileSystemResource {
+
+        DeleteOnCloseResource(Path file) {
+            super(file);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(getFile().toPath());
+                    }
+                }
+            };
+        }
+    }
+}
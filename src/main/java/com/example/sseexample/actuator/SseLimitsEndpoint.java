@@ -0,0 +1,42 @@
+package com.example.sseexample.actuator;
+
+import com.example.sseexample.service.EventService;
+import com.example.sseexample.service.SseLimits;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/sselimits}: reads and live-updates the SSE limits, so a load
+ * spike can be answered without a rollout that disconnects every client. Values
+ * set here last until the pod restarts; the ConfigMap stays the source of truth.
+ * Not exposed by default: it is a write endpoint on an unauthenticated port (issue #13).
+ */
+@Component
+@Endpoint(id = "sselimits")
+public class SseLimitsEndpoint {
+
+    private final EventService eventService;
+
+    public SseLimitsEndpoint(EventService eventService) {
+        this.eventService = eventService;
+    }
+
+    @ReadOperation
+    public SseLimits limits() {
+        return eventService.limits();
+    }
+
+    @WriteOperation
+    public SseLimits update(@Nullable Integer maxConnections, @Nullable Long timeoutMs,
+                           @Nullable Long sendTimeoutMs, @Nullable Integer broadcastThreads) {
+        try {
+            return eventService.updateLimits(maxConnections, timeoutMs, sendTimeoutMs, broadcastThreads);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.sseexample.actuator;
+
+import com.example.sseexample.service.ConnectionMemoryReport;
+import com.example.sseexample.service.EventService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/ssememory}: estimated heap cost per SSE connection and in
+ * aggregate, the evidence needed before raising {@code app.sse.max-connections}.
+ * Not exposed by default; like every actuator endpoint here it is unauthenticated
+ * (issue #13), so only widen {@code management.endpoints.web.exposure.include}
+ * where the management port is not reachable from outside the cluster.
+ */
+@Component
+@Endpoint(id = "ssememory")
+public class SseMemoryEndpoint {
+
+    private final EventService eventService;
+
+    public SseMemoryEndpoint(EventService eventService) {
+        this.eventService = eventService;
+    }
+
+    @ReadOperation
+    public ConnectionMemoryReport memory() {
+        return eventService.memoryReport();
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.sseexample.actuator;
+
+import com.example.sseexample.ingest.EventIngestor;
+import com.example.sseexample.service.AdaptiveAdmission;
+import com.example.sseexample.service.BroadcastPoolAutoSizer;
+import com.example.sseexample.service.EventService;
+import com.example.sseexample.service.LoadShedder;
+import com.example.sseexample.service.ScheduledJob;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes SSE delivery state to Micrometer. Meters read live service state on
+ * scrape, so nothing is recorded on the broadcast path.
+ */
+@Component
+public class SseMetrics implements MeterBinder {
+
+    private final EventService eventService;
+    private final EventIngestor ingestor;
+    private final LoadShedder loadShedder;
+
+    public SseMetrics(EventService eventService, EventIngestor ingestor, LoadShedder loadShedder) {
+        this.eventService = eventService;
+        this.ingestor = ingestor;
+        this.loadShedder = loadShedder;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("sse.connections", eventService, EventService::connectionCount)
+            .description("Open SSE streams")
+            .register(registry);
+        Gauge.builder("sse.broadcast.pool.size", eventService, EventService::broadcastPoolSize)
+            .description("Threads in the broadcast delivery pool")
+            .register(registry);
+        Gauge.builder("sse.filters.distinct", eventService, EventService::distinctFilters)
+            .description("Distinct filter expressions evaluated per broadcast")
+            .register(registry);
+        FunctionCounter.builder("sse.publish.duplicates", eventService, EventService::duplicatePublishes)
+            .description("Publishes acknowledged without a broadcast because their Idempotency-Key was seen")
+            .register(registry);
+        FunctionCounter.builder("sse.publish.oversized", eventService, EventService::oversizedPublishes)
+            .description("Publishes refused for exceeding app.sse.publish.max-event-bytes")
+            .register(registry);
+        FunctionCounter.builder("sse.ttl.expired", eventService, EventService::expiredDeliveries)
+            .description("Frames discarded unsent because their event's TTL passed while queued")
+            .register(registry);
+        if (!eventService.throttledEvents().isEmpty()) {
+            FunctionCounter.builder("sse.throttle.broadcasts", eventService, EventService::throttledBroadcasts)
+                .description("Broadcasts of throttled event names, at most one per window per name")
+                .register(registry);
+            FunctionCounter.builder("sse.throttle.conflated", eventService, EventService::conflatedPublishes)
+                .description("Publishes folded into another publish's broadcast by app.sse.throttles")
+                .register(registry);
+            FunctionCounter.builder("sse.throttle.failed", eventService, EventService::failedThrottledBroadcasts)
+                .description("Window broadcasts that failed, e.g. a digest over the event size limit")
+                .register(registry);
+            FunctionCounter.builder("sse.throttle.expired", eventService, EventService::expiredThrottledPublishes)
+                .description("Throttled publishes dropped because their TTL passed before their window closed")
+                .register(registry);
+        }
+        Gauge.builder("sse.multiplex.subscriptions", eventService, EventService::multiplexedSubscriptions)
+            .description("Logical subscriptions carried by multiplexed streams")
+            .register(registry);
+        FunctionCounter.builder("sse.resume.accepted", eventService, EventService::resumedStreams)
+            .description("Streams reopened from a valid resume token")
+            .register(registry);
+        FunctionCounter.builder("sse.resume.rejected", eventService, EventService::rejectedResumes)
+            .description("Resume tokens refused as invalid or expired")
+            .register(registry);
+        eventService.autoSizer().ifPresent(sizer -> bindAutoSizer(registry, sizer));
+        eventService.admission().ifPresent(admission -> bindAdmission(registry, admission));
+        if (eventService.traceBytes() >= 0) {
+            Gauge.builder("sse.trace.size", eventService, EventService::traceBytes)
+                .description("Bytes written to the traffic trace")
+                .baseUnit("bytes")
+                .register(registry);
+            FunctionCounter.builder("sse.trace.dropped", eventService, EventService::traceDroppedRecords)
+                .description("Records left out of the traffic trace: past app.sse.trace.max-bytes, or while the writer lagged")
+                .register(registry);
+        }
+        Gauge.builder("sse.load", eventService, EventService::load)
+            .description("Open SSE streams as a fraction of the connection cap")
+            .register(registry);
+        Gauge.builder("sse.balancing.refusing", loadShedder, shedder -> shedder.isRefusing() ? 1 : 0)
+            .description("1 while the pod is above its high-water mark and refusing new streams")
+            .register(registry);
+        FunctionCounter.builder("sse.balancing.shed", loadShedder, LoadShedder::shedConnections)
+            .description("Streams closed with a reconnect hint to rebalance load")
+            .register(registry);
+        eventService.scheduledJobs().forEach(job -> bindScheduledJob(registry, job));
+        if (!ingestor.sourceNames().isEmpty()) {
+            bindIngest(registry);
+        }
+    }
+
+    private void bindScheduledJob(MeterRegistry registry, ScheduledJob job) {
+        FunctionTimer.builder("sse.schedule.broadcasts", job, ScheduledJob::runs, ScheduledJob::broadcastNanos,
+                TimeUnit.NANOSECONDS)
+            .description("Broadcasts published by a scheduled job, including fan-out time")
+            .tag("job", job.name())
+            .register(registry);
+        FunctionCounter.builder("sse.schedule.coalesced", job, ScheduledJob::coalescedTicks)
+            .description("Ticks folded into a later one because the job was still running or late")
+            .tag("job", job.name())
+            .register(registry);
+        FunctionCounter.builder("sse.schedule.failed", job, ScheduledJob::failedRuns)
+            .description("Broadcasts of a scheduled job that threw; each is logged at WARN")
+            .tag("job", job.name())
+            .register(registry);
+    }
+
+    private void bindIngest(MeterRegistry registry) {
+        Gauge.builder("sse.ingest.buffered", ingestor, EventIngestor::buffered)
+            .description("Ingested events waiting to be broadcast")
+            .register(registry);
+        FunctionCounter.builder("sse.ingest.accepted", ingestor, EventIngestor::acceptedEvents)
+            .description("Events decoded from ingest sources")
+            .register(registry);
+        FunctionCounter.builder("sse.ingest.malformed", ingestor, EventIngestor::malformedRecords)
+            .description("Ingest records skipped because they could not be decoded")
+            .register(registry);
+        FunctionCounter.builder("sse.ingest.dispatched", ingestor, EventIngestor::dispatchedEvents)
+            .description("Ingested events handed to the broadcaster")
+            .register(registry);
+        FunctionCounter.builder("sse.ingest.failed", ingestor, EventIngestor::failedEvents)
+            .description("Ingested events whose broadcast failed, e.g. over the event size limit")
+            .register(registry);
+        FunctionCounter.builder("sse.ingest.expired", ingestor, EventIngestor::expiredEvents)
+            .description("Ingested events discarded because their TTL passed in the buffer")
+            .register(registry);
+    }
+
+    private void bindAdmission(MeterRegistry registry, AdaptiveAdmission admission) {
+        for (AdaptiveAdmission.Signal signal : AdaptiveAdmission.Signal.values()) {
+            FunctionCounter.builder("sse.admission.refused", admission, a -> a.refusals(signal))
+                .description("New streams refused because delivery was degraded")
+                .tag("signal", signal.name().toLowerCase(Locale.ROOT))
+                .register(registry);
+        }
+        Gauge.builder("sse.admission.degraded", admission, a -> a.reading().degraded() ? 1 : 0)
+            .description("1 while new streams are refused for degraded delivery")
+            .register(registry);
+        Gauge.builder("sse.admission.fanout.p99", admission, a -> a.reading().fanOutP99Ms())
+            .description("Broadcast fan-out p99 in the last interval, to a factor of two")
+            .baseUnit("milliseconds")
+            .register(registry);
+        Gauge.builder("sse.admission.queue.wait.p99", admission, a -> a.reading().queueWaitP99Ms())
+            .description("p99 wait for a broadcast pool thread in the last interval, to a factor of two")
+            .baseUnit("milliseconds")
+            .register(registry);
+        Gauge.builder("sse.admission.heap.occupancy", admission, a -> a.reading().heapOccupancy())
+            .description("Heap in use after the last collection, 0..1; negative if unknown")
+            .register(registry);
+    }
+
+    private void bindAutoSizer(MeterRegistry registry, BroadcastPoolAutoSizer sizer) {
+        for (BroadcastPoolAutoSizer.Action action : BroadcastPoolAutoSizer.Action.values()) {
+            FunctionCounter.builder("sse.autosize.decisions", sizer, s -> s.decisions(action))
+                .description("Broadcast pool sizing decisions")
+                .tag("action", action.name().toLowerCase(Locale.ROOT))
+                .register(registry);
+        }
+        Gauge.builder("sse.autosize.queue.wait", sizer, BroadcastPoolAutoSizer::lastQueueWaitMs)
+            .description("Average wait for a delivery thread in the last control interval")
+            .baseUnit("milliseconds")
+            .register(registry);
+        Gauge.builder("sse.autosize.fanout.duration", sizer, BroadcastPoolAutoSizer::lastFanOutMs)
+            .description("Average broadcast wall time in the last control interval")
+            .baseUnit("milliseconds")
+            .register(registry);
+        Gauge.builder("sse.autosize.cpu.load", sizer, BroadcastPoolAutoSizer::lastCpuLoad)
+            .description("Process CPU load seen by the last control step; negative if unavailable")
+            .register(registry);
+    }
+}
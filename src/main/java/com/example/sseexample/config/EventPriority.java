@@ -0,0 +1,18 @@
+package com.example.sseexample.config;
+
+/**
+ * Delivery classes, highest first. Each connection keeps one queue per class, sends
+ * control frames ahead of everything and shares the rest by weight, so a backlog
+ * in a lower class never holds up a higher one.
+ */
+public enum EventPriority {
+
+    /** Keepalives and handshakes; late ones make proxies drop the stream. */
+    CONTROL,
+
+    /** Events whose value decays within seconds. */
+    REALTIME,
+
+    /** Bursty publisher traffic that can absorb queueing delay. */
+    BULK
+}
@@ -0,0 +1,56 @@
+package com.example.sseexample.config;
+
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.ProtocolHandler;
+import org.apache.coyote.http11.AbstractHttp11Protocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Applies {@code app.sse.connector.*} to the embedded Tomcat connector. The
+ * {@code spring-boot-starter-web} defaults (200 threads, 8192 connections, 8 KiB
+ * read buffers) are sized for short request/response traffic; an SSE pod instead
+ * holds ~1000 idle sockets and serves few requests.
+ */
+@Configuration
+public class SseConnectorConfig implements WebServerFactoryCustomizer<TomcatServletWebServerFactory> {
+
+    private final SseProperties.Connector connector;
+
+    public SseConnectorConfig(SseProperties properties) {
+        this.connector = properties.connector();
+    }
+
+    @Override
+    public void customize(TomcatServletWebServerFactory factory) {
+        factory.addConnectorCustomizers(this::tune);
+    }
+
+    void tune(Connector tomcatConnector) {
+        ProtocolHandler handler = tomcatConnector.getProtocolHandler();
+        if (handler instanceof AbstractHttp11Protocol<?> protocol) {
+            protocol.setMaxThreads(connector.maxThreads());
+            protocol.setMinSpareThreads(connector.minSpareThreads());
+            protocol.setMaxConnections(connector.maxConnections());
+            protocol.setAcceptCount(connector.acceptCount());
+            protocol.setKeepAliveTimeout((int) connector.keepAliveTimeoutMs());
+            // Allocated per processor and held for the whole stream, but an SSE
+            // response carries only a handful of short headers.
+            protocol.setMaxHttpResponseHeaderSize(connector.responseHeaderBufferBytes());
+        }
+        // Socket buffers are endpoint properties with no typed setter on the protocol.
+        tomcatConnector.setProperty("socket.appReadBufSize", String.valueOf(connector.socketReadBufferBytes()));
+        tomcatConnector.setProperty("socket.appWriteBufSize", String.valueOf(connector.socketWriteBufferBytes()));
+
+        if (connector.h2c()) {
+            Http2Protocol http2 = new Http2Protocol();
+            http2.setMaxConcurrentStreams(connector.http2MaxConcurrentStreams());
+            // Only applies while no stream is open; an HTTP/2 connection carrying live
+            // SSE streams is bounded by the emitter timeout instead.
+            http2.setKeepAliveTimeout(connector.keepAliveTimeoutMs());
+            tomcatConnector.addUpgradeProtocol(http2);
+        }
+    }
+}
@@ -1,8 +1,15 @@
 package com.example.sseexample.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
 import org.springframework.boot.context.properties.bind.DefaultValue;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Tunable limits for the SSE endpoint (issue #15).
  *
@@ -10,15 +17,46 @@ import org.springframework.boot.context.properties.bind.DefaultValue;
  * @param timeoutMs      emitter timeout; clients reconnect automatically when it elapses
  * @param sendTimeoutMs  budget for a single emitter send before the client is dropped
  * @param broadcastThreads size of the pool that fans a broadcast out to emitters
+ * @param connector      Tomcat connector tuning for long-lived, mostly idle streams
+ * @param autosize       feedback control of the broadcast pool size
+ * @param priority       per-event-name delivery classes and their drain weights
+ * @param idempotency    how long and how many trigger-event Idempotency-Keys are remembered
+ * @param diagnostics    Flight Recorder events for the delivery path
+ * @param ingest         event sources other than HTTP POST: a local NDJSON socket and a tailed file
+ * @param schedules      periodic events by job name; the heartbeat and sample notifications when unset
+ * @param balancing      shedding load to other replicas once this pod nears its connection cap
+ * @param publish        size limits on published events
+ * @param resume         signed tokens that reopen a stream with the same options at any replica
+ * @param multiplex      limits on streams that carry several logical subscriptions
+ * @param admission      refusing new streams while delivery to the open ones is degrading
+ * @param trace          recording stream lifecycle and publishes for replay
+ * @param ttl            how long an event stays worth delivering, per event name
+ * @param throttles      publish rate limits by event name, conflating what arrives in between
  */
 @ConfigurationProperties(prefix = "app.sse")
 public record SseProperties(
     @DefaultValue("1000") int maxConnections,
     @DefaultValue("300000") long timeoutMs,
     @DefaultValue("5000") long sendTimeoutMs,
-    @DefaultValue("4") int broadcastThreads
+    @DefaultValue("4") int broadcastThreads,
+    @DefaultValue Connector connector,
+    @DefaultValue Autosize autosize,
+    @DefaultValue Priority priority,
+    @DefaultValue Idempotency idempotency,
+    @DefaultValue Diagnostics diagnostics,
+    @DefaultValue Ingest ingest,
+    Map<String, Schedule> schedules,
+    @DefaultValue Balancing balancing,
+    @DefaultValue Publish publish,
+    @DefaultValue Resume resume,
+    @DefaultValue Multiplex multiplex,
+    @DefaultValue Admission admission,
+    @DefaultValue Trace trace,
+    @DefaultValue Ttl ttl,
+    Map<String, Throttle> throttles
 ) {
 
+    @ConstructorBinding
     public SseProperties {
         if (maxConnections < 1) {
             throw new IllegalArgumentException("app.sse.max-connections must be at least 1");
@@ -26,10 +64,704 @@ public record SseProperties(
         if (broadcastThreads < 1) {
             throw new IllegalArgumentException("app.sse.broadcast-threads must be at least 1");
         }
+        // Every stream holds a TCP connection for its whole lifetime. If Tomcat's own
+        // cap is not above ours, a full house of streams locks out trigger-event and
+        // the probes, and the 503 from the admission check can never be sent.
+        if (connector.maxConnections() <= maxConnections) {
+            throw new IllegalArgumentException("app.sse.connector.max-connections ("
+                + connector.maxConnections() + ") must exceed app.sse.max-connections ("
+                + maxConnections + ")");
+        }
+        schedules = schedules == null ? Schedule.defaults() : named(schedules);
+        throttles = throttles == null ? Map.of() : Map.copyOf(throttles);
+    }
+
+    /** A job without an explicit {@code event} publishes under its own name. */
+    private static Map<String, Schedule> named(Map<String, Schedule> schedules) {
+        Map<String, Schedule> named = new LinkedHashMap<>();
+        schedules.forEach((job, schedule) -> named.put(job,
+            schedule.event() == null || schedule.event().isBlank() ? schedule.withEvent(job) : schedule));
+        return Collections.unmodifiableMap(named);
+    }
+
+    /** Limits only, with every nested group at its defaults; the common case in unit tests. */
+    public SseProperties(int maxConnections, long timeoutMs, long sendTimeoutMs, int broadcastThreads) {
+        this(maxConnections, timeoutMs, sendTimeoutMs, broadcastThreads, Connector.defaults(), Autosize.defaults(),
+            Priority.defaults(), Idempotency.defaults(), Diagnostics.defaults(), Ingest.defaults(), null, Balancing.defaults(),
+            Publish.defaults(), Resume.defaults(), Multiplex.defaults(),
+            Admission.defaults(), Trace.defaults(), Ttl.defaults(), null);
+    }
+
+    public SseProperties withConnector(Connector connector) {
+        return new SseProperties(maxConnections, timeoutMs, sendTimeoutMs, broadcastThreads, connector, autosize,
+            priority, idempotency, diagnostics, ingest, schedules, balancing, publish, resume, multiplex,
+            admission, trace, ttl, throttles);
+    }
+
+    public SseProperties withAutosize(Autosize autosize) {
+        return new SseProperties(maxConnections, timeoutMs, sendTimeoutMs, broadcastThreads, connector, autosize,
+            priority, idempotency, diagnostics, ingest, schedules, balancing, publish, resume, multiplex,
+            admission, trace, ttl, throttles);
+    }
+
+    public SseProperties withPriority(Priority priority) {
+        return new SseProperties(maxConnections, timeoutMs, sendTimeoutMs, broadcastThreads, connector, autosize,
+            priority, idempotency, diagnostics, ingest, schedules, balancing, publish, resume, multiplex,
+            admission, trace, ttl, throttles);
+    }
+
+    public SseProperties withDiagnostics(Diagnostics diagnostics) {
+        return new SseProperties(maxConnections, timeoutMs, sendTimeoutMs, broadcastThreads, connector, autosize,
+            priority, idempotency, diagnostics, ingest, schedules, balancing, publish, resume, multiplex,
+            admission, trace, ttl, throttles);
+    }
+
+    public SseProperties withSchedules(Map<String, Schedule> schedules) {
+        return new SseProperties(maxConnections, timeoutMs, sendTimeoutMs, broadcastThreads, connector, autosize,
+            priority, idempotency, diagnostics, ingest, schedules, balancing, publish, resume, multiplex,
+            admission, trace, ttl, throttles);
+    }
+
+    public SseProperties withPublish(Publish publish) {
+        return new SseProperties(maxConnections, timeoutMs, sendTimeoutMs, broadcastThreads, connector, autosize,
+            priority, idempotency, diagnostics, ingest, schedules, balancing, publish, resume, multiplex,
+            admission, trace, ttl, throttles);
+    }
+
+    public SseProperties withResume(Resume resume) {
+        return new SseProperties(maxConnections, timeoutMs, sendTimeoutMs, broadcastThreads, connector, autosize,
+            priority, idempotency, diagnostics, ingest, schedules, balancing, publish, resume, multiplex,
+            admission, trace, ttl, throttles);
+    }
+
+    public SseProperties withMultiplex(Multiplex multiplex) {
+        return new SseProperties(maxConnections, timeoutMs, sendTimeoutMs, broadcastThreads, connector, autosize,
+            priority, idempotency, diagnostics, ingest, schedules, balancing, publish, resume, multiplex,
+            admission, trace, ttl, throttles);
+    }
+
+    public SseProperties withAdmission(Admission admission) {
+        return new SseProperties(maxConnections, timeoutMs, sendTimeoutMs, broadcastThreads, connector, autosize,
+            priority, idempotency, diagnostics, ingest, schedules, balancing, publish, resume, multiplex,
+            admission, trace, ttl, throttles);
+    }
+
+    public SseProperties withTrace(Trace trace) {
+        return new SseProperties(maxConnections, timeoutMs, sendTimeoutMs, broadcastThreads, connector, autosize,
+            priority, idempotency, diagnostics, ingest, schedules, balancing, publish, resume, multiplex,
+            admission, trace, ttl, throttles);
+    }
+
+    public SseProperties withTtl(Ttl ttl) {
+        return new SseProperties(maxConnections, timeoutMs, sendTimeoutMs, broadcastThreads, connector, autosize,
+            priority, idempotency, diagnostics, ingest, schedules, balancing, publish, resume, multiplex,
+            admission, trace, ttl, throttles);
+    }
+
+    public SseProperties withThrottles(Map<String, Throttle> throttles) {
+        return new SseProperties(maxConnections, timeoutMs, sendTimeoutMs, broadcastThreads, connector, autosize,
+            priority, idempotency, diagnostics, ingest, schedules, balancing, publish, resume, multiplex,
+            admission, trace, ttl, throttles);
     }
 
     /** Defaults matching the annotated values, for contexts without property binding. */
     public static SseProperties defaults() {
         return new SseProperties(1000, 300_000L, 5_000L, 4);
     }
+
+    /**
+     * Tomcat connector settings sized for many idle streams rather than many short
+     * requests. Servlet async releases the request thread once the emitter is returned,
+     * so threads track request rate, not stream count.
+     *
+     * @param maxThreads            request-processing threads
+     * @param minSpareThreads       threads kept warm between bursts
+     * @param maxConnections        TCP connections Tomcat accepts; must exceed the stream cap
+     * @param acceptCount           OS backlog once {@code maxConnections} is reached
+     * @param keepAliveTimeoutMs    idle time before a non-streaming keep-alive is closed
+     * @param socketReadBufferBytes per-connection application read buffer
+     * @param socketWriteBufferBytes per-connection application write buffer
+     * @param responseHeaderBufferBytes per-connection response header buffer; SSE headers are tiny
+     * @param h2c                   accept HTTP/2 cleartext upgrades so streams can share a connection
+     * @param http2MaxConcurrentStreams streams allowed on one HTTP/2 connection
+     */
+    public record Connector(
+        @DefaultValue("50") int maxThreads,
+        @DefaultValue("10") int minSpareThreads,
+        @DefaultValue("2000") int maxConnections,
+        @DefaultValue("100") int acceptCount,
+        @DefaultValue("15000") long keepAliveTimeoutMs,
+        @DefaultValue("4096") int socketReadBufferBytes,
+        @DefaultValue("8192") int socketWriteBufferBytes,
+        @DefaultValue("4096") int responseHeaderBufferBytes,
+        @DefaultValue("false") boolean h2c,
+        @DefaultValue("200") int http2MaxConcurrentStreams
+    ) {
+
+        public Connector {
+            if (maxThreads < 1 || minSpareThreads < 0 || minSpareThreads > maxThreads) {
+                throw new IllegalArgumentException(
+                    "app.sse.connector.min-spare-threads must be between 0 and max-threads (at least 1)");
+            }
+            if (socketReadBufferBytes < 1024 || socketWriteBufferBytes < 1024 || responseHeaderBufferBytes < 1024) {
+                throw new IllegalArgumentException("app.sse.connector buffers must be at least 1024 bytes");
+            }
+            if (http2MaxConcurrentStreams < 1) {
+                throw new IllegalArgumentException("app.sse.connector.http2-max-concurrent-streams must be at least 1");
+            }
+        }
+
+        public static Connector defaults() {
+            return new Connector(50, 10, 2000, 100, 15_000L, 4096, 8192, 4096, false, 200);
+        }
+    }
+
+    /**
+     * Feedback control of the broadcast pool. Each interval the controller compares
+     * how long sends waited for a thread against {@code targetQueueWaitMs}: it adds a
+     * thread while sends queue and the CPU has room, cuts the pool by a quarter when
+     * the CPU is saturated, and gives threads back one at a time while idle.
+     *
+     * @param enabled           run the controller; off leaves {@code broadcast-threads} fixed
+     * @param minThreads        lower bound on the pool
+     * @param maxThreads        upper bound on the pool
+     * @param targetQueueWaitMs acceptable average wait between submit and send start
+     * @param cpuCeiling        process CPU load (0..1) above which the pool shrinks
+     * @param intervalMs        sampling period
+     * @param cooldownMs        minimum time between two resizes
+     */
+    public record Autosize(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("1") int minThreads,
+        @DefaultValue("8") int maxThreads,
+        @DefaultValue("50") long targetQueueWaitMs,
+        @DefaultValue("0.85") double cpuCeiling,
+        @DefaultValue("5000") long intervalMs,
+        @DefaultValue("15000") long cooldownMs
+    ) {
+
+        public Autosize {
+            if (minThreads < 1 || maxThreads < minThreads) {
+                throw new IllegalArgumentException(
+                    "app.sse.autosize requires 1 <= min-threads <= max-threads");
+            }
+            if (cpuCeiling <= 0 || cpuCeiling > 1) {
+                throw new IllegalArgumentException("app.sse.autosize.cpu-ceiling must be in (0, 1]");
+            }
+            if (targetQueueWaitMs < 1 || intervalMs < 1 || cooldownMs < 0) {
+                throw new IllegalArgumentException("app.sse.autosize timings must be positive");
+            }
+        }
+
+        public static Autosize defaults() {
+            return new Autosize(false, 1, 8, 50L, 0.85, 5_000L, 15_000L);
+        }
+    }
+
+    /**
+     * Maps event names to delivery classes and sets how each connection shares its
+     * sends between them. Control frames are always sent next, so they wait for at
+     * most the send already in progress; realtime and bulk then share the connection
+     * by weighted round robin.
+     *
+     * @param events          event name to class; merged over the built-in defaults
+     * @param defaultPriority class for names not listed
+     * @param realtimeWeight  frames per round from the realtime queue
+     * @param bulkWeight      frames per round from the bulk queue
+     * @param maxFramesPerTurn frames one connection may send before yielding its pool thread
+     */
+    public record Priority(
+        Map<String, EventPriority> events,
+        @DefaultValue("realtime") EventPriority defaultPriority,
+        @DefaultValue("4") int realtimeWeight,
+        @DefaultValue("1") int bulkWeight,
+        @DefaultValue("16") int maxFramesPerTurn
+    ) {
+
+        /**
+         * The service's own event names; "custom" is publisher traffic from trigger-event.
+         * State snapshots are always sent as control so that patches follow them.
+         */
+        static final Map<String, EventPriority> DEFAULT_EVENTS = Map.of(
+            "connected", EventPriority.CONTROL,
+            "heartbeat", EventPriority.CONTROL,
+            "notification", EventPriority.REALTIME,
+            "patch", EventPriority.REALTIME,
+            "custom", EventPriority.BULK);
+
+        public Priority {
+            Map<String, EventPriority> merged = new HashMap<>(DEFAULT_EVENTS);
+            if (events != null) {
+                merged.putAll(events);
+            }
+            events = Map.copyOf(merged);
+            if (realtimeWeight < 1 || bulkWeight < 1 || maxFramesPerTurn < 1) {
+                throw new IllegalArgumentException("app.sse.priority weights and max-frames-per-turn must be at least 1");
+            }
+        }
+
+        public static Priority defaults() {
+            return new Priority(null, EventPriority.REALTIME, 4, 1, 16);
+        }
+
+        public EventPriority of(String eventName) {
+            return eventName == null ? defaultPriority : events.getOrDefault(eventName, defaultPriority);
+        }
+
+        /** Round-robin weight; control is strict priority and takes no part. */
+        public int weight(EventPriority priority) {
+            return switch (priority) {
+                case CONTROL -> 0;
+                case REALTIME -> realtimeWeight;
+                case BULK -> bulkWeight;
+            };
+        }
+    }
+
+    /**
+     * Deduplication of trigger-event publishes by {@code Idempotency-Key}. A retry
+     * within {@code ttlMs} is acknowledged without a second fan-out; past
+     * {@code maxKeys} the oldest keys are forgotten first.
+     *
+     * @param ttlMs        how long a key is remembered; should cover producers' retry window
+     * @param maxKeys      keys remembered at once, bounding the cache's memory
+     * @param maxKeyLength longest accepted key; longer keys are rejected with 400
+     */
+    public record Idempotency(
+        @DefaultValue("300000") long ttlMs,
+        @DefaultValue("10000") int maxKeys,
+        @DefaultValue("255") int maxKeyLength
+    ) {
+
+        public Idempotency {
+            if (ttlMs < 1 || maxKeys < 1 || maxKeyLength < 1) {
+                throw new IllegalArgumentException("app.sse.idempotency values must be at least 1");
+            }
+        }
+
+        public static Idempotency defaults() {
+            return new Idempotency(300_000L, 10_000, 255);
+        }
+    }
+
+    /**
+     * JDK Flight Recorder events for admission, broadcasts, slow sends, drops and
+     * pool saturation. The events are always compiled in and cost a flag check while
+     * no recording enables them; {@code jfr} starts a bounded in-process recording
+     * that the {@code ssejfr} actuator endpoint dumps.
+     *
+     * @param jfr                  start the recording at startup
+     * @param sendThresholdMs      record sends that take at least this long
+     * @param queueWaitThresholdMs record a saturation event when a drain waits this long for a thread
+     * @param maxAgeMs             oldest data the recording keeps
+     * @param maxSizeBytes         most data the recording keeps
+     * @param jdkEvents            also record the JDK's default event set (GC, socket I/O, locks)
+     */
+    public record Diagnostics(
+        @DefaultValue("false") boolean jfr,
+        @DefaultValue("20") long sendThresholdMs,
+        @DefaultValue("100") long queueWaitThresholdMs,
+        @DefaultValue("600000") long maxAgeMs,
+        @DefaultValue("67108864") long maxSizeBytes,
+        @DefaultValue("true") boolean jdkEvents
+    ) {
+
+        public Diagnostics {
+            if (sendThresholdMs < 0 || queueWaitThresholdMs < 0) {
+                throw new IllegalArgumentException("app.sse.diagnostics thresholds must not be negative");
+            }
+            if (maxAgeMs < 1 || maxSizeBytes < 1) {
+                throw new IllegalArgumentException("app.sse.diagnostics max-age-ms and max-size-bytes must be positive");
+            }
+        }
+
+        public static Diagnostics defaults() {
+            return new Diagnostics(false, 20L, 100L, 600_000L, 64L * 1024 * 1024, true);
+        }
+    }
+
+    /**
+     * Producers that push more than HTTP per-request overhead allows. Both sources
+     * read newline-delimited JSON ({@code {"event":"custom","data":...}}) in batches
+     * into one bounded buffer; when it is full they stop reading, so a fast producer
+     * is slowed by TCP flow control or simply falls behind the file, never by memory.
+     *
+     * @param bufferEvents    events decoded but not yet broadcast, shared by all sources
+     * @param maxLineBytes    longest accepted line; longer lines are skipped and counted as malformed
+     * @param readBufferBytes bytes read from a socket or file per call
+     * @param tcpEnabled      listen for NDJSON on {@code tcpAddress:tcpPort}
+     * @param tcpAddress      bind address; loopback by default since the socket is unauthenticated
+     * @param tcpPort         listen port
+     * @param tcpMaxClients   producers connected at once; further connections are closed
+     * @param tailPath        NDJSON file to follow, like {@code tail -F}; empty disables it
+     * @param tailPollMs      how often the file is checked for growth once caught up
+     * @param tailFromStart   read the existing content first rather than only appended lines
+     */
+    public record Ingest(
+        @DefaultValue("10000") int bufferEvents,
+        @DefaultValue("65536") int maxLineBytes,
+        @DefaultValue("65536") int readBufferBytes,
+        @DefaultValue("false") boolean tcpEnabled,
+        @DefaultValue("127.0.0.1") String tcpAddress,
+        @DefaultValue("7070") int tcpPort,
+        @DefaultValue("4") int tcpMaxClients,
+        @DefaultValue("") String tailPath,
+        @DefaultValue("250") long tailPollMs,
+        @DefaultValue("false") boolean tailFromStart
+    ) {
+
+        public Ingest {
+            if (bufferEvents < 1 || maxLineBytes < 1 || readBufferBytes < 1 || tcpMaxClients < 1 || tailPollMs < 1) {
+                throw new IllegalArgumentException("app.sse.ingest sizes, limits and intervals must be at least 1");
+            }
+            if (tcpPort < 0 || tcpPort > 65535) {
+                throw new IllegalArgumentException("app.sse.ingest.tcp-port must be between 0 and 65535");
+            }
+        }
+
+        public static Ingest defaults() {
+            return new Ingest(10_000, 65_536, 65_536, false, "127.0.0.1", 7070, 4, "", 250L, false);
+        }
+    }
+
+    /**
+     * One periodic event, e.g. {@code app.sse.schedules.heartbeat.period-ms=30000}.
+     * Ticks only hand the broadcast to a dispatch thread, so a slow fan-out never holds
+     * up other jobs; ticks that fall due while the previous broadcast is still running,
+     * or while the scheduler was stalled, are coalesced into the next one rather than
+     * fired back-to-back.
+     *
+     * @param enabled        false keeps the job configured but idle, e.g. to turn off a default
+     * @param event          event name; the job name when omitted
+     * @param periodMs       interval between ticks
+     * @param initialDelayMs delay before the first tick
+     * @param jitterMs       each tick fires up to this much early or late, so pods started
+     *                       together do not publish in lockstep; the period does not drift
+     * @param messages       payloads to publish, at least one
+     * @param selection      how a tick picks among {@code messages}
+     */
+    public record Schedule(
+        @DefaultValue("true") boolean enabled,
+        String event,
+        long periodMs,
+        @DefaultValue("0") long initialDelayMs,
+        @DefaultValue("0") long jitterMs,
+        List<String> messages,
+        @DefaultValue("random") Selection selection
+    ) {
+
+        public enum Selection { RANDOM, ROUND_ROBIN }
+
+        public Schedule {
+            if (periodMs < 1) {
+                throw new IllegalArgumentException("app.sse.schedules.*.period-ms must be at least 1");
+            }
+            if (initialDelayMs < 0 || jitterMs < 0 || jitterMs >= periodMs) {
+                throw new IllegalArgumentException(
+                    "app.sse.schedules.*.initial-delay-ms must not be negative and jitter-ms must be below period-ms");
+            }
+            if (messages == null || messages.isEmpty()) {
+                throw new IllegalArgumentException("app.sse.schedules.*.messages needs at least one message");
+            }
+            messages = List.copyOf(messages);
+        }
+
+        public Schedule withEvent(String event) {
+            return new Schedule(enabled, event, periodMs, initialDelayMs, jitterMs, messages, selection);
+        }
+
+        /** The jobs this service always ran: a heartbeat and random sample notifications. */
+        public static Map<String, Schedule> defaults() {
+            Map<String, Schedule> defaults = new LinkedHashMap<>();
+            defaults.put("heartbeat", new Schedule(true, "heartbeat", 30_000L, 0L, 0L,
+                List.of("Server heartbeat"), Selection.RANDOM));
+            defaults.put("notification", new Schedule(true, "notification", 15_000L, 10_000L, 0L,
+                List.of("New user registered", "Order processed successfully", "System maintenance scheduled",
+                    "Database backup completed", "New feature deployed"),
+                Selection.RANDOM));
+            return Collections.unmodifiableMap(defaults);
+        }
+    }
+
+    /**
+     * Rebalancing of long-lived streams across replicas. Streams stay on the pod they
+     * first reached, so after a rollout or scale-up the new pods sit empty while the
+     * old ones approach the cap. Above {@code highWater} of the connection cap a pod
+     * reports itself not ready, so the Service stops routing new streams to it, and
+     * each interval closes a few of its oldest streams with an SSE {@code retry:}
+     * hint; their clients reconnect, through the Service, to a pod that is ready. It
+     * becomes ready again once it is back under {@code lowWater}.
+     *
+     * @param enabled        evaluate load and shed; the load header is sent either way
+     * @param highWater      fraction of {@code max-connections} at which the pod refuses traffic
+     * @param lowWater       fraction it sheds down to before accepting traffic again
+     * @param intervalMs     how often load is evaluated and a batch is shed
+     * @param shedFraction   most of the open streams closed per interval; at least one
+     * @param minAgeMs       streams younger than this are never shed, so a client is not bounced twice
+     * @param retryMs        reconnect delay sent to shed clients
+     * @param retryJitterMs  random extra delay, spreading the reconnects of one batch
+     */
+    public record Balancing(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("0.9") double highWater,
+        @DefaultValue("0.8") double lowWater,
+        @DefaultValue("5000") long intervalMs,
+        @DefaultValue("0.02") double shedFraction,
+        @DefaultValue("30000") long minAgeMs,
+        @DefaultValue("1000") long retryMs,
+        @DefaultValue("4000") long retryJitterMs
+    ) {
+
+        public Balancing {
+            if (!(lowWater > 0 && lowWater < highWater && highWater <= 1)) {
+                throw new IllegalArgumentException(
+                    "app.sse.balancing requires 0 < low-water < high-water <= 1");
+            }
+            if (!(shedFraction > 0 && shedFraction <= 1)) {
+                throw new IllegalArgumentException("app.sse.balancing.shed-fraction must be in (0, 1]");
+            }
+            if (intervalMs < 1 || minAgeMs < 0 || retryMs < 0 || retryJitterMs < 0) {
+                throw new IllegalArgumentException(
+                    "app.sse.balancing.interval-ms must be positive and the other durations not negative");
+            }
+        }
+
+        public static Balancing defaults() {
+            return new Balancing(false, 0.9, 0.8, 5_000L, 0.02, 30_000L, 1_000L, 4_000L);
+        }
+    }
+
+    /**
+     * Limits on what a publisher may broadcast. Every rendered frame of a broadcast is
+     * held until its slowest subscriber has it, so one oversized event costs its size
+     * times the encodings in use for up to {@code send-timeout-ms}, per concurrent
+     * publish. trigger-event bodies over the limit are refused with 413 after reading
+     * at most one byte past it.
+     *
+     * @param maxEventBytes largest event payload, in UTF-8 bytes
+     */
+    public record Publish(
+        @DefaultValue("262144") int maxEventBytes
+    ) {
+
+        public Publish {
+            if (maxEventBytes < 1) {
+                throw new IllegalArgumentException("app.sse.publish.max-event-bytes must be at least 1");
+            }
+        }
+
+        public static Publish defaults() {
+            return new Publish(262_144);
+        }
+    }
+
+    /**
+     * Resume tokens: each stream is sent a signed token of its encoding, filter and
+     * ordering, and {@code /api/events?resume=} reopens a stream with those options
+     * at any replica, checking only the signature. All replicas must share
+     * {@code secret}; no tokens are issued while it is empty. When rotating it, keep
+     * the old value in {@code previousSecrets} for one {@code ttlMs}.
+     *
+     * @param secret          HMAC-SHA256 signing key, at least 32 characters; empty disables tokens
+     * @param previousSecrets keys still accepted when verifying, never used to sign
+     * @param ttlMs           how long after issue a token is accepted
+     */
+    public record Resume(
+        @DefaultValue("") String secret,
+        List<String> previousSecrets,
+        @DefaultValue("3600000") long ttlMs
+    ) {
+
+        static final int MIN_SECRET_LENGTH = 32;
+
+        public Resume {
+            secret = secret == null ? "" : secret;
+            previousSecrets = previousSecrets == null ? List.of() : List.copyOf(previousSecrets);
+            for (String key : previousSecrets) {
+                if (key.length() < MIN_SECRET_LENGTH) {
+                    throw new IllegalArgumentException(
+                        "app.sse.resume.previous-secrets entries must be at least " + MIN_SECRET_LENGTH + " characters");
+                }
+            }
+            if (!secret.isEmpty() && secret.length() < MIN_SECRET_LENGTH) {
+                throw new IllegalArgumentException(
+                    "app.sse.resume.secret must be empty or at least " + MIN_SECRET_LENGTH + " characters");
+            }
+            if (ttlMs < 1) {
+                throw new IllegalArgumentException("app.sse.resume.ttl-ms must be at least 1");
+            }
+        }
+
+        public boolean enabled() {
+            return !secret.isEmpty();
+        }
+
+        public static Resume defaults() {
+            return new Resume("", List.of(), 3_600_000L);
+        }
+    }
+
+    /**
+     * Multiplexed streams: one {@code /api/events?mode=mux} connection carries several
+     * logical subscriptions, each with its own filter, at the cost of one connection
+     * slot. Every event is sent once per stream, tagged in its SSE id with the
+     * subscriptions it matched.
+     *
+     * @param maxSubscriptions logical subscriptions one stream may hold
+     */
+    public record Multiplex(
+        @DefaultValue("16") int maxSubscriptions
+    ) {
+
+        public Multiplex {
+            if (maxSubscriptions < 1) {
+                throw new IllegalArgumentException("app.sse.multiplex.max-subscriptions must be at least 1");
+            }
+        }
+
+        public static Multiplex defaults() {
+            return new Multiplex(16);
+        }
+    }
+
+    /**
+     * Adaptive admission. Each interval the pod checks how its open streams are being
+     * served: broadcast fan-out p99, p99 wait for a delivery thread, and heap
+     * occupancy after the last collection. While any is over its limit, new streams
+     * are refused with 503 and a Retry-After that grows with how far over the limit
+     * the worst signal is and how many intervals in a row it has been, so existing
+     * subscribers keep their latency instead of sharing a pod that cannot serve more.
+     * Open streams are never dropped by it.
+     *
+     * @param enabled               run the checks; off leaves only the connection cap
+     * @param maxFanOutP99Ms        fan-out p99 above which new streams are refused
+     * @param maxQueueWaitP99Ms     p99 wait for a broadcast pool thread above which new streams are refused
+     * @param maxHeapOccupancy      heap in use after collection (0..1) above which new streams are refused
+     * @param intervalMs            sampling period; latencies are taken over the last one
+     * @param minRetryAfterSeconds  Retry-After when just over a limit
+     * @param maxRetryAfterSeconds  Retry-After ceiling however degraded the pod is
+     */
+    public record Admission(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("2000") long maxFanOutP99Ms,
+        @DefaultValue("500") long maxQueueWaitP99Ms,
+        @DefaultValue("0.9") double maxHeapOccupancy,
+        @DefaultValue("1000") long intervalMs,
+        @DefaultValue("2") long minRetryAfterSeconds,
+        @DefaultValue("60") long maxRetryAfterSeconds
+    ) {
+
+        public Admission {
+            if (maxFanOutP99Ms < 1 || maxQueueWaitP99Ms < 1 || intervalMs < 1) {
+                throw new IllegalArgumentException("app.sse.admission limits and interval-ms must be positive");
+            }
+            if (!(maxHeapOccupancy > 0 && maxHeapOccupancy <= 1)) {
+                throw new IllegalArgumentException("app.sse.admission.max-heap-occupancy must be in (0, 1]");
+            }
+            if (minRetryAfterSeconds < 1 || maxRetryAfterSeconds < minRetryAfterSeconds) {
+                throw new IllegalArgumentException(
+                    "app.sse.admission requires 1 <= min-retry-after-seconds <= max-retry-after-seconds");
+            }
+        }
+
+        public static Admission defaults() {
+            return new Admission(false, 2_000L, 500L, 0.9, 1_000L, 2L, 60L);
+        }
+    }
+
+    /**
+     * Traffic recording for replay (see {@code TrafficTrace}): every admission,
+     * disconnect and publish, with its time, connection id, stream options, event
+     * name and payload size, in a compact binary file. Payloads, filters and client
+     * details are not recorded. A writer thread of its own owns the file, so a
+     * request only queues its record. Recording stops once the file reaches
+     * {@code maxBytes}; a restart overwrites it.
+     *
+     * @param file     where to write the trace; empty, the default, records nothing
+     * @param maxBytes size at which recording stops
+     */
+    public record Trace(
+        @DefaultValue("") String file,
+        @DefaultValue("67108864") long maxBytes
+    ) {
+
+        public Trace {
+            file = file == null ? "" : file.trim();
+            if (maxBytes < 1024) {
+                throw new IllegalArgumentException("app.sse.trace.max-bytes must be at least 1024");
+            }
+        }
+
+        public boolean enabled() {
+            return !file.isEmpty();
+        }
+
+        public static Trace defaults() {
+            return new Trace("", 67_108_864L);
+        }
+    }
+
+    /**
+     * Event time-to-live: an event still queued for a subscriber once its TTL has
+     * passed is discarded rather than sent late, so a lagging stream skips to fresh
+     * data. The TTL runs from the publish, or from arrival for ingested events, and
+     * is checked when a frame is taken off a stream's queue. A trigger-event
+     * {@code ttlMs} parameter or an NDJSON {@code ttlMs} field overrides it per
+     * publish. 0 means the event never expires.
+     *
+     * @param events    TTL in milliseconds by event name
+     * @param defaultMs TTL of events not named in {@code events}
+     */
+    public record Ttl(
+        Map<String, Long> events,
+        @DefaultValue("0") long defaultMs
+    ) {
+
+        public Ttl {
+            events = events == null ? Map.of() : Map.copyOf(events);
+            if (defaultMs < 0 || events.values().stream().anyMatch(ms -> ms < 0)) {
+                throw new IllegalArgumentException("app.sse.ttl values must not be negative");
+            }
+        }
+
+        public static Ttl defaults() {
+            return new Ttl(null, 0L);
+        }
+
+        /** Milliseconds {@code eventName} stays deliverable; 0 if it never expires. */
+        public long of(String eventName) {
+            return eventName == null ? defaultMs : events.getOrDefault(eventName, defaultMs);
+        }
+    }
+
+    /**
+     * A publish rate limit for one event name, e.g.
+     * {@code app.sse.throttles.price.window-ms=250}. The first publish after a quiet
+     * window is broadcast at once; publishes arriving within {@code windowMs} of a
+     * broadcast are conflated into one broadcast when the window closes, so the name
+     * fans out at most once per window however fast it is published. Applies to
+     * trigger-event and ingested publishes, not to scheduled events.
+     *
+     * @param windowMs        shortest interval between two broadcasts of the name
+     * @param conflation      {@code latest} broadcasts only the newest publish of the window;
+     *                        {@code digest} broadcasts {@code {"count":n,"events":[...]}} of all of them
+     * @param maxDigestEvents most events a digest lists, newest kept; {@code count} still counts all
+     */
+    public record Throttle(
+        long windowMs,
+        @DefaultValue("latest") Conflation conflation,
+        @DefaultValue("100") int maxDigestEvents
+    ) {
+
+        public enum Conflation { LATEST, DIGEST }
+
+        public Throttle {
+            if (windowMs < 1 || maxDigestEvents < 1) {
+                throw new IllegalArgumentException("app.sse.throttles.*.window-ms and max-digest-events must be at least 1");
+            }
+            if (conflation == null) {
+                conflation = Conflation.LATEST;
+            }
+        }
+    }
 }
@@ -1,48 +1,260 @@
 package com.example.sseexample.controller;
 
 import com.example.sseexample.service.EventService;
+import com.example.sseexample.service.EventTooLargeException;
+import com.example.sseexample.service.StreamOptions;
 import com.example.sseexample.service.SseCapacityExceededException;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
 @RestController
 @RequestMapping("/api")
 public class EventController {
 
+    static final String LOAD_HEADER = "X-SSE-Load";
+
     private final EventService eventService;
 
     public EventController(EventService eventService) {
         this.eventService = eventService;
     }
 
+    /** Every response reports this pod's load; see EventService#load. */
+    @ModelAttribute
+    public void addLoadHeader(HttpServletResponse response) {
+        response.setHeader(LOAD_HEADER, String.format(Locale.ROOT, "%.3f", eventService.load()));
+    }
+
+    /**
+     * Opens an event stream. {@code encoding} selects the payload format (see
+     * {@link com.example.sseexample.service.PayloadEncoding}) and {@code filter} an
+     * expression evaluated server-side (see {@link com.example.sseexample.service.EventFilter}).
+     * {@code ordered=true} delivers strictly in broadcast order, heartbeats included.
+     */
     @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter streamEvents() {
-        return eventService.createEventStream();
+    public SseEmitter streamEvents(@RequestParam(required = false) String encoding,
+                                   @RequestParam(required = false) String filter,
+                                   @RequestParam(defaultValue = "false") boolean ordered) {
+        if (encoding == null && filter == null && !ordered) {
+            return eventService.createEventStream();
+        }
+        StreamOptions options;
+        try {
+            options = StreamOptions.parse(encoding, filter, ordered);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return eventService.openStream(options);
+    }
+
+    /**
+     * Reopens a stream with the options in a token from an earlier stream's "resume"
+     * event, which any replica sharing {@code app.sse.resume.secret} accepts.
+     */
+    @GetMapping(value = "/events", params = {"resume", "!mode"}, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter resumeEvents(@RequestParam String resume) {
+        StreamOptions options;
+        try {
+            options = eventService.resume(resume);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return eventService.openStream(options);
+    }
+
+    /**
+     * Multiplexed stream: many logical subscriptions, each {@code id} or
+     * {@code id:filter}, over one connection. The "multiplex" event after
+     * "connected" carries the stream key for the subscription endpoints below.
+     */
+    @GetMapping(value = "/events", params = "mode=mux", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMultiplexed(@RequestParam(required = false) String encoding,
+                                        @RequestParam(defaultValue = "false") boolean ordered,
+                                        @RequestParam(required = false) String filter,
+                                        @RequestParam(required = false) List<String> subscribe) {
+        if (filter != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "A multiplexed stream filters per subscription: subscribe=id:filter");
+        }
+        try {
+            return eventService.openMultiplexedStream(StreamOptions.parse(encoding, null, ordered),
+                subscribe == null ? List.of() : subscribe);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Adds or replaces a subscription on a multiplexed stream. 404 if the stream is
+     * not open on this replica.
+     */
+    @PutMapping("/streams/{stream}/subscriptions/{subscription}")
+    public ResponseEntity<Void> subscribe(@PathVariable String stream, @PathVariable String subscription,
+                                          @RequestParam(required = false) String filter) {
+        boolean found;
+        try {
+            found = eventService.subscribe(stream, subscription, filter);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return found ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping("/streams/{stream}/subscriptions/{subscription}")
+    public ResponseEntity<Void> unsubscribe(@PathVariable String stream, @PathVariable String subscription) {
+        return eventService.unsubscribe(stream, subscription)
+            ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
     }
 
+    /** Keyed state stream: one snapshot on connect, then patches; see EventService#createStateStream. */
+    @GetMapping(value = "/events", params = "mode=state", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamState() {
+        return eventService.createStateStream();
+    }
+
+    @GetMapping("/state")
+    public ResponseEntity<JsonNode> currentState() {
+        return ResponseEntity.ok(eventService.stateSnapshot());
+    }
+
+    @PutMapping("/state/{key}")
+    public ResponseEntity<String> publishState(@PathVariable String key, @RequestBody JsonNode value) {
+        long version = eventService.publishState(key, value);
+        return ResponseEntity.ok("State version " + version);
+    }
+
+    @DeleteMapping("/state/{key}")
+    public ResponseEntity<String> removeState(@PathVariable String key) {
+        long version = eventService.publishState(key, null);
+        return ResponseEntity.ok("State version " + version);
+    }
+
+    /**
+     * Broadcasts a custom event. The body is read here rather than bound as a
+     * {@code @RequestBody}, so one over {@code app.sse.publish.max-event-bytes} is
+     * refused with 413 after at most one byte past the limit, or before any is read
+     * when its Content-Length already says so. {@code ttlMs} overrides the
+     * configured time-to-live of custom events for this publish; 0 never expires.
+     */
     @PostMapping("/trigger-event")
-    public ResponseEntity<String> triggerEvent(@RequestBody String message) {
-        eventService.broadcastEvent("custom", message);
+    public ResponseEntity<String> triggerEvent(HttpServletRequest request,
+                                               @RequestHeader(value = "Idempotency-Key", required = false)
+                                               String idempotencyKey,
+                                               @RequestParam(required = false) Long ttlMs) throws IOException {
+        String message = readEvent(request, eventService.maxEventBytes());
+        if (message.isEmpty()) {
+            return ResponseEntity.badRequest().body("Event body is required");
+        }
+        return publishCustom(message, idempotencyKey, ttlMs);
+    }
+
+    /**
+     * Broadcasts {@code message} as a custom event. A retry carrying an
+     * {@code Idempotency-Key} already seen is acknowledged without broadcasting again;
+     * a publish that fails gives its key back, so the retry is broadcast.
+     * Under an {@code app.sse.throttles.custom} window, a publish that must wait for
+     * the window to close is acknowledged with 202.
+     */
+    private ResponseEntity<String> publishCustom(String message, String idempotencyKey, Long ttlMs) {
+        if (ttlMs != null && ttlMs < 0) {
+            return ResponseEntity.badRequest().body("ttlMs must not be negative");
+        }
+        if (idempotencyKey != null) {
+            boolean first;
+            try {
+                first = eventService.claimPublishKey(idempotencyKey);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+            if (!first) {
+                return ResponseEntity.ok("Event already triggered");
+            }
+        }
+        boolean broadcast;
+        try {
+            broadcast = eventService.publish("custom", message, ttlMs);
+        } catch (RuntimeException e) {
+            if (idempotencyKey != null) {
+                eventService.releasePublishKey(idempotencyKey);
+            }
+            throw e;
+        }
+        if (!broadcast) {
+            return ResponseEntity.accepted().body("Event conflated");
+        }
         return ResponseEntity.ok("Event triggered");
     }
 
+    private String readEvent(HttpServletRequest request, int maxEventBytes) throws IOException {
+        long declared = request.getContentLengthLong();
+        if (declared > maxEventBytes) {
+            eventService.recordOversizedPublish();
+            throw new EventTooLargeException(maxEventBytes);
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream(declared > 0 ? (int) declared : 1024);
+        byte[] buffer = new byte[8192];
+        try (InputStream in = request.getInputStream()) {
+            int read;
+            // Never asks for more than one byte past the limit.
+            while ((read = in.read(buffer, 0, (int) Math.min(buffer.length, maxEventBytes + 1L - body.size()))) > 0) {
+                body.write(buffer, 0, read);
+                if (body.size() > maxEventBytes) {
+                    eventService.recordOversizedPublish();
+                    throw new EventTooLargeException(maxEventBytes);
+                }
+            }
+        }
+        return body.toString(charsetOf(request));
+    }
+
+    /** The declared charset, else UTF-8, which is what Spring's string binding assumed. */
+    private static Charset charsetOf(HttpServletRequest request) {
+        String encoding = request.getCharacterEncoding();
+        if (encoding != null) {
+            try {
+                return Charset.forName(encoding);
+            } catch (IllegalArgumentException e) {
+                // Unknown or malformed; decode as UTF-8 like an undeclared body.
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
     @GetMapping("/")
     public ResponseEntity<String> home() {
         return ResponseEntity.ok("SSE Example Server is running! Visit /test.html to see SSE in action.");
     }
 
     /**
-     * Refuses new streams once the connection cap is reached, telling well-behaved
-     * clients when to come back instead of dropping them silently.
+     * Refuses new streams once the connection cap is reached or delivery is degraded,
+     * telling well-behaved clients when to come back instead of dropping them silently.
      */
     @ExceptionHandler(SseCapacityExceededException.class)
     public ResponseEntity<String> handleCapacityExceeded(SseCapacityExceededException e) {
         return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-            .header(HttpHeaders.RETRY_AFTER, "5")
+            .header(HttpHeaders.RETRY_AFTER, Long.toString(e.retryAfterSeconds()))
             .body(e.getMessage());
     }
+
+    @ExceptionHandler(EventTooLargeException.class)
+    public ResponseEntity<String> handleEventTooLarge(EventTooLargeException e) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(e.getMessage());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,219 @@
+package com.example.sseexample.ingest;
+
+import com.example.sseexample.config.SseProperties;
+import com.example.sseexample.service.EventService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the configured {@link EventSource}s and broadcasts what they decode. Sources
+ * share one bounded buffer drained by a single dispatcher, so ingested events keep
+ * their arrival order and are broadcast one at a time like trigger-event publishes.
+ * A broadcast blocks until its fan-out settles, which is what paces the dispatcher;
+ * once the buffer fills, sources stop reading and the pressure reaches producers.
+ * An event's time-to-live runs from its arrival, so one that outlives it in the
+ * buffer is discarded instead of broadcast late. Event names under
+ * {@code app.sse.throttles} are conflated there as trigger-event publishes are.
+ *
+ * <p>Sources are built from {@code app.sse.ingest.*} at runtime rather than as
+ * conditional beans, so the AOT-processed image can still switch them on.
+ */
+@Component
+public class EventIngestor implements EventSink {
+
+    private static final Logger log = LoggerFactory.getLogger(EventIngestor.class);
+    private static final int DISPATCH_BATCH = 256;
+    private static final long OFFER_POLL_MS = 100;
+    private static final long LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final EventService eventService;
+    private final BlockingQueue<Arrival> buffer;
+    private final List<EventSource> sources;
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder malformed = new LongAdder();
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LogLimit malformedLog = new LogLimit();
+    private final LogLimit failedLog = new LogLimit();
+    private final Thread dispatcher;
+    private volatile boolean stopped;
+
+    private record Arrival(IngestEvent event, long acceptedNanos) {
+    }
+
+    /** One line per interval at most, so a producer sending garbage cannot flood the log. */
+    private static final class LogLimit {
+        private final AtomicLong nextNanos = new AtomicLong(System.nanoTime());
+        private final AtomicLong unlogged = new AtomicLong();
+
+        /** Occurrences since the last line if one is due now, including this one; otherwise 0. */
+        long due() {
+            long count = unlogged.incrementAndGet();
+            long now = System.nanoTime();
+            long next = nextNanos.get();
+            if (now - next >= 0 && nextNanos.compareAndSet(next, now + LOG_INTERVAL_NANOS)) {
+                unlogged.addAndGet(-count);
+                return count;
+            }
+            return 0;
+        }
+    }
+
+    @Autowired
+    public EventIngestor(EventService eventService, SseProperties properties, ObjectProvider<EventSource> beans) {
+        this(eventService, properties.ingest(), configured(properties.ingest(), beans));
+    }
+
+    EventIngestor(EventService eventService, SseProperties.Ingest config, List<EventSource> sources) {
+        this.eventService = eventService;
+        this.buffer = new ArrayBlockingQueue<>(config.bufferEvents());
+        this.sources = List.copyOf(sources);
+        if (this.sources.isEmpty()) {
+            this.dispatcher = null;
+            return;
+        }
+        this.dispatcher = new Thread(this::dispatch, "sse-ingest-dispatch");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+        for (EventSource source : this.sources) {
+            try {
+                source.start(this);
+            } catch (IOException e) {
+                shutdown();
+                throw new IllegalStateException("Cannot start event source " + source.name(), e);
+            }
+        }
+    }
+
+    private static List<EventSource> configured(SseProperties.Ingest config, ObjectProvider<EventSource> beans) {
+        List<EventSource> sources = new ArrayList<>();
+        if (config.tcpEnabled()) {
+            sources.add(new TcpEventSource(new InetSocketAddress(config.tcpAddress(), config.tcpPort()),
+                config.tcpMaxClients(), config.readBufferBytes(), config.maxLineBytes()));
+        }
+        if (!config.tailPath().isBlank()) {
+            sources.add(new FileTailEventSource(Path.of(config.tailPath()), config.tailPollMs(),
+                config.tailFromStart(), config.readBufferBytes(), config.maxLineBytes()));
+        }
+        beans.orderedStream().forEach(sources::add);
+        return sources;
+    }
+
+    /** Blocks while the buffer is full; gives up with an interrupt once ingest is shut down. */
+    @Override
+    public void accept(IngestEvent event) throws InterruptedException {
+        Arrival arrival = new Arrival(event, System.nanoTime());
+        while (!buffer.offer(arrival, OFFER_POLL_MS, TimeUnit.MILLISECONDS)) {
+            if (stopped) {
+                throw new InterruptedException("ingest stopped");
+            }
+        }
+        accepted.increment();
+    }
+
+    @Override
+    public void malformed(String source, String reason) {
+        malformed.increment();
+        if (!log.isDebugEnabled()) {
+            return;
+        }
+        long unlogged = malformedLog.due();
+        if (unlogged > 0) {
+            log.debug("Skipped a malformed record from {}: {} ({} skipped since the last report)",
+                source, reason, unlogged);
+        }
+    }
+
+    private void dispatch() {
+        List<Arrival> batch = new ArrayList<>(DISPATCH_BATCH);
+        try {
+            while (!stopped) {
+                batch.add(buffer.take());
+                buffer.drainTo(batch, DISPATCH_BATCH - 1);
+                for (Arrival arrival : batch) {
+                    IngestEvent event = arrival.event();
+                    long ttlMs = event.ttlMs() != null ? event.ttlMs() : eventService.ttlMs(event.name());
+                    long remainingMs = ttlMs - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - arrival.acceptedNanos());
+                    if (ttlMs > 0 && remainingMs <= 0) {
+                        expired.increment();
+                        continue;
+                    }
+                    try {
+                        eventService.publish(event.name(), event.data(), ttlMs == 0 ? 0 : remainingMs);
+                        dispatched.increment();
+                    } catch (RuntimeException e) {
+                        // One event that cannot be broadcast must not stop ingest.
+                        failed.increment();
+                        long unlogged = failedLog.due();
+                        if (unlogged > 0) {
+                            log.warn("Could not broadcast an ingested {} event ({} failed since the last report)",
+                                event.name(), unlogged, e);
+                        }
+                    }
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // Shut down.
+        }
+    }
+
+    public List<String> sourceNames() {
+        return sources.stream().map(EventSource::name).toList();
+    }
+
+    /** Events decoded and waiting for the dispatcher. */
+    public int buffered() {
+        return buffer.size();
+    }
+
+    public long acceptedEvents() {
+        return accepted.sum();
+    }
+
+    public long malformedRecords() {
+        return malformed.sum();
+    }
+
+    public long dispatchedEvents() {
+        return dispatched.sum();
+    }
+
+    /** Events whose broadcast threw, e.g. one over the event size limit. */
+    public long failedEvents() {
+        return failed.sum();
+    }
+
+    /** Events discarded because their TTL passed while they waited in the buffer. */
+    public long expiredEvents() {
+        return expired.sum();
+    }
+
+    /** Stops the sources first so nothing new arrives; events still buffered are dropped. */
+    @PreDestroy
+    public void shutdown() {
+        stopped = true;
+        sources.forEach(EventSource::close);
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.sseexample.ingest;
+
+/**
+ * Where an {@link EventSource} hands its events. {@link #accept} blocks while the
+ * ingest buffer is full, and that wait is the backpressure: a source must not read
+ * further input until it returns.
+ */
+public interface EventSink {
+
+    void accept(IngestEvent event) throws InterruptedException;
+
+    /** Counts an input record that could not be decoded and was skipped. */
+    void malformed(String source, String reason);
+}
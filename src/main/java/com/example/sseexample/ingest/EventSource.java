@@ -0,0 +1,23 @@
+package com.example.sseexample.ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A producer-facing input that feeds broadcasts without an HTTP request per event.
+ * Besides the built-in {@link TcpEventSource} and {@link FileTailEventSource}, any
+ * {@code EventSource} bean is started by {@link EventIngestor}.
+ *
+ * <p>{@link #start} returns once the source is ready, reading on threads of its own;
+ * {@link #close} stops them and releases the input.
+ */
+public interface EventSource extends Closeable {
+
+    /** Short description for counters and errors, e.g. {@code tcp://127.0.0.1:7070}. */
+    String name();
+
+    void start(EventSink sink) throws IOException;
+
+    @Override
+    void close();
+}
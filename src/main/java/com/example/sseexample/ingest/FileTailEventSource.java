@@ -0,0 +1,166 @@
+package com.example.sseexample.ingest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+
+/**
+ * Follows an NDJSON file the way {@code tail -F} does: reads appended lines in large
+ * batches, polls once caught up, starts over when the file is truncated and reopens
+ * it when it is replaced by rotation. The file need not exist yet. While the ingest
+ * buffer is full it simply reads no further, so the file itself is the overflow.
+ */
+public final class FileTailEventSource implements EventSource {
+
+    private final Path path;
+    private final long pollMs;
+    private final boolean fromStart;
+    private final int readBufferBytes;
+    private final int maxLineBytes;
+    private volatile Thread follower;
+
+    public FileTailEventSource(Path path, long pollMs, boolean fromStart, int readBufferBytes, int maxLineBytes) {
+        this.path = path;
+        this.pollMs = pollMs;
+        this.fromStart = fromStart;
+        this.readBufferBytes = readBufferBytes;
+        this.maxLineBytes = maxLineBytes;
+    }
+
+    @Override
+    public String name() {
+        return "file://" + path.toAbsolutePath();
+    }
+
+    @Override
+    public void start(EventSink sink) throws IOException {
+        // Opened here, not on the follower thread, so "existing content" means what
+        // the file held when start returned.
+        FileChannel initial = open(!fromStart);
+        Object initialKey = initial == null ? null : fileKey(path);
+        Thread thread = new Thread(() -> follow(sink, initial, initialKey), "sse-ingest-tail");
+        thread.setDaemon(true);
+        follower = thread;
+        thread.start();
+    }
+
+    private void follow(EventSink sink, FileChannel initial, Object initialKey) {
+        NdjsonReader reader = new NdjsonReader(name(), maxLineBytes);
+        ByteBuffer buffer = ByteBuffer.allocate(readBufferBytes);
+        FileChannel channel = initial;
+        Object fileKey = initialKey;
+        long resumeAt = 0;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    if (channel == null) {
+                        // Only a file present at start is skipped to its end; one that
+                        // appears or replaces it later is new content.
+                        channel = open(false);
+                        if (channel != null) {
+                            Object openedKey = fileKey(path);
+                            // Reopened after an error: carry on where reading stopped.
+                            if (openedKey != null && openedKey.equals(fileKey) && resumeAt <= channel.size()) {
+                                channel.position(resumeAt);
+                            } else {
+                                reader.reset();
+                            }
+                            fileKey = openedKey;
+                        }
+                    }
+                    if (channel != null && channel.read(buffer) > 0) {
+                        buffer.flip();
+                        reader.feed(buffer, sink);
+                        buffer.clear();
+                        continue;
+                    }
+                    if (channel != null && channel.size() < channel.position()) {
+                        channel.position(0);
+                        reader.reset();
+                        continue;
+                    }
+                    if (channel != null && replaced(fileKey)) {
+                        closeQuietly(channel);
+                        channel = null;
+                        continue;
+                    }
+                } catch (ClosedByInterruptException e) {
+                    return;
+                } catch (IOException e) {
+                    // Unreadable for now (permissions, a vanished mount); reopen on the next poll.
+                    resumeAt = position(channel);
+                    closeQuietly(channel);
+                    channel = null;
+                }
+                Thread.sleep(pollMs);
+            }
+        } catch (InterruptedException e) {
+            // Closed.
+        } finally {
+            closeQuietly(channel);
+        }
+    }
+
+    /** Null while the file does not exist: not created yet, or mid-rotation. */
+    private FileChannel open(boolean skipExisting) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (skipExisting) {
+            channel.position(channel.size());
+        }
+        return channel;
+    }
+
+    /** True once the path names a different file than the one open, or none at all. */
+    private boolean replaced(Object openKey) throws IOException {
+        try {
+            Object current = fileKey(path);
+            // Without file keys (some filesystems) rotation shows up as truncation instead.
+            return openKey != null && !Objects.equals(openKey, current);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private static Object fileKey(Path path) throws IOException {
+        return Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+    }
+
+    private static long position(FileChannel channel) {
+        try {
+            return channel == null ? 0 : channel.position();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Nothing left to release.
+        }
+    }
+
+    @Override
+    public void close() {
+        Thread thread = follower;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.sseexample.ingest;
+
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * One event from an {@link EventSource}, broadcast exactly as a trigger-event
+ * publish would be. The name becomes the SSE {@code event:} field, so it is limited
+ * to a token that cannot break the frame. Names the server sends itself are refused,
+ * so a producer cannot forge a state patch or a control event that bypasses filters.
+ *
+ * @param name  event name, e.g. {@code custom}
+ * @param data  message; JSON text is kept as-is so filters can match its fields
+ * @param ttlMs time-to-live from arrival, overriding {@code app.sse.ttl}; null for the configured one
+ */
+public record IngestEvent(String name, String data, Long ttlMs) {
+
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]{0,63}");
+    private static final Set<String> RESERVED =
+        Set.of("connected", "resume", "multiplex", "heartbeat", "snapshot", "patch", "rebalance");
+
+    public IngestEvent {
+        if (name == null || !NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("event name must be 1-64 letters, digits, '.', '_' or '-'");
+        }
+        if (RESERVED.contains(name)) {
+            throw new IllegalArgumentException("event name \"" + name + "\" is reserved for the server");
+        }
+        if (data == null) {
+            throw new IllegalArgumentException("event data is required");
+        }
+        if (ttlMs != null && ttlMs < 0) {
+            throw new IllegalArgumentException("ttlMs must not be negative");
+        }
+    }
+
+    public IngestEvent(String name, String data) {
+        this(name, data, null);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.sseexample.ingest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Splits batched reads into newline-delimited JSON records and decodes each one.
+ * A record is {@code {"event":"custom","data":...}}, optionally with a {@code ttlMs};
+ * {@code event} defaults to {@code custom}, and non-string data is passed on as JSON
+ * text. A line split across
+ * two reads is carried over; a line longer than the limit is skipped up to its
+ * newline rather than buffered.
+ *
+ * <p>Not thread-safe: one reader per connection or file.
+ */
+final class NdjsonReader {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String DEFAULT_EVENT = "custom";
+
+    private final String source;
+    private final int maxLineBytes;
+    private byte[] line = new byte[256];
+    private int length;
+    private boolean oversized;
+
+    NdjsonReader(String source, int maxLineBytes) {
+        this.source = source;
+        this.maxLineBytes = maxLineBytes;
+    }
+
+    /** Consumes everything between {@code buffer}'s position and limit. */
+    void feed(ByteBuffer buffer, EventSink sink) throws InterruptedException {
+        while (buffer.hasRemaining()) {
+            int start = buffer.position();
+            int end = indexOfNewline(buffer);
+            int chunk = (end < 0 ? buffer.limit() : end) - start;
+            append(buffer, chunk);
+            if (end < 0) {
+                return;
+            }
+            buffer.position(end + 1);
+            if (oversized) {
+                sink.malformed(source, "line longer than " + maxLineBytes + " bytes");
+            } else {
+                emit(sink);
+            }
+            length = 0;
+            oversized = false;
+        }
+    }
+
+    /** Drops a partial line, e.g. when a tailed file is truncated under it. */
+    void reset() {
+        length = 0;
+        oversized = false;
+    }
+
+    private static int indexOfNewline(ByteBuffer buffer) {
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void append(ByteBuffer buffer, int chunk) {
+        if (oversized || length + chunk > maxLineBytes) {
+            oversized = true;
+            buffer.position(buffer.position() + chunk);
+            return;
+        }
+        if (length + chunk > line.length) {
+            line = Arrays.copyOf(line, Math.min(maxLineBytes, Math.max(line.length * 2, length + chunk)));
+        }
+        buffer.get(line, length, chunk);
+        length += chunk;
+    }
+
+    private void emit(EventSink sink) throws InterruptedException {
+        int end = length > 0 && line[length - 1] == '\r' ? length - 1 : length;
+        if (isBlank(end)) {
+            return;
+        }
+        IngestEvent event;
+        try {
+            event = decode(line, end);
+        } catch (IllegalArgumentException e) {
+            sink.malformed(source, e.getMessage());
+            return;
+        }
+        sink.accept(event);
+    }
+
+    private boolean isBlank(int end) {
+        for (int i = 0; i < end; i++) {
+            if (!Character.isWhitespace(line[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static IngestEvent decode(byte[] bytes, int length) {
+        JsonNode record;
+        try {
+            record = MAPPER.readTree(bytes, 0, length);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("not JSON: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("unreadable record");
+        }
+        if (record == null || !record.isObject()) {
+            throw new IllegalArgumentException("record must be a JSON object");
+        }
+        JsonNode event = record.get("event");
+        if (event != null && !event.isTextual()) {
+            throw new IllegalArgumentException("\"event\" must be a string");
+        }
+        JsonNode data = record.get("data");
+        if (data == null || data.isNull()) {
+            throw new IllegalArgumentException("\"data\" is required");
+        }
+        JsonNode ttlMs = record.get("ttlMs");
+        if (ttlMs != null && !ttlMs.canConvertToExactIntegral()) {
+            throw new IllegalArgumentException("\"ttlMs\" must be an integer");
+        }
+        return new IngestEvent(event == null ? DEFAULT_EVENT : event.asText(),
+            data.isTextual() ? data.asText() : data.toString(), ttlMs == null ? null : ttlMs.asLong());
+    }
+}
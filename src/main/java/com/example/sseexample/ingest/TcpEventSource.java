@@ -0,0 +1,114 @@
+package com.example.sseexample.ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Accepts long-lived producer connections that write NDJSON records, one per line.
+ * Each producer gets a reader thread doing large blocking reads; while the ingest
+ * buffer is full that thread stops reading, the socket's receive window fills and
+ * the producer's own writes block. No acknowledgements are sent.
+ *
+ * <p>The socket is unauthenticated, which is why the default bind address is loopback.
+ */
+public final class TcpEventSource implements EventSource {
+
+    private final InetSocketAddress address;
+    private final int maxClients;
+    private final int readBufferBytes;
+    private final int maxLineBytes;
+    private final Set<SocketChannel> clients = ConcurrentHashMap.newKeySet();
+    private volatile ServerSocketChannel server;
+    private volatile boolean closed;
+
+    public TcpEventSource(InetSocketAddress address, int maxClients, int readBufferBytes, int maxLineBytes) {
+        this.address = address;
+        this.maxClients = maxClients;
+        this.readBufferBytes = readBufferBytes;
+        this.maxLineBytes = maxLineBytes;
+    }
+
+    @Override
+    public String name() {
+        return "tcp://" + address.getHostString() + ":" + address.getPort();
+    }
+
+    @Override
+    public void start(EventSink sink) throws IOException {
+        server = ServerSocketChannel.open().bind(address);
+        Thread acceptor = new Thread(() -> accept(sink), "sse-ingest-tcp");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /** The bound port; differs from the configured one when that was 0. */
+    public int localPort() throws IOException {
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    private void accept(EventSink sink) {
+        while (!closed) {
+            SocketChannel client;
+            try {
+                client = server.accept();
+            } catch (IOException e) {
+                // Closed by close(), or the listener failed; either way stop accepting.
+                return;
+            }
+            if (clients.size() >= maxClients) {
+                closeQuietly(client);
+                continue;
+            }
+            clients.add(client);
+            Thread reader = new Thread(() -> read(client, sink), "sse-ingest-tcp-client");
+            reader.setDaemon(true);
+            reader.start();
+        }
+    }
+
+    private void read(SocketChannel client, EventSink sink) {
+        NdjsonReader reader = new NdjsonReader(name(), maxLineBytes);
+        ByteBuffer buffer = ByteBuffer.allocate(readBufferBytes);
+        try {
+            while (client.read(buffer) >= 0) {
+                buffer.flip();
+                reader.feed(buffer, sink);
+                buffer.clear();
+            }
+        } catch (ClosedChannelException | InterruptedException e) {
+            // Shutting down.
+        } catch (IOException e) {
+            // Producer reset the connection; it will reconnect.
+        } finally {
+            clients.remove(client);
+            closeQuietly(client);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (server != null) {
+            closeQuietly(server);
+        }
+        // Closing a channel also wakes a reader blocked in read().
+        for (SocketChannel client : clients) {
+            closeQuietly(client);
+        }
+    }
+
+    private static void closeQuietly(Closeable channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Nothing left to release.
+        }
+    }
+}
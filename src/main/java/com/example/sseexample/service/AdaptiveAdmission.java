@@ -0,0 +1,145 @@
+package com.example.sseexample.service;
+
+import com.example.sseexample.config.SseProperties;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Decides whether the pod should take new streams from how it is serving the ones
+ * it has. The connection cap is a fixed guess at capacity; this is the measured
+ * one. Each interval it compares fan-out p99, the p99 wait for a broadcast pool
+ * thread and heap occupancy after collection against their limits, and while any
+ * is over, {@link EventService} refuses admissions with a Retry-After from
+ * {@link #retryAfterSeconds()}.
+ *
+ * <p>Refusing is the only remedy. Delaying a request until the pod recovers would
+ * hold a request thread and a socket on the very pod that is short of resources,
+ * and open streams are left alone: they are the subscribers being protected.
+ *
+ * <p>Heap occupancy is injected so tests can drive the loop deterministically.
+ */
+public class AdaptiveAdmission {
+
+    /** The signal that refused admission. */
+    public enum Signal { FAN_OUT, QUEUE_WAIT, HEAP }
+
+    /**
+     * One interval's reading.
+     *
+     * @param fanOutP99Ms    fan-out p99, to a factor of two (see {@link LatencyHistogram})
+     * @param queueWaitP99Ms p99 wait for a pool thread, to a factor of two
+     * @param heapOccupancy  heap in use after the last collection, 0..1; negative if unknown
+     * @param worst          the signal furthest over its limit, or null if none is
+     * @param severity       the worst signal's value over its limit; at least 1 when refusing
+     * @param streak         consecutive intervals over a limit, this one included
+     */
+    public record Reading(long fanOutP99Ms, long queueWaitP99Ms, double heapOccupancy,
+                          Signal worst, double severity, int streak) {
+
+        static final Reading HEALTHY = new Reading(0, 0, -1, null, 0, 0);
+
+        public boolean degraded() {
+            return worst != null;
+        }
+    }
+
+    private final SseProperties.Admission config;
+    private final DoubleSupplier heapOccupancy;
+    private final LatencyHistogram fanOuts = new LatencyHistogram();
+    private final LatencyHistogram queueWaits = new LatencyHistogram();
+    private final Map<Signal, AtomicLong> refusals = new EnumMap<>(Signal.class);
+    private volatile Reading reading = Reading.HEALTHY;
+
+    AdaptiveAdmission(SseProperties.Admission config, DoubleSupplier heapOccupancy) {
+        this.config = config;
+        this.heapOccupancy = heapOccupancy;
+        for (Signal signal : Signal.values()) {
+            refusals.put(signal, new AtomicLong());
+        }
+    }
+
+    void recordFanOut(long nanos) {
+        fanOuts.record(nanos);
+    }
+
+    void recordQueueWait(long nanos) {
+        queueWaits.record(nanos);
+    }
+
+    /** Takes one reading. Called from a single scheduler thread. */
+    synchronized Reading evaluate() {
+        long fanOutP99 = fanOuts.drainPercentile(0.99);
+        long queueWaitP99 = queueWaits.drainPercentile(0.99);
+        double heap = heapOccupancy.getAsDouble();
+
+        Signal worst = null;
+        double severity = 0;
+        double[] ratios = {
+            (double) fanOutP99 / config.maxFanOutP99Ms(),
+            (double) queueWaitP99 / config.maxQueueWaitP99Ms(),
+            heap / config.maxHeapOccupancy()
+        };
+        for (Signal signal : Signal.values()) {
+            double ratio = ratios[signal.ordinal()];
+            if (ratio > 1 && ratio > severity) {
+                worst = signal;
+                severity = ratio;
+            }
+        }
+        int streak = worst == null ? 0 : reading.streak() + 1;
+        Reading next = new Reading(fanOutP99, queueWaitP99, heap, worst, severity, streak);
+        reading = next;
+        return next;
+    }
+
+    /** The last reading; refuse new streams while it is degraded. */
+    public Reading reading() {
+        return reading;
+    }
+
+    /**
+     * Seconds a refused client should wait: the minimum, scaled by how far over its
+     * limit the worst signal is and how long the pod has been degraded, then spread
+     * by up to half again so refused clients do not all return together. The growth
+     * stops at two thirds of the maximum, leaving the jitter room under it; capping
+     * it at the maximum would send every client of a long outage back at once.
+     */
+    long retryAfterSeconds() {
+        Reading current = reading;
+        double scaled = config.minRetryAfterSeconds() * Math.max(1, current.severity()) * Math.max(1, current.streak());
+        long base = (long) Math.ceil(Math.min(config.maxRetryAfterSeconds() / 1.5, scaled));
+        return Math.min(config.maxRetryAfterSeconds(), base + ThreadLocalRandom.current().nextLong(base / 2 + 1));
+    }
+
+    void recordRefusal(Signal signal) {
+        refusals.get(signal).incrementAndGet();
+    }
+
+    public long refusals(Signal signal) {
+        return refusals.get(signal).get();
+    }
+
+    /**
+     * Heap occupancy after the last collection of each pool that reports one: the
+     * highest ratio of used to max. Live data, unlike current usage, which swings
+     * with garbage not yet collected. Negative before the first collection.
+     */
+    static double heapOccupancyAfterGc() {
+        double occupancy = -1;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage usage = pool.getType() == MemoryType.HEAP ? pool.getCollectionUsage() : null;
+            if (usage != null && usage.getMax() > 0 && usage.getUsed() > 0) {
+                occupancy = Math.max(occupancy, (double) usage.getUsed() / usage.getMax());
+            }
+        }
+        return occupancy;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.sseexample.service;
+
+import com.example.sseexample.config.SseProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Sizes the broadcast pool from observed delivery, in the manner of an AIMD
+ * concurrency limiter. Queue wait is the growth signal: a send waiting for a
+ * thread means the pool is short. Fan-out time alone is not, since a broadcast
+ * slowed by consumers that block on full sockets only gets worse with more threads
+ * parked on more sockets. CPU saturation cuts the pool multiplicatively; an idle
+ * window returns one thread at a time.
+ *
+ * <p>Time and CPU load are injected so tests can drive the loop deterministically.
+ */
+public class BroadcastPoolAutoSizer {
+
+    public enum Action { GROW, SHRINK, HOLD }
+
+    private final SseProperties.Autosize config;
+    private final BroadcastStats stats;
+    private final DoubleSupplier cpuLoad;
+    private final LongSupplier nanoClock;
+    private final IntSupplier poolSize;
+    private final IntConsumer resize;
+
+    private final Map<Action, AtomicLong> decisions = new EnumMap<>(Action.class);
+    private volatile BroadcastStats.Window lastWindow = BroadcastStats.Window.EMPTY;
+    private volatile double lastCpuLoad = -1;
+    private long lastResizeNanos;
+    private boolean resized;
+
+    BroadcastPoolAutoSizer(SseProperties.Autosize config, BroadcastStats stats, DoubleSupplier cpuLoad,
+                           LongSupplier nanoClock, IntSupplier poolSize, IntConsumer resize) {
+        this.config = config;
+        this.stats = stats;
+        this.cpuLoad = cpuLoad;
+        this.nanoClock = nanoClock;
+        this.poolSize = poolSize;
+        this.resize = resize;
+        for (Action action : Action.values()) {
+            decisions.put(action, new AtomicLong());
+        }
+    }
+
+    /** Runs one control step. Called from a single scheduler thread. */
+    synchronized Action evaluate() {
+        BroadcastStats.Window window = stats.drain();
+        double cpu = cpuLoad.getAsDouble();
+        lastWindow = window;
+        lastCpuLoad = cpu;
+
+        int current = poolSize.getAsInt();
+        int target = target(window, cpu, current);
+        long now = nanoClock.getAsLong();
+        boolean outOfBounds = current < config.minThreads() || current > config.maxThreads();
+        boolean coolingDown = resized
+            && now - lastResizeNanos < TimeUnit.MILLISECONDS.toNanos(config.cooldownMs());
+
+        Action action = target > current ? Action.GROW : target < current ? Action.SHRINK : Action.HOLD;
+        if (action != Action.HOLD && coolingDown && !outOfBounds) {
+            action = Action.HOLD;
+        }
+        if (action != Action.HOLD) {
+            resize.accept(target);
+            lastResizeNanos = now;
+            resized = true;
+        }
+        decisions.get(action).incrementAndGet();
+        return action;
+    }
+
+    private int target(BroadcastStats.Window window, double cpu, int current) {
+        int min = config.minThreads();
+        int max = config.maxThreads();
+        if (current < min) {
+            return min;
+        }
+        if (current > max) {
+            return max;
+        }
+        // A negative reading means the platform does not report CPU load; treat the
+        // CPU as having room rather than freezing the pool.
+        boolean cpuSaturated = cpu >= config.cpuCeiling();
+        if (cpuSaturated) {
+            return Math.max(min, Math.min(current - 1, current * 3 / 4));
+        }
+        double targetWait = config.targetQueueWaitMs();
+        if (window.sends() > 0 && window.avgQueueWaitMs() > targetWait) {
+            return Math.min(max, current + 1);
+        }
+        if (window.sends() == 0 || window.avgQueueWaitMs() < targetWait / 4) {
+            return Math.max(min, current - 1);
+        }
+        return current;
+    }
+
+    public long decisions(Action action) {
+        return decisions.get(action).get();
+    }
+
+    public int poolSize() {
+        return poolSize.getAsInt();
+    }
+
+    public double lastQueueWaitMs() {
+        return lastWindow.avgQueueWaitMs();
+    }
+
+    public double lastFanOutMs() {
+        return lastWindow.avgFanOutMs();
+    }
+
+    public double lastCpuLoad() {
+        return lastCpuLoad;
+    }
+}
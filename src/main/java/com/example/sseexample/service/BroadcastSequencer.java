@@ -0,0 +1,64 @@
+package com.example.sseexample.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gives every broadcast a sequence number and lets broadcasts enqueue their frames
+ * strictly in that order, so two concurrent publishes reach every subscriber in
+ * the same order. Rendering, filtering and waiting for delivery all happen outside
+ * the turn; only the enqueue, a queue offer per subscriber, is serialized. Turns
+ * are handed over with two atomics rather than a lock. A publisher whose turn is
+ * near spins briefly; one further back parks until the publisher ahead of it
+ * releases, so a slow enqueue does not keep the rest of the pool busy waiting.
+ */
+final class BroadcastSequencer {
+
+    private static final int SPINS_BEFORE_PARK = 128;
+
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong released = new AtomicLong();
+    /** Parked publishers by the sequence number they wait to take. */
+    private final ConcurrentHashMap<Long, Thread> parked = new ConcurrentHashMap<>();
+
+    /** The next sequence number. Every claim must be followed by {@link #release}. */
+    long claim() {
+        return claimed.incrementAndGet();
+    }
+
+    /** Waits until every earlier sequence number has been released. */
+    void awaitTurn(long sequence) {
+        for (int spins = 0; spins < SPINS_BEFORE_PARK; spins++) {
+            if (released.get() == sequence - 1) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+        // Registered before the recheck: a release either sees this thread to wake or
+        // happened before the recheck and is seen by it.
+        parked.put(sequence, Thread.currentThread());
+        try {
+            while (released.get() != sequence - 1) {
+                LockSupport.park(this);
+            }
+        } finally {
+            parked.remove(sequence);
+        }
+    }
+
+    /** Ends the turn, waiting for it first if the caller never took it. */
+    void release(long sequence) {
+        awaitTurn(sequence);
+        released.set(sequence);
+        Thread next = parked.get(sequence + 1);
+        if (next != null) {
+            LockSupport.unpark(next);
+        }
+    }
+
+    /** The last sequence number whose frames are all enqueued. */
+    long lastReleased() {
+        return released.get();
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.sseexample.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivery timings accumulated by broadcasts and drained once per control interval.
+ * LongAdders keep recording off the contended path; a drain racing a record can
+ * split one sample across two windows, which is harmless for an average.
+ */
+final class BroadcastStats {
+
+    private final LongAdder fanOuts = new LongAdder();
+    private final LongAdder fanOutNanos = new LongAdder();
+    private final LongAdder sends = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+
+    void recordFanOut(long nanos) {
+        fanOuts.increment();
+        fanOutNanos.add(nanos);
+    }
+
+    void recordQueueWait(long nanos) {
+        sends.increment();
+        queueWaitNanos.add(nanos);
+    }
+
+    Window drain() {
+        long fanOutCount = fanOuts.sumThenReset();
+        long fanOutTotal = fanOutNanos.sumThenReset();
+        long sendCount = sends.sumThenReset();
+        long waitTotal = queueWaitNanos.sumThenReset();
+        return new Window(fanOutCount, averageMillis(fanOutTotal, fanOutCount),
+            sendCount, averageMillis(waitTotal, sendCount));
+    }
+
+    private static double averageMillis(long totalNanos, long count) {
+        return count == 0 ? 0.0 : (double) totalNanos / count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * One control interval's worth of samples.
+     *
+     * @param fanOuts        broadcasts completed
+     * @param avgFanOutMs    average wall time of a whole broadcast
+     * @param sends          sends that started
+     * @param avgQueueWaitMs average time a send waited for a pool thread
+     */
+    record Window(long fanOuts, double avgFanOutMs, long sends, double avgQueueWaitMs) {
+
+        static final Window EMPTY = new Window(0, 0.0, 0, 0.0);
+    }
+}
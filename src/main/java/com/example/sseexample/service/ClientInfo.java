@@ -0,0 +1,42 @@
+package com.example.sseexample.service;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Where a stream came from, as the request reported it; informational only. Taken
+ * from the request bound to the admitting thread, so every way of opening a stream
+ * records it without threading the request through the service API. Behind the
+ * ingress the address is the proxy's unless forwarded headers are honoured
+ * ({@code server.forward-headers-strategy}).
+ *
+ * @param remoteAddress client address as seen by the servlet container, or null
+ * @param userAgent     {@code User-Agent} header, truncated, or null
+ */
+public record ClientInfo(String remoteAddress, String userAgent) {
+
+    public static final ClientInfo UNKNOWN = new ClientInfo(null, null);
+
+    /** Headers are client-controlled; this bounds what each stream retains. */
+    static final int MAX_USER_AGENT_LENGTH = 256;
+
+    public ClientInfo {
+        if (userAgent != null && userAgent.length() > MAX_USER_AGENT_LENGTH) {
+            userAgent = userAgent.substring(0, MAX_USER_AGENT_LENGTH);
+        }
+    }
+
+    /** The current request's client, or {@link #UNKNOWN} off a request thread. */
+    static ClientInfo current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servlet)) {
+            return UNKNOWN;
+        }
+        HttpServletRequest request = servlet.getRequest();
+        return new ClientInfo(request.getRemoteAddr(), request.getHeader(HttpHeaders.USER_AGENT));
+    }
+}
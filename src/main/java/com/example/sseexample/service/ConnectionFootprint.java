@@ -0,0 +1,54 @@
+package com.example.sseexample.service;
+
+import com.example.sseexample.config.SseProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Estimated heap retained by one open stream, itemised by owner. The buffer terms
+ * follow the allocations Tomcat 10.1 makes for a connection whose processor stays
+ * bound for the life of an async request; the object term is a measured-order
+ * estimate for the emitter, async context, callbacks and request/response objects.
+ *
+ * @param socketBuffers   NIO application read and write buffers
+ * @param protocolBuffers HTTP/1.1 request header buffer (header limit plus read buffer) and response header buffer
+ * @param servletBuffers  servlet input char buffer and output byte and char buffers
+ * @param objects         emitter, async context and container object graph
+ */
+public record ConnectionFootprint(long socketBuffers, long protocolBuffers, long servletBuffers, long objects) {
+
+    /** Spring Boot's default for {@code server.max-http-request-header-size}. */
+    static final int REQUEST_HEADER_BYTES = 8 * 1024;
+
+    /** Catalina's fixed servlet buffer size; {@code setBufferSize} can grow it but never shrink it. */
+    static final int SERVLET_BUFFER_CHARS = 8 * 1024;
+
+    static final int OBJECT_OVERHEAD_BYTES = 4 * 1024;
+
+    /** Heap for one queued send: the delivery record, its completion and the queue node. */
+    static final int PENDING_SEND_BYTES = 160;
+
+    static ConnectionFootprint of(SseProperties.Connector connector) {
+        long socket = connector.socketReadBufferBytes() + connector.socketWriteBufferBytes();
+        long protocol = REQUEST_HEADER_BYTES + connector.socketReadBufferBytes()
+            + connector.responseHeaderBufferBytes();
+        // OutputBuffer holds a byte and a char buffer; InputBuffer only its char buffer
+        // until a body is read, which never happens on a GET stream.
+        long servlet = SERVLET_BUFFER_CHARS + 2L * SERVLET_BUFFER_CHARS + 2L * SERVLET_BUFFER_CHARS;
+        return new ConnectionFootprint(socket, protocol, servlet, OBJECT_OVERHEAD_BYTES);
+    }
+
+    public long total() {
+        return socketBuffers + protocolBuffers + servletBuffers + objects;
+    }
+
+    public Map<String, Long> breakdown() {
+        Map<String, Long> parts = new LinkedHashMap<>();
+        parts.put("socketBuffers", socketBuffers);
+        parts.put("protocolBuffers", protocolBuffers);
+        parts.put("servletBuffers", servletBuffers);
+        parts.put("objects", objects);
+        return parts;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.sseexample.service;
+
+import java.time.Instant;
+
+/**
+ * One open stream as {@code /actuator/sseconnections} reports it. Counters are read
+ * without synchronizing with the stream's drain, so a snapshot may be a send behind.
+ *
+ * @param id            connection id, as in Flight Recorder events
+ * @param remoteAddress client address, or null if unknown
+ * @param userAgent     client {@code User-Agent}, or null
+ * @param connectedAt   admission time
+ * @param connectedMs   time since admission
+ * @param lastWriteAt   end of the last successful send, or null before the first
+ * @param queuedFrames  frames queued or being sent: how far behind the client is
+ * @param framesSent    frames written successfully
+ * @param bytesSent     approximate bytes of those frames
+ * @param encoding      payload encoding token
+ * @param filter        filter expression, or null
+ * @param ordered       whether the stream is delivered strictly in broadcast order
+ */
+public record ConnectionInfo(
+    long id,
+    String remoteAddress,
+    String userAgent,
+    Instant connectedAt,
+    long connectedMs,
+    Instant lastWriteAt,
+    int queuedFrames,
+    long framesSent,
+    long bytesSent,
+    String encoding,
+    String filter,
+    boolean ordered
+) {
+}
@@ -0,0 +1,28 @@
+package com.example.sseexample.service;
+
+/**
+ * Snapshot of what the open streams are estimated to cost, with the live heap
+ * figures alongside so the estimate can be checked against reality.
+ *
+ * @param connections             streams currently admitted
+ * @param perConnection           baseline estimate for one idle stream
+ * @param pendingSends            sends queued or in progress across all streams
+ * @param inFlightFrameBytes      rendered frames held by broadcasts still running; each is shared, so counted once
+ * @param estimatedTotalBytes     baseline times connections, plus pending sends and in-flight frames
+ * @param maxConnectionBytes      estimate for the single most expensive stream right now
+ * @param heapUsedBytes           JVM heap in use
+ * @param heapMaxBytes            JVM heap ceiling ({@code -Xmx})
+ * @param headroomConnections     further idle streams the free heap could hold at the baseline estimate
+ */
+public record ConnectionMemoryReport(
+    int connections,
+    ConnectionFootprint perConnection,
+    long pendingSends,
+    long inFlightFrameBytes,
+    long estimatedTotalBytes,
+    long maxConnectionBytes,
+    long heapUsedBytes,
+    long heapMaxBytes,
+    long headroomConnections
+) {
+}
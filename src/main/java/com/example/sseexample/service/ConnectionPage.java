@@ -0,0 +1,16 @@
+package com.example.sseexample.service;
+
+import java.util.List;
+
+/**
+ * A page of open streams in admission order. Pass {@code nextAfter} as
+ * {@code after} for the following page; it is null on the last one. Streams that
+ * open or close between requests neither shift nor repeat entries, since pages
+ * are keyed by connection id rather than by offset.
+ *
+ * @param total       streams open when the page was read
+ * @param connections up to the requested number of streams with ids above {@code after}
+ * @param nextAfter   cursor for the next page, or null
+ */
+public record ConnectionPage(int total, List<ConnectionInfo> connections, Long nextAfter) {
+}
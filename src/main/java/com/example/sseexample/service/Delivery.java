@@ -0,0 +1,111 @@
+package com.example.sseexample.service;
+
+import com.example.sseexample.config.EventPriority;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * One frame queued for one connection. Its state decides ownership: whoever moves
+ * it out of {@code QUEUED} (the draining thread by starting it, the broadcaster by
+ * abandoning it) is the only party that accounts for it afterwards.
+ */
+final class Delivery {
+
+    private static final int QUEUED = 0;
+    private static final int STARTED = 1;
+    private static final int DONE = 2;
+    private static final int ABANDONED = 3;
+
+    private static final AtomicIntegerFieldUpdater<Delivery> STATE =
+        AtomicIntegerFieldUpdater.newUpdater(Delivery.class, "state");
+
+    private final SseFrame frame;
+    private final EventPriority priority;
+    private final long expiresAtNanos;
+    private final CompletableFuture<Void> outcome = new CompletableFuture<>();
+    private volatile int state = QUEUED;
+
+    Delivery(SseFrame frame, EventPriority priority) {
+        this(frame, priority, 0);
+    }
+
+    /** @param expiresAtNanos {@link System#nanoTime} past which the frame is not worth sending; 0 for never */
+    Delivery(SseFrame frame, EventPriority priority, long expiresAtNanos) {
+        this.frame = frame;
+        this.priority = priority;
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    SseFrame frame() {
+        return frame;
+    }
+
+    EventPriority priority() {
+        return priority;
+    }
+
+    /** Claims the delivery for sending; false if its broadcaster already gave up. */
+    boolean start() {
+        return STATE.compareAndSet(this, QUEUED, STARTED);
+    }
+
+    boolean expires() {
+        return expiresAtNanos != 0;
+    }
+
+    long expiresAtNanos() {
+        return expiresAtNanos;
+    }
+
+    boolean expiredAt(long nanos) {
+        return expiresAtNanos != 0 && nanos - expiresAtNanos >= 0;
+    }
+
+    /**
+     * Discards a delivery whose TTL passed before it started. It settles as done, not
+     * failed: the subscriber is behind, not broken. False if someone else owns it.
+     */
+    boolean expire() {
+        if (STATE.compareAndSet(this, QUEUED, DONE)) {
+            outcome.complete(null);
+            return true;
+        }
+        return false;
+    }
+
+    /** Withdraws a delivery that never started; false if it is sending or done. */
+    boolean abandon() {
+        return STATE.compareAndSet(this, QUEUED, ABANDONED);
+    }
+
+    boolean isSending() {
+        return state == STARTED;
+    }
+
+    void succeed() {
+        state = DONE;
+        outcome.complete(null);
+    }
+
+    void fail(Throwable cause) {
+        state = DONE;
+        outcome.completeExceptionally(cause);
+    }
+
+    /** Fails a delivery that never started; false if someone else already owns it. */
+    boolean failIfQueued(Throwable cause) {
+        if (STATE.compareAndSet(this, QUEUED, DONE)) {
+            outcome.completeExceptionally(cause);
+            return true;
+        }
+        return false;
+    }
+
+    void await(long timeoutMs) throws InterruptedException, ExecutionException, TimeoutException {
+        outcome.get(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+}
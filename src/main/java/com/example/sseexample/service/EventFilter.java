@@ -0,0 +1,160 @@
+package com.example.sseexample.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A subscriber's server-side event filter, e.g. {@code event==custom && message.symbol^=AC}.
+ * An expression is one or more clauses joined by {@code &&}, each
+ * {@code field op value} where
+ * <ul>
+ *   <li>field is {@code event}, {@code message}, or {@code message.a.b} for a field
+ *       of a JSON message;</li>
+ *   <li>op is {@code ==}, {@code !=} or {@code ^=} (starts with);</li>
+ *   <li>value is literal text, optionally in single or double quotes.</li>
+ * </ul>
+ * Compiled once per subscribe. Filters are equal when their clauses are, regardless
+ * of order or spacing, so identical filters can share one evaluation per event.
+ */
+public final class EventFilter {
+
+    static final int MAX_EXPRESSION_LENGTH = 512;
+    static final int MAX_CLAUSES = 8;
+
+    private enum Op {
+        EQ("=="), NE("!="), PREFIX("^=");
+
+        final String symbol;
+
+        Op(String symbol) {
+            this.symbol = symbol;
+        }
+    }
+
+    private record Clause(String field, String[] path, Op op, String value) {
+
+        boolean test(String eventName, PayloadEncoder.Payload payload) {
+            String actual = switch (field) {
+                case "event" -> eventName;
+                case "message" -> payload.message();
+                default -> leafText(payload.messageTree());
+            };
+            return switch (op) {
+                case EQ -> value.equals(actual);
+                case NE -> !value.equals(actual);
+                case PREFIX -> actual != null && actual.startsWith(value);
+            };
+        }
+
+        private String leafText(JsonNode node) {
+            for (String name : path) {
+                node = node.path(name);
+            }
+            return node.isValueNode() ? node.asText() : null;
+        }
+
+        @Override
+        public String toString() {
+            return field + op.symbol + value;
+        }
+    }
+
+    private final List<Clause> clauses;
+    private final String canonical;
+
+    private EventFilter(List<Clause> clauses) {
+        this.clauses = List.copyOf(clauses);
+        this.canonical = clauses.stream().map(Clause::toString).sorted().collect(Collectors.joining("&&"));
+    }
+
+    /** @throws IllegalArgumentException if the expression is malformed or too large */
+    public static EventFilter compile(String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("filter must not be empty");
+        }
+        if (expression.length() > MAX_EXPRESSION_LENGTH) {
+            throw new IllegalArgumentException("filter is longer than " + MAX_EXPRESSION_LENGTH + " characters");
+        }
+        String[] parts = expression.split("&&");
+        if (parts.length > MAX_CLAUSES) {
+            throw new IllegalArgumentException("filter has more than " + MAX_CLAUSES + " clauses");
+        }
+        List<Clause> clauses = new ArrayList<>(parts.length);
+        for (String part : parts) {
+            clauses.add(parseClause(part.trim()));
+        }
+        return new EventFilter(clauses);
+    }
+
+    private static Clause parseClause(String clause) {
+        int at = -1;
+        Op op = null;
+        for (Op candidate : Op.values()) {
+            int index = clause.indexOf(candidate.symbol);
+            if (index > 0 && (at < 0 || index < at)) {
+                at = index;
+                op = candidate;
+            }
+        }
+        if (op == null) {
+            throw new IllegalArgumentException("filter clause '" + clause + "' needs ==, != or ^=");
+        }
+        String field = clause.substring(0, at).trim();
+        String value = unquote(clause.substring(at + op.symbol.length()).trim());
+        String[] path = new String[0];
+        if (field.startsWith("message.")) {
+            path = field.substring("message.".length()).split("\\.");
+            for (String segment : path) {
+                if (segment.isEmpty()) {
+                    throw new IllegalArgumentException("filter field '" + field + "' has an empty segment");
+                }
+            }
+        } else if (!field.equals("event") && !field.equals("message")) {
+            throw new IllegalArgumentException("filter field '" + field + "' must be event, message or message.<name>");
+        }
+        return new Clause(field, path, op, value);
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2) {
+            char first = value.charAt(0);
+            if ((first == '\'' || first == '"') && value.charAt(value.length() - 1) == first) {
+                return value.substring(1, value.length() - 1);
+            }
+        }
+        return value;
+    }
+
+    /** True if the event passes every clause. */
+    boolean test(String eventName, PayloadEncoder.Payload payload) {
+        for (Clause clause : clauses) {
+            if (!clause.test(eventName, payload)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Normalized form: clauses sorted, without spaces or quotes. */
+    public String expression() {
+        return canonical;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof EventFilter filter && canonical.equals(filter.canonical);
+    }
+
+    @Override
+    public int hashCode() {
+        return canonical.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return canonical;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.sseexample.service;
+
+import com.example.sseexample.config.SseProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Runs {@code app.sse.schedules}. The tick thread only plans the next tick and hands
+ * the broadcast to a dispatch pool, since a broadcast can block for up to the send
+ * timeout. A tick that falls due while its job's previous broadcast is still running
+ * is dropped and counted, as are ticks missed while the tick thread itself was
+ * stalled: a late job publishes once, not once per missed period.
+ */
+final class EventScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(EventScheduler.class);
+
+    private final ScheduledExecutorService ticker;
+    private final ThreadPoolExecutor dispatch;
+    private final BiConsumer<String, String> broadcaster;
+    private final List<ScheduledJob> jobs;
+
+    EventScheduler(ScheduledExecutorService ticker, Map<String, SseProperties.Schedule> schedules,
+                   BiConsumer<String, String> broadcaster, ThreadFactory dispatchThreads) {
+        this.ticker = ticker;
+        this.broadcaster = broadcaster;
+        this.jobs = schedules.entrySet().stream()
+            .filter(entry -> entry.getValue().enabled())
+            .sorted(Map.Entry.comparingByKey())
+            .map(entry -> new ScheduledJob(entry.getKey(), entry.getValue()))
+            .toList();
+        // One broadcast in flight per job, so one thread per job is the most ever needed.
+        int threads = Math.max(1, jobs.size());
+        this.dispatch = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), dispatchThreads);
+        this.dispatch.allowCoreThreadTimeOut(true);
+    }
+
+    void start() {
+        long now = System.nanoTime();
+        for (ScheduledJob job : jobs) {
+            job.plannedNanos = now + TimeUnit.MILLISECONDS.toNanos(job.schedule().initialDelayMs());
+            schedule(job, now);
+        }
+    }
+
+    List<ScheduledJob> jobs() {
+        return jobs;
+    }
+
+    private void tick(ScheduledJob job) {
+        long now = System.nanoTime();
+        if (job.tryStart()) {
+            try {
+                dispatch.execute(() -> run(job));
+            } catch (RejectedExecutionException e) {
+                // Shutting down.
+                return;
+            }
+        } else {
+            job.coalesce(1);
+        }
+
+        long periodNanos = TimeUnit.MILLISECONDS.toNanos(job.schedule().periodMs());
+        long next = job.plannedNanos + periodNanos;
+        if (next <= now) {
+            long missed = (now - next) / periodNanos + 1;
+            job.coalesce(missed);
+            next += missed * periodNanos;
+        }
+        job.plannedNanos = next;
+        schedule(job, now);
+    }
+
+    /** Schedules the job's planned tick, shifted by up to its jitter either way. */
+    private void schedule(ScheduledJob job, long now) {
+        long jitterNanos = TimeUnit.MILLISECONDS.toNanos(job.schedule().jitterMs());
+        long shift = jitterNanos == 0 ? 0 : ThreadLocalRandom.current().nextLong(-jitterNanos, jitterNanos + 1);
+        long delay = Math.max(0, job.plannedNanos + shift - now);
+        try {
+            ticker.schedule(() -> tick(job), delay, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down.
+        }
+    }
+
+    private void run(ScheduledJob job) {
+        long start = System.nanoTime();
+        try {
+            broadcaster.accept(job.event(), job.nextMessage());
+        } catch (RuntimeException e) {
+            // A failed broadcast must not stop the job; the next tick tries again.
+            job.failed();
+            log.warn("Scheduled job {} failed; next run in {}ms", job.name(), job.schedule().periodMs(), e);
+        } finally {
+            job.finished(System.nanoTime() - start);
+        }
+    }
+
+    void shutdownNow() {
+        dispatch.shutdownNow();
+    }
+
+    boolean awaitTermination(long timeoutMs) throws InterruptedException {
+        return dispatch.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+}
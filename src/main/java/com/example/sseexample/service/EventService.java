@@ -1,8 +1,13 @@
 package com.example.sseexample.service;
 
+import com.example.sseexample.config.EventPriority;
 import com.example.sseexample.config.SseProperties;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
@@ -10,36 +15,81 @@ import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import jakarta.annotation.PreDestroy;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 
 @Service
 public class EventService {
 
-    private final CopyOnWriteArrayList<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private static final Logger log = LoggerFactory.getLogger(EventService.class);
+    private static final PayloadEncoding[] ENCODINGS = PayloadEncoding.values();
+
+    // Indexed by emitter for release; the list keeps admission order, so delivery
+    // order is stable and a broadcast snapshot is a single array copy.
+    private final ConcurrentHashMap<SseEmitter, SseConnection> connections = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<SseConnection> deliveryOrder = new CopyOnWriteArrayList<>();
+    private final ConcurrentHashMap<Long, SseConnection> connectionsById = new ConcurrentHashMap<>();
     private final ScheduledExecutorService scheduler =
         Executors.newScheduledThreadPool(1, namedDaemonFactory("sse-scheduler"));
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final PayloadEncoder encoder = new PayloadEncoder();
     private final Object admissionLock = new Object();
     private final SseProperties properties;
-    private final ExecutorService broadcastExecutor;
+    private final ThreadPoolExecutor broadcastExecutor;
+    private final AtomicReference<SseLimits> limits;
+    private final Object limitsLock = new Object();
+    private final ConnectionFootprint footprint;
+    private final AtomicLong inFlightFrameBytes = new AtomicLong();
+    private final BroadcastStats stats = new BroadcastStats();
+    private final BroadcastPoolAutoSizer autoSizer;
+    private final AdaptiveAdmission admission;
+    private final TrafficTrace.Recorder trace;
+    private final PublishThrottle throttle;
+    private final Object stateLock = new Object();
+    private final StateStore state = new StateStore();
+    private final IdempotencyCache publishKeys;
+    private final FilterRegistry filters = new FilterRegistry();
+    private final AtomicLong connectionIds = new AtomicLong();
+    private final EventScheduler eventScheduler;
+    private final BroadcastSequencer sequencer = new BroadcastSequencer();
+    private final AtomicLong oversizedPublishes = new AtomicLong();
+    private final ConcurrentHashMap<String, SseConnection> multiplexed = new ConcurrentHashMap<>();
+    private final SecureRandom streamKeys = new SecureRandom();
+    private final ResumeTokens resumeTokens;
+    private final AtomicLong resumedStreams = new AtomicLong();
+    private final AtomicLong rejectedResumes = new AtomicLong();
+    private final AtomicLong expiredDeliveries = new AtomicLong();
 
     @Autowired
     public EventService(SseProperties properties) {
@@ -48,11 +98,25 @@ public class EventService {
 
     EventService(SseProperties properties, boolean enablePeriodicEvents) {
         this.properties = properties;
-        this.broadcastExecutor = Executors.newFixedThreadPool(
-            properties.broadcastThreads(), namedDaemonFactory("sse-broadcast"));
-        if (enablePeriodicEvents) {
-            startPeriodicEvents();
-        }
+        this.limits = new AtomicReference<>(SseLimits.from(properties));
+        this.footprint = ConnectionFootprint.of(properties.connector());
+        this.publishKeys = new IdempotencyCache(properties.idempotency().ttlMs(),
+            properties.idempotency().maxKeys(), System::nanoTime);
+        this.resumeTokens = properties.resume().enabled()
+            ? new ResumeTokens(properties.resume(), System::currentTimeMillis) : null;
+        this.broadcastExecutor = new ThreadPoolExecutor(
+            properties.broadcastThreads(), properties.broadcastThreads(), 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), namedDaemonFactory("sse-broadcast"));
+        this.autoSizer = properties.autosize().enabled() ? startAutoSizer(properties.autosize()) : null;
+        this.admission = properties.admission().enabled() ? startAdmission(properties.admission()) : null;
+        this.trace = properties.trace().enabled() ? startTrace(properties.trace()) : null;
+        this.throttle = properties.throttles().isEmpty() ? null : new PublishThrottle(properties.throttles(),
+            scheduler, this::broadcastEvent, properties.ttl()::of, properties.publish().maxEventBytes(),
+            namedDaemonFactory("sse-throttle"));
+        this.eventScheduler = new EventScheduler(scheduler,
+            enablePeriodicEvents ? properties.schedules() : Map.of(), this::broadcastEvent,
+            namedDaemonFactory("sse-schedule"));
+        eventScheduler.start();
     }
 
     public EventService(boolean enablePeriodicEvents) {
@@ -60,96 +124,697 @@ public class EventService {
     }
 
     public SseEmitter createEventStream() {
-        SseEmitter emitter = new SseEmitter(properties.timeoutMs());
+        return openStream(StreamOptions.DEFAULT);
+    }
+
+    /**
+     * A stream with a negotiated {@link PayloadEncoding} and an optional
+     * {@link EventFilter}. Control events such as heartbeats bypass the filter.
+     * When {@code app.sse.resume.secret} is set, a "resume" event carrying the
+     * stream's token follows "connected".
+     */
+    public SseEmitter openStream(StreamOptions options) {
+        SseEmitter emitter = newEmitter();
+        admit(emitter, options);
+
+        try {
+            emitter.send(SseEmitter.event()
+                .name("connected")
+                .data("Connected to SSE stream at " + getCurrentTimestamp()));
+            if (resumeTokens != null) {
+                emitter.send(SseEmitter.event().name("resume").data(resumeTokens.issue(options)));
+            }
+        } catch (IOException e) {
+            releaseEmitter(emitter);
+        }
 
-        emitter.onCompletion(() -> releaseEmitter(emitter));
-        emitter.onTimeout(() -> releaseEmitter(emitter));
-        emitter.onError((e) -> releaseEmitter(emitter));
+        return emitter;
+    }
 
-        admit(emitter);
+    /**
+     * Opens a multiplexed stream: one connection, and one connection slot, carrying
+     * any number of logical subscriptions up to {@code app.sse.multiplex.max-subscriptions}.
+     * Each event is sent once, tagged with every subscription it matched (see
+     * {@link SseFrame#tagged}); control events go out untagged. After "connected",
+     * a "multiplex" event carries the key that {@link #subscribe} and
+     * {@link #unsubscribe} address the stream by. The options' filter is ignored;
+     * filters belong to the subscriptions.
+     *
+     * @param subscriptions initial subscriptions, each {@code id} or {@code id:filter}
+     * @throws IllegalArgumentException if a subscription is malformed or there are too many
+     */
+    public SseEmitter openMultiplexedStream(StreamOptions options, List<String> subscriptions) {
+        List<Subscriptions.Subscription> initial = new ArrayList<>();
+        for (String spec : subscriptions) {
+            initial.add(Subscriptions.Subscription.parse(spec));
+        }
+        byte[] random = new byte[16];
+        streamKeys.nextBytes(random);
+        Subscriptions mux = new Subscriptions(Base64.getUrlEncoder().withoutPadding().encodeToString(random),
+            properties.multiplex().maxSubscriptions());
+        try {
+            for (Subscriptions.Subscription subscription : initial) {
+                putSubscription(mux, subscription);
+            }
+        } catch (IllegalArgumentException e) {
+            mux.close().forEach(filters::release);
+            throw e;
+        }
 
+        SseEmitter emitter = newEmitter();
+        try {
+            admit(emitter, new StreamOptions(options.encoding(), null, options.ordered()), ClientInfo.current(), mux);
+        } catch (SseCapacityExceededException e) {
+            mux.close().forEach(filters::release);
+            throw e;
+        }
         try {
             emitter.send(SseEmitter.event()
                 .name("connected")
                 .data("Connected to SSE stream at " + getCurrentTimestamp()));
+            emitter.send(SseEmitter.event().name("multiplex").data(mux.key()));
         } catch (IOException e) {
             releaseEmitter(emitter);
         }
+        return emitter;
+    }
+
+    /**
+     * Adds a subscription to a multiplexed stream, or replaces its filter. Takes
+     * effect from the next broadcast.
+     *
+     * @param filter an {@link EventFilter} expression, or null for every event
+     * @return false if no open stream on this instance has the key
+     * @throws IllegalArgumentException if the id or filter is malformed or the stream is full
+     */
+    public boolean subscribe(String streamKey, String subscriptionId, String filter) {
+        Subscriptions.Subscription subscription = Subscriptions.Subscription.of(subscriptionId, filter);
+        SseConnection connection = multiplexed.get(streamKey);
+        if (connection == null) {
+            return false;
+        }
+        try {
+            putSubscription(connection.subscriptions(), subscription);
+            return true;
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+
+    /** @return false if the stream is not open on this instance or has no such subscription */
+    public boolean unsubscribe(String streamKey, String subscriptionId) {
+        SseConnection connection = multiplexed.get(streamKey);
+        Subscriptions.Subscription removed = connection == null ? null
+            : connection.subscriptions().remove(subscriptionId);
+        if (removed == null) {
+            return false;
+        }
+        if (removed.filter() != null) {
+            filters.release(removed.filter());
+        }
+        return true;
+    }
 
+    /** Interns the subscription's filter and stores it, releasing whatever it replaced. */
+    private void putSubscription(Subscriptions mux, Subscriptions.Subscription subscription) {
+        EventFilter filter = subscription.filter() == null ? null : filters.acquire(subscription.filter());
+        EventFilter replaced;
+        try {
+            replaced = mux.put(new Subscriptions.Subscription(subscription.id(), filter));
+        } catch (RuntimeException e) {
+            if (filter != null) {
+                filters.release(filter);
+            }
+            throw e;
+        }
+        if (replaced != null) {
+            filters.release(replaced);
+        }
+    }
+
+    /** Logical subscriptions across the open multiplexed streams. */
+    public int multiplexedSubscriptions() {
+        int total = 0;
+        for (SseConnection connection : multiplexed.values()) {
+            total += connection.subscriptions().size();
+        }
+        return total;
+    }
+
+    /**
+     * The options a resume token was issued for, by this or any replica sharing
+     * {@code app.sse.resume.secret}.
+     *
+     * @throws IllegalArgumentException if the token is invalid or expired, or resume is disabled
+     */
+    public StreamOptions resume(String token) {
+        if (resumeTokens == null) {
+            rejectedResumes.incrementAndGet();
+            throw new IllegalArgumentException("Resume tokens are disabled");
+        }
+        try {
+            StreamOptions options = resumeTokens.verify(token);
+            resumedStreams.incrementAndGet();
+            return options;
+        } catch (IllegalArgumentException e) {
+            rejectedResumes.incrementAndGet();
+            throw e;
+        }
+    }
+
+    /** Streams reopened from a valid resume token. */
+    public long resumedStreams() {
+        return resumedStreams.get();
+    }
+
+    /** Resume tokens refused as invalid, expired or unsigned by a known key. */
+    public long rejectedResumes() {
+        return rejectedResumes.get();
+    }
+
+    /**
+     * Opens a state stream: the subscriber receives one "snapshot" event with every
+     * key's latest value in place of the "connected" message, then only "patch"
+     * events carrying what changed. Other broadcasts reach it as on a plain stream.
+     */
+    public SseEmitter createStateStream() {
+        SseEmitter emitter = newEmitter();
+        subscribeState(emitter);
         return emitter;
     }
 
+    private SseEmitter newEmitter() {
+        SseEmitter emitter = new SseEmitter(limits.get().timeoutMs());
+
+        // One callback instance serves all three hooks instead of a lambda apiece.
+        Runnable release = () -> releaseEmitter(emitter);
+        emitter.onCompletion(release);
+        emitter.onTimeout(release);
+        emitter.onError(e -> release.run());
+        return emitter;
+    }
+
+    /**
+     * Admits the emitter and queues its snapshot. Both the snapshot and the
+     * subscription happen under the state lock, so every later patch is queued
+     * behind the snapshot it applies to and none is missed or applied twice.
+     */
+    void subscribeState(SseEmitter emitter) {
+        SseConnection connection = admit(emitter);
+        SseFrame frame;
+        Delivery[] deliveries;
+        long start = System.nanoTime();
+        synchronized (stateLock) {
+            if (connection.isClosed()) {
+                return;
+            }
+            ObjectNode snapshot = objectMapper.createObjectNode();
+            snapshot.put("version", state.version());
+            snapshot.set("state", state.snapshot());
+            frame = SseFrame.of("snapshot", snapshot.toString());
+            // Control, so that patches in any lane follow it.
+            deliveries = enqueue(List.of(connection), frame, EventPriority.CONTROL);
+            state.subscribe(connection);
+        }
+        awaitStateFanOut(List.of(connection), frame, deliveries, start);
+    }
+
+    /**
+     * Records the latest value for {@code key} and sends state subscribers the patch
+     * from their copy to it; {@code null} removes the key. A value equal to the
+     * current one sends nothing.
+     *
+     * @return the state version after the update
+     */
+    public long publishState(String key, JsonNode value) {
+        List<SseConnection> targets;
+        SseFrame frame;
+        Delivery[] deliveries;
+        long version;
+        long start = System.nanoTime();
+        synchronized (stateLock) {
+            ArrayNode patch = state.apply(key, value);
+            version = state.version();
+            targets = state.subscribers();
+            if (patch.isEmpty() || targets.isEmpty()) {
+                return version;
+            }
+            ObjectNode payload = objectMapper.createObjectNode();
+            payload.put("version", version);
+            payload.set("patch", patch);
+            frame = SseFrame.of("patch", payload.toString());
+            // Queued under the lock so concurrent publishes reach every subscriber in
+            // version order.
+            deliveries = enqueue(targets, frame, properties.priority().of("patch"));
+        }
+        awaitStateFanOut(targets, frame, deliveries, start);
+        return version;
+    }
+
+    /** The current state document, as a new subscriber would receive it. */
+    public ObjectNode stateSnapshot() {
+        synchronized (stateLock) {
+            return state.snapshot();
+        }
+    }
+
     /**
      * Admits an emitter if the connection cap allows it. The capacity check and the
      * insertion share a lock: without it, concurrent requests all observe the same
      * pre-cap size and the limit is exceeded.
      */
-    void admit(SseEmitter emitter) {
+    SseConnection admit(SseEmitter emitter) {
+        return admit(emitter, PayloadEncoding.JSON);
+    }
+
+    SseConnection admit(SseEmitter emitter, PayloadEncoding encoding) {
+        return admit(emitter, new StreamOptions(encoding, null));
+    }
+
+    SseConnection admit(SseEmitter emitter, StreamOptions options) {
+        return admit(emitter, options, ClientInfo.current());
+    }
+
+    SseConnection admit(SseEmitter emitter, StreamOptions options, ClientInfo client) {
+        return admit(emitter, options, client, null);
+    }
+
+    SseConnection admit(SseEmitter emitter, StreamOptions options, ClientInfo client, Subscriptions subscriptions) {
+        SseEvents.Admission event = new SseEvents.Admission();
         synchronized (admissionLock) {
-            if (emitters.size() >= properties.maxConnections()) {
-                throw new SseCapacityExceededException(properties.maxConnections());
+            int maxConnections = limits.get().maxConnections();
+            if (event.isEnabled()) {
+                event.connections = connections.size();
+                event.maxConnections = maxConnections;
+                event.encoding = options.encoding().token();
+                event.filter = options.filter() == null ? null : options.filter().expression();
+            }
+            if (connections.size() >= maxConnections) {
+                event.commit();
+                throw new SseCapacityExceededException(maxConnections);
             }
-            emitters.add(emitter);
+            AdaptiveAdmission.Reading reading = admission == null ? null : admission.reading();
+            if (reading != null && reading.degraded()) {
+                admission.recordRefusal(reading.worst());
+                event.overload = reading.worst().name();
+                event.commit();
+                throw new SseCapacityExceededException("Delivery is degraded ("
+                    + reading.worst().name().toLowerCase(Locale.ROOT).replace('_', '-') + "); not admitting new streams",
+                    admission.retryAfterSeconds());
+            }
+            EventFilter filter = options.filter() == null ? null : filters.acquire(options.filter());
+            SseConnection connection = new SseConnection(connectionIds.incrementAndGet(), emitter,
+                System.currentTimeMillis(), options.encoding(), filter, options.ordered(), client, subscriptions);
+            connections.put(emitter, connection);
+            if (subscriptions != null) {
+                multiplexed.put(subscriptions.key(), connection);
+            }
+            // Ids are issued under the admission lock, so this list is also in id order.
+            deliveryOrder.add(connection);
+            connectionsById.put(connection.id(), connection);
+            event.connectionId = connection.id();
+            event.accepted = true;
+            if (trace != null) {
+                trace.connect(connection.id(), options.encoding(), (filter != null ? TrafficTrace.FILTERED : 0)
+                    | (options.ordered() ? TrafficTrace.ORDERED : 0)
+                    | (subscriptions != null ? TrafficTrace.MULTIPLEXED : 0));
+            }
+            event.commit();
+            return connection;
         }
     }
 
     /**
      * Releases a connection slot. All three emitter callbacks may fire for the same
-     * emitter, so removal is idempotent by construction: CopyOnWriteArrayList.remove
-     * returns true for exactly one caller.
+     * emitter, so removal is idempotent by construction: ConcurrentHashMap.remove
+     * returns the connection to exactly one caller.
      */
     boolean releaseEmitter(SseEmitter emitter) {
-        return emitters.remove(emitter);
+        SseConnection connection = connections.remove(emitter);
+        if (connection == null) {
+            return false;
+        }
+        deliveryOrder.remove(connection);
+        connectionsById.remove(connection.id());
+        if (trace != null) {
+            trace.disconnect(connection.id());
+        }
+        if (connection.filter() != null) {
+            filters.release(connection.filter());
+        }
+        if (connection.subscriptions() != null) {
+            multiplexed.remove(connection.subscriptions().key());
+            connection.subscriptions().close().forEach(filters::release);
+        }
+        synchronized (stateLock) {
+            state.unsubscribe(connection);
+        }
+        // Frames still queued fail fast rather than holding their broadcasters until
+        // the send timeout.
+        connection.close();
+        if (connection.hasQueued()) {
+            scheduleDrain(connection);
+        }
+        return true;
     }
 
     /**
-     * Fans the event out to every emitter on a bounded executor, giving each send a
-     * fixed budget. A consumer that cannot keep up is dropped instead of stalling
-     * delivery to everyone else.
+     * Fans the event out to every emitter, giving each send a fixed budget. Frames go
+     * onto each connection's queue for the event's {@link EventPriority}, and a
+     * bounded pool drains the connections. A consumer that cannot keep up is dropped
+     * instead of stalling delivery to everyone else.
+     *
+     * <p>Each broadcast carries a sequence number as its SSE {@code id}, and concurrent
+     * broadcasts are queued to every subscriber in that order (see
+     * {@link BroadcastSequencer}). Within a priority class, and on ordered streams
+     * across all of them, subscribers therefore receive ascending ids.
+     *
+     * <p>The event expires after its {@code app.sse.ttl} for the event name.
+     *
+     * @throws EventTooLargeException if {@code data} exceeds {@code app.sse.publish.max-event-bytes}
      */
     public void broadcastEvent(String eventName, String data) {
-        String eventData = buildPayload(data);
-        List<SseEmitter> targets = new ArrayList<>(emitters);
+        broadcastEvent(eventName, data, properties.ttl().of(eventName));
+    }
+
+    /**
+     * Broadcasts as {@link #broadcastEvent(String, String)}, but a subscriber whose
+     * frame is still queued {@code ttlMs} from now skips it instead of receiving it
+     * late, and the broadcast stops waiting for it.
+     *
+     * @param ttlMs how long the event stays worth delivering; 0 for no limit
+     * @throws IllegalArgumentException if {@code ttlMs} is negative
+     * @throws EventTooLargeException if {@code data} exceeds {@code app.sse.publish.max-event-bytes}
+     */
+    public void broadcastEvent(String eventName, String data, long ttlMs) {
+        if (ttlMs < 0) {
+            throw new IllegalArgumentException("ttlMs must not be negative");
+        }
+        long publishedNanos = System.nanoTime();
+        checkEventSize(data);
+        if (trace != null) {
+            trace.publish(eventName, data == null ? 0 : SseFrame.utf8Length(data));
+        }
+        List<SseConnection> targets = new ArrayList<>(deliveryOrder);
         if (targets.isEmpty()) {
             return;
         }
 
-        List<AtomicBoolean> started = new ArrayList<>(targets.size());
-        List<Future<?>> sends = new ArrayList<>(targets.size());
+        SseEvents.Broadcast event = new SseEvents.Broadcast();
+        event.begin();
+        // Rendered once per encoding in use and shared by every send; see SseFrame.
+        // Likewise each distinct filter is evaluated once, not once per subscriber.
+        PayloadEncoder.Payload payload = encoder.payload(data, Instant.now());
+        String[] encoded = new String[ENCODINGS.length];
+        SseFrame[] frames = new SseFrame[ENCODINGS.length];
+        // Multiplexed streams that matched the same subscription ids share a frame too.
+        Map<String, SseFrame>[] taggedFrames = null;
+        Map<EventFilter, Boolean> verdicts = new IdentityHashMap<>();
+        Predicate<EventFilter> matches = f -> verdicts.computeIfAbsent(f, filter -> filter.test(eventName, payload));
+        long start = System.nanoTime();
+        EventPriority priority = properties.priority().of(eventName);
+        long expiresAtNanos = ttlMs == 0 ? 0 : publishedNanos + TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        Delivery[] deliveries = new Delivery[targets.size()];
+        long frameBytes = 0;
+        int delivered = 0;
+        int encodings = 0;
+        // Claimed just before the try that releases it: a sequence number never
+        // released would stall every later broadcast.
+        long sequence = sequencer.claim();
+        try {
+            for (int i = 0; i < deliveries.length; i++) {
+                SseConnection connection = targets.get(i);
+                EventFilter filter = connection.filter();
+                if (filter != null && priority != EventPriority.CONTROL && !matches.test(filter)) {
+                    continue;
+                }
+                int encoding = connection.encoding().ordinal();
+                if (encoded[encoding] == null) {
+                    encoded[encoding] = encoder.encode(ENCODINGS[encoding], payload);
+                    encodings++;
+                }
+                SseFrame frame;
+                if (connection.subscriptions() != null && priority != EventPriority.CONTROL) {
+                    String tag = connection.subscriptions().tag(matches);
+                    if (tag == null) {
+                        continue;
+                    }
+                    if (taggedFrames == null) {
+                        taggedFrames = newTaggedFrames();
+                    }
+                    frame = taggedFrames[encoding].get(tag);
+                    if (frame == null) {
+                        frame = SseFrame.tagged(eventName, sequence, tag, encoded[encoding]);
+                        taggedFrames[encoding].put(tag, frame);
+                        frameBytes += frame.sizeBytes();
+                        inFlightFrameBytes.addAndGet(frame.sizeBytes());
+                    }
+                } else {
+                    if (frames[encoding] == null) {
+                        frames[encoding] = SseFrame.of(eventName, sequence, encoded[encoding]);
+                        frameBytes += frames[encoding].sizeBytes();
+                        inFlightFrameBytes.addAndGet(frames[encoding].sizeBytes());
+                    }
+                    frame = frames[encoding];
+                }
+                deliveries[i] = new Delivery(frame, priority, expiresAtNanos);
+                delivered++;
+            }
+            // Only the queue offers take the turn, so every subscriber queues concurrent
+            // broadcasts in the same, sequence-number order.
+            sequencer.awaitTurn(sequence);
+            for (int i = 0; i < deliveries.length; i++) {
+                if (deliveries[i] != null) {
+                    targets.get(i).enqueue(deliveries[i]);
+                }
+            }
+        } finally {
+            sequencer.release(sequence);
+        }
+        for (int i = 0; i < deliveries.length; i++) {
+            if (deliveries[i] != null) {
+                scheduleDrain(targets.get(i));
+            }
+        }
+        awaitFanOut(targets, frameBytes, deliveries, start);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.eventName = eventName;
+            event.priority = priority.name();
+            event.targets = targets.size();
+            event.delivered = delivered;
+            event.encodings = encodings;
+            event.frameBytes = frameBytes;
+            event.commit();
+        }
+    }
 
-        for (SseEmitter emitter : targets) {
-            AtomicBoolean sendStarted = new AtomicBoolean(false);
-            started.add(sendStarted);
-            try {
-                sends.add(broadcastExecutor.submit(() -> {
-                    sendStarted.set(true);
-                    emitter.send(SseEmitter.event().name(eventName).data(eventData));
-                    return null;
-                }));
-            } catch (RejectedExecutionException e) {
-                // Executor is shutting down; nothing further to deliver.
-                sends.add(null);
+    /**
+     * Publishes from a producer, trigger-event or ingest. An event name with an
+     * {@code app.sse.throttles} entry is broadcast at most once per window, the
+     * publishes in between conflated into the broadcast that closes it (see
+     * {@link PublishThrottle}); any other name is broadcast at once.
+     *
+     * @param ttlMs the event's time-to-live, or null for the name's configured one
+     * @return true if broadcast now; false if left for the window's next broadcast
+     * @throws IllegalArgumentException if {@code ttlMs} is negative
+     * @throws EventTooLargeException if {@code data} exceeds {@code app.sse.publish.max-event-bytes}
+     */
+    public boolean publish(String eventName, String data, Long ttlMs) {
+        if (ttlMs != null && ttlMs < 0) {
+            throw new IllegalArgumentException("ttlMs must not be negative");
+        }
+        if (throttle == null || !throttle.throttles(eventName)) {
+            broadcastPublish(eventName, data, ttlMs);
+            return true;
+        }
+        checkEventSize(data);
+        return throttle.publish(eventName, data, ttlMs);
+    }
+
+    private void broadcastPublish(String eventName, String data, Long ttlMs) {
+        if (ttlMs == null) {
+            broadcastEvent(eventName, data);
+        } else {
+            broadcastEvent(eventName, data, ttlMs);
+        }
+    }
+
+    /** Event names with a publish throttle. */
+    public Set<String> throttledEvents() {
+        return properties.throttles().keySet();
+    }
+
+    /** Publishes folded into another publish's broadcast by a throttle. */
+    public long conflatedPublishes() {
+        return throttle == null ? 0 : throttle.conflatedPublishes();
+    }
+
+    /** Broadcasts made by throttles, at most one per window per name. */
+    public long throttledBroadcasts() {
+        return throttle == null ? 0 : throttle.throttledBroadcasts();
+    }
+
+    /** Throttle broadcasts that failed, e.g. a digest over the event size limit. */
+    public long failedThrottledBroadcasts() {
+        return throttle == null ? 0 : throttle.failedBroadcasts();
+    }
+
+    /** Throttled publishes dropped because their TTL passed before their window closed. */
+    public long expiredThrottledPublishes() {
+        return throttle == null ? 0 : throttle.expiredPublishes();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Map<String, SseFrame>[] newTaggedFrames() {
+        Map<String, SseFrame>[] frames = new Map[ENCODINGS.length];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = new HashMap<>();
+        }
+        return frames;
+    }
+
+    /**
+     * Rejects an oversized event before anything is rendered. Most events are far
+     * below the limit; only those within a factor of three of it, the widest a char
+     * can encode, are measured exactly.
+     */
+    private void checkEventSize(String data) {
+        int maxEventBytes = maxEventBytes();
+        if (data != null && data.length() > maxEventBytes / 3 && SseFrame.utf8Length(data) > maxEventBytes) {
+            oversizedPublishes.incrementAndGet();
+            throw new EventTooLargeException(maxEventBytes);
+        }
+    }
+
+    public int maxEventBytes() {
+        return properties.publish().maxEventBytes();
+    }
+
+    /** Publishes refused for exceeding {@code app.sse.publish.max-event-bytes}, here or by the controller. */
+    public long oversizedPublishes() {
+        return oversizedPublishes.get();
+    }
+
+    /** Counts a publish refused before it reached {@link #broadcastEvent}. */
+    public void recordOversizedPublish() {
+        oversizedPublishes.incrementAndGet();
+    }
+
+    /**
+     * Claims a publisher's {@code Idempotency-Key}. Checked before the payload is
+     * built, so a retried publish costs one map lookup instead of a fan-out.
+     *
+     * @return false if the key was already used within {@code app.sse.idempotency.ttl-ms}
+     * @throws IllegalArgumentException if the key is blank or too long
+     */
+    public boolean claimPublishKey(String idempotencyKey) {
+        int maxLength = properties.idempotency().maxKeyLength();
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > maxLength) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + maxLength + " characters");
+        }
+        return publishKeys.claim(idempotencyKey);
+    }
+
+    /** Releases a key claimed by {@link #claimPublishKey} whose publish then failed. */
+    public void releasePublishKey(String idempotencyKey) {
+        publishKeys.release(idempotencyKey);
+    }
+
+    /** Frames discarded unsent because their event's TTL passed while they were queued. */
+    public long expiredDeliveries() {
+        return expiredDeliveries.get();
+    }
+
+    /** {@code app.sse.ttl} for {@code eventName}, in milliseconds; 0 if it never expires. */
+    public long ttlMs(String eventName) {
+        return properties.ttl().of(eventName);
+    }
+
+    /** Publishes acknowledged without a fan-out because their key had been seen. */
+    public long duplicatePublishes() {
+        return publishKeys.duplicates();
+    }
+
+    /** The frame counts as in flight from here until {@link #awaitFanOut} settles it. */
+    private Delivery[] enqueue(List<SseConnection> targets, SseFrame frame, EventPriority priority) {
+        inFlightFrameBytes.addAndGet(frame.sizeBytes());
+        Delivery[] deliveries = new Delivery[targets.size()];
+        for (int i = 0; i < deliveries.length; i++) {
+            deliveries[i] = enqueue(targets.get(i), frame, priority);
+        }
+        return deliveries;
+    }
+
+    private Delivery enqueue(SseConnection connection, SseFrame frame, EventPriority priority) {
+        Delivery delivery = new Delivery(frame, priority);
+        connection.enqueue(delivery);
+        scheduleDrain(connection);
+        return delivery;
+    }
+
+    /**
+     * Settles a snapshot or patch. These build on each other, so a state subscriber
+     * whose frame is withdrawn unsent is closed to reconnect for a fresh snapshot,
+     * rather than left registered with a copy that no longer matches.
+     */
+    private void awaitStateFanOut(List<SseConnection> targets, SseFrame frame, Delivery[] deliveries,
+                                  long startNanos) {
+        awaitFanOut(targets, frame.sizeBytes(), deliveries, startNanos, true);
+    }
+
+    private void awaitFanOut(List<SseConnection> targets, long frameBytes, Delivery[] deliveries, long startNanos) {
+        awaitFanOut(targets, frameBytes, deliveries, startNanos, false);
+    }
+
+    private void awaitFanOut(List<SseConnection> targets, long frameBytes, Delivery[] deliveries, long startNanos,
+                             boolean resyncIfWithdrawn) {
+        try {
+            awaitDeliveries(targets, deliveries, resyncIfWithdrawn);
+        } finally {
+            long fanOutNanos = System.nanoTime() - startNanos;
+            stats.recordFanOut(fanOutNanos);
+            if (admission != null) {
+                admission.recordFanOut(fanOutNanos);
             }
+            inFlightFrameBytes.addAndGet(-frameBytes);
         }
+    }
 
-        for (int i = 0; i < targets.size(); i++) {
-            Future<?> send = sends.get(i);
-            if (send == null) {
+    /** A null delivery marks a target whose filter excluded the event. */
+    private void awaitDeliveries(List<SseConnection> targets, Delivery[] deliveries, boolean resyncIfWithdrawn) {
+        long sendTimeoutMs = limits.get().sendTimeoutMs();
+        for (int i = 0; i < deliveries.length; i++) {
+            SseConnection connection = targets.get(i);
+            Delivery delivery = deliveries[i];
+            if (delivery == null) {
                 continue;
             }
-            SseEmitter emitter = targets.get(i);
             try {
-                send.get(properties.sendTimeoutMs(), TimeUnit.MILLISECONDS);
+                if (!awaitUnlessExpired(connection, delivery, sendTimeoutMs)) {
+                    continue;
+                }
+                delivery.await(sendTimeoutMs);
             } catch (TimeoutException e) {
-                send.cancel(true);
-                // Only the emitter whose send actually began is at fault. A task still
-                // queued behind a slow consumer is starved, not slow, so it is left
-                // registered and retried on the next broadcast.
-                if (started.get(i).get()) {
-                    dropEmitter(emitter, e);
+                // Only the emitter whose send actually began is at fault. A frame still
+                // queued behind a slow consumer is starved, not slow, so its connection
+                // is left registered and the frame is withdrawn.
+                if (delivery.abandon()) {
+                    connection.sendFinished();
+                    if (resyncIfWithdrawn) {
+                        closeEmitter(connection, "state-resync");
+                    }
+                } else if (delivery.isSending()) {
+                    connection.cancelDrain();
+                    dropEmitter(connection, "send-timeout", e);
                 }
             } catch (ExecutionException e) {
-                dropEmitter(emitter, e.getCause() != null ? e.getCause() : e);
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                // Executor is shutting down; nothing further to deliver.
+                if (!(cause instanceof RejectedExecutionException)) {
+                    dropEmitter(connection, "send-failed", cause);
+                }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 return;
@@ -157,60 +822,506 @@ public class EventService {
         }
     }
 
-    private void dropEmitter(SseEmitter emitter, Throwable cause) {
-        if (releaseEmitter(emitter)) {
+    /**
+     * Waits for a delivery until it expires, if that comes before the send timeout.
+     * False if it expired still queued and was discarded; true if it is settled or
+     * sending, and is then given the send timeout like any other.
+     */
+    private boolean awaitUnlessExpired(SseConnection connection, Delivery delivery, long sendTimeoutMs)
+        throws InterruptedException, ExecutionException {
+        if (!delivery.expires()) {
+            return true;
+        }
+        long untilExpiryNanos = delivery.expiresAtNanos() - System.nanoTime();
+        if (untilExpiryNanos >= TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs)) {
+            return true;
+        }
+        try {
+            delivery.await(Math.max(0, TimeUnit.NANOSECONDS.toMillis(untilExpiryNanos)));
+            return true;
+        } catch (TimeoutException e) {
+            if (delivery.expire()) {
+                connection.sendFinished();
+                expiredDeliveries.incrementAndGet();
+                return false;
+            }
+            return true;
+        }
+    }
+
+    private void scheduleDrain(SseConnection connection) {
+        if (connection.claimDrain()) {
+            submitDrain(connection);
+        }
+    }
+
+    /** Called only by the holder of the connection's drain claim. */
+    private void submitDrain(SseConnection connection) {
+        FutureTask<Void> task = new FutureTask<>(() -> drain(connection), null);
+        connection.drainSubmitted(task, System.nanoTime());
+        try {
+            broadcastExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            SseEvents.ExecutorSaturation event = new SseEvents.ExecutorSaturation();
+            if (event.isEnabled()) {
+                describeSaturation(event, connection, 0);
+                event.rejected = true;
+                event.commit();
+            }
+            Delivery delivery;
+            while ((delivery = connection.next(properties.priority())) != null) {
+                if (delivery.failIfQueued(e)) {
+                    connection.sendFinished();
+                }
+            }
+            connection.releaseDrain();
+        }
+    }
+
+    /**
+     * Sends queued frames for one connection, then yields the pool thread after
+     * {@code max-frames-per-turn} so a deep backlog on one connection cannot starve
+     * the others.
+     */
+    private void drain(SseConnection connection) {
+        long queueWaitNanos = System.nanoTime() - connection.drainSubmittedNanos();
+        stats.recordQueueWait(queueWaitNanos);
+        if (admission != null) {
+            admission.recordQueueWait(queueWaitNanos);
+        }
+        long queueWaitMs = TimeUnit.NANOSECONDS.toMillis(queueWaitNanos);
+        if (queueWaitMs >= properties.diagnostics().queueWaitThresholdMs()) {
+            SseEvents.ExecutorSaturation event = new SseEvents.ExecutorSaturation();
+            if (event.isEnabled()) {
+                describeSaturation(event, connection, queueWaitMs);
+                event.commit();
+            }
+        }
+        SseProperties.Priority priority = properties.priority();
+        try {
+            int budget = priority.maxFramesPerTurn();
+            Delivery delivery;
+            while (budget > 0 && (delivery = connection.next(priority)) != null) {
+                if (connection.isClosed()) {
+                    if (delivery.failIfQueued(new IOException("SSE connection closed"))) {
+                        connection.sendFinished();
+                    }
+                    continue;
+                }
+                // Checked before the budget is spent, so a backlog of stale frames
+                // costs a lagging stream nothing on its way to fresh ones.
+                if (delivery.expires() && delivery.expiredAt(System.nanoTime())) {
+                    if (delivery.expire()) {
+                        connection.sendFinished();
+                        expiredDeliveries.incrementAndGet();
+                    }
+                    continue;
+                }
+                if (!delivery.start()) {
+                    // Withdrawn by its broadcaster, which already accounted for it.
+                    continue;
+                }
+                budget--;
+                SseEvents.Send event = new SseEvents.Send();
+                event.begin();
+                Throwable failure = null;
+                try {
+                    connection.emitter().send(delivery.frame());
+                    connection.sent(delivery.frame().sizeBytes(), System.currentTimeMillis());
+                } catch (IOException | RuntimeException e) {
+                    event.failed = true;
+                    connection.close();
+                    failure = e;
+                } finally {
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.connectionId = connection.id();
+                        event.priority = delivery.priority().name();
+                        event.frameBytes = delivery.frame().sizeBytes();
+                        event.pendingSends = connection.pendingSends();
+                        event.connectionAgeMs = System.currentTimeMillis() - connection.connectedAtMillis();
+                        event.commit();
+                    }
+                    connection.sendFinished();
+                }
+                // Settled only once accounted for, so a broadcaster that returns sees no send pending.
+                if (failure == null) {
+                    delivery.succeed();
+                } else {
+                    delivery.fail(failure);
+                }
+            }
+        } finally {
+            if (connection.releaseDrain()) {
+                submitDrain(connection);
+            }
+        }
+    }
+
+    public int connectionCount() {
+        return connections.size();
+    }
+
+    /** Distinct filter expressions held by open streams. */
+    public int distinctFilters() {
+        return filters.size();
+    }
+
+    /**
+     * Open streams as a fraction of the connection cap, sent as {@code X-SSE-Load}
+     * so a client or balancer can prefer a less loaded pod.
+     */
+    public double load() {
+        return (double) connections.size() / limits.get().maxConnections();
+    }
+
+    /** The limits currently in force. */
+    public SseLimits limits() {
+        return limits.get();
+    }
+
+    /**
+     * Applies new limits without a restart. Null arguments keep their current value.
+     * A lower cap only refuses new streams; existing ones drain naturally as they
+     * time out. A new send timeout applies from the next broadcast, a new emitter
+     * timeout from the next stream, and the delivery pool is resized in place.
+     *
+     * @throws IllegalArgumentException if the result is invalid or the cap would exceed
+     *         what the Tomcat connector was started with; the current limits are kept
+     */
+    public SseLimits updateLimits(Integer maxConnections, Long timeoutMs, Long sendTimeoutMs,
+                                  Integer broadcastThreads) {
+        synchronized (limitsLock) {
+            SseLimits updated = limits.get().with(maxConnections, timeoutMs, sendTimeoutMs, broadcastThreads);
+            int connectorCap = properties.connector().maxConnections();
+            if (updated.maxConnections() >= connectorCap) {
+                throw new IllegalArgumentException("maxConnections must stay below "
+                    + "app.sse.connector.max-connections (" + connectorCap + ")");
+            }
+            resizeBroadcastPool(updated.broadcastThreads());
+            limits.set(updated);
+            return updated;
+        }
+    }
+
+    /** Core and max move together; the order avoids ever having core above max. */
+    private void resizeBroadcastPool(int threads) {
+        if (threads > broadcastExecutor.getMaximumPoolSize()) {
+            broadcastExecutor.setMaximumPoolSize(threads);
+            broadcastExecutor.setCorePoolSize(threads);
+        } else {
+            broadcastExecutor.setCorePoolSize(threads);
+            broadcastExecutor.setMaximumPoolSize(threads);
+        }
+    }
+
+    public int broadcastPoolSize() {
+        return broadcastExecutor.getCorePoolSize();
+    }
+
+    /** The admission checks, present when {@code app.sse.admission.enabled} is set. */
+    public Optional<AdaptiveAdmission> admission() {
+        return Optional.ofNullable(admission);
+    }
+
+    /** Bytes of traffic trace written, or -1 when {@code app.sse.trace.file} is unset. */
+    public long traceBytes() {
+        return trace == null ? -1 : trace.bytes();
+    }
+
+    /** Records left out of the traffic trace: past {@code app.sse.trace.max-bytes}, or while its writer lagged. */
+    public long traceDroppedRecords() {
+        return trace == null ? 0 : trace.dropped();
+    }
+
+    /** The pool controller, present when {@code app.sse.autosize.enabled} is set. */
+    public Optional<BroadcastPoolAutoSizer> autoSizer() {
+        return Optional.ofNullable(autoSizer);
+    }
+
+    /**
+     * Resizes go through {@link #updateLimits} so the limits endpoint always reports
+     * the pool size actually in force.
+     */
+    private BroadcastPoolAutoSizer startAutoSizer(SseProperties.Autosize config) {
+        BroadcastPoolAutoSizer sizer = new BroadcastPoolAutoSizer(config, stats, EventService::processCpuLoad,
+            System::nanoTime, this::broadcastPoolSize, threads -> updateLimits(null, null, null, threads));
+        scheduleRepeating("Broadcast pool autosizing", sizer::evaluate, config.intervalMs());
+        return sizer;
+    }
+
+    private AdaptiveAdmission startAdmission(SseProperties.Admission config) {
+        AdaptiveAdmission guard = new AdaptiveAdmission(config, AdaptiveAdmission::heapOccupancyAfterGc);
+        scheduleRepeating("Admission check", guard::evaluate, config.intervalMs());
+        return guard;
+    }
+
+    private TrafficTrace.Recorder startTrace(SseProperties.Trace config) {
+        TrafficTrace.Recorder recorder;
+        try {
+            recorder = new TrafficTrace.Recorder(Path.of(config.file()), config.maxBytes(), System::nanoTime,
+                System.currentTimeMillis(), namedDaemonFactory("sse-trace"));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot write app.sse.trace.file " + config.file(), e);
+        }
+        return recorder;
+    }
+
+    /**
+     * Runs a housekeeping task on the shared scheduler. A run that throws is logged
+     * rather than left to cancel the task for the life of the process.
+     */
+    private void scheduleRepeating(String task, Runnable body, long periodMs) {
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                body.run();
+            } catch (RuntimeException e) {
+                log.warn("{} failed; next run in {}ms", task, periodMs, e);
+            }
+        }, periodMs, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static double processCpuLoad() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os) {
+            return os.getProcessCpuLoad();
+        }
+        return -1;
+    }
+
+    /**
+     * Open streams with ids above {@code afterId}, in admission order. Reads a
+     * snapshot of the delivery list, which is sorted by id, so paging neither locks
+     * nor scans the broadcast path.
+     */
+    public ConnectionPage connections(long afterId, int limit) {
+        SseConnection[] snapshot = deliveryOrder.toArray(new SseConnection[0]);
+        int from = firstAbove(snapshot, afterId);
+        int to = Math.min(snapshot.length, from + Math.max(0, limit));
+        List<ConnectionInfo> page = new ArrayList<>(to - from);
+        long now = System.currentTimeMillis();
+        for (int i = from; i < to; i++) {
+            page.add(describe(snapshot[i], now));
+        }
+        Long nextAfter = to < snapshot.length && to > from ? snapshot[to - 1].id() : null;
+        return new ConnectionPage(snapshot.length, page, nextAfter);
+    }
+
+    private static int firstAbove(SseConnection[] byId, long afterId) {
+        int low = 0;
+        int high = byId.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (byId[mid].id() <= afterId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public Optional<ConnectionInfo> connection(long id) {
+        SseConnection connection = connectionsById.get(id);
+        return connection == null ? Optional.empty() : Optional.of(describe(connection, System.currentTimeMillis()));
+    }
+
+    private static ConnectionInfo describe(SseConnection connection, long now) {
+        long lastWrite = connection.lastWriteMillis();
+        return new ConnectionInfo(
+            connection.id(),
+            connection.client().remoteAddress(),
+            connection.client().userAgent(),
+            Instant.ofEpochMilli(connection.connectedAtMillis()),
+            now - connection.connectedAtMillis(),
+            lastWrite == 0 ? null : Instant.ofEpochMilli(lastWrite),
+            connection.pendingSends(),
+            connection.framesSent(),
+            connection.bytesSent(),
+            connection.encoding().token(),
+            connection.filter() == null ? null : connection.filter().expression(),
+            connection.ordered());
+    }
+
+    /**
+     * Closes one stream on an operator's request. The client's EventSource will
+     * reconnect unless it is stopped too; this is for shedding a misbehaving
+     * consumer, not for banning one.
+     *
+     * @return false if no open stream has that id
+     */
+    public boolean evict(long id) {
+        SseConnection connection = connectionsById.get(id);
+        return connection != null && closeEmitter(connection, "evicted");
+    }
+
+    /**
+     * Closes up to {@code count} of the oldest streams open at least {@code minAgeMs},
+     * after telling each to reconnect in {@code retryMs} plus up to
+     * {@code retryJitterMs}; see {@link LoadShedder}. The hint is queued as a control
+     * frame, so anything already queued for the stream is sent first.
+     *
+     * @return streams closed
+     */
+    public int shedOldest(int count, long minAgeMs, long retryMs, long retryJitterMs) {
+        long now = System.currentTimeMillis();
+        List<SseConnection> victims = new ArrayList<>(count);
+        // Admission order, so the oldest come first and the first young one ends the scan.
+        for (SseConnection connection : deliveryOrder) {
+            if (victims.size() == count || now - connection.connectedAtMillis() < minAgeMs) {
+                break;
+            }
+            victims.add(connection);
+        }
+        if (victims.isEmpty()) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        Delivery[] deliveries = new Delivery[victims.size()];
+        long frameBytes = 0;
+        for (int i = 0; i < deliveries.length; i++) {
+            long retry = retryMs + (retryJitterMs == 0 ? 0 : ThreadLocalRandom.current().nextLong(retryJitterMs + 1));
+            SseFrame frame = SseFrame.reconnect("rebalance", retry, "Reconnect to rebalance load");
+            frameBytes += frame.sizeBytes();
+            inFlightFrameBytes.addAndGet(frame.sizeBytes());
+            deliveries[i] = enqueue(victims.get(i), frame, EventPriority.CONTROL);
+        }
+        awaitFanOut(victims, frameBytes, deliveries, start);
+
+        int shed = 0;
+        for (SseConnection victim : victims) {
+            if (closeEmitter(victim, "shed")) {
+                shed++;
+            }
+        }
+        return shed;
+    }
+
+    /**
+     * Estimates what the open streams cost in heap. The per-connection baseline is
+     * derived from the connector buffer sizes; pending sends and in-flight frames are
+     * live counts, and the JVM heap figures are reported alongside for comparison.
+     */
+    public ConnectionMemoryReport memoryReport() {
+        int count = 0;
+        long pending = 0;
+        int maxPending = 0;
+        for (SseConnection connection : connections.values()) {
+            int connectionPending = connection.pendingSends();
+            count++;
+            pending += connectionPending;
+            maxPending = Math.max(maxPending, connectionPending);
+        }
+        long baseline = footprint.total();
+        long frames = inFlightFrameBytes.get();
+        long total = count * baseline + pending * ConnectionFootprint.PENDING_SEND_BYTES + frames;
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        long heapMax = heap.getMax() > 0 ? heap.getMax() : heap.getCommitted();
+        long headroom = Math.max(0, heapMax - heap.getUsed()) / baseline;
+
+        return new ConnectionMemoryReport(
+            count,
+            footprint,
+            pending,
+            frames,
+            total,
+            count == 0 ? 0 : baseline + (long) maxPending * ConnectionFootprint.PENDING_SEND_BYTES,
+            heap.getUsed(),
+            heapMax,
+            headroom);
+    }
+
+    private void describeSaturation(SseEvents.ExecutorSaturation event, SseConnection connection, long queueWaitMs) {
+        event.connectionId = connection.id();
+        event.queueWaitMs = queueWaitMs;
+        event.queueDepth = broadcastExecutor.getQueue().size();
+        event.poolSize = broadcastExecutor.getPoolSize();
+        event.activeThreads = broadcastExecutor.getActiveCount();
+    }
+
+    private void dropEmitter(SseConnection connection, String reason, Throwable cause) {
+        SseEvents.Drop event = describeDrop(connection, reason, cause);
+        if (releaseEmitter(connection.emitter())) {
+            event.commit();
             try {
-                emitter.completeWithError(cause);
+                connection.emitter().completeWithError(cause);
             } catch (RuntimeException ignored) {
                 // Emitter may already be closed by the container.
             }
         }
     }
 
-    private void startPeriodicEvents() {
-        scheduler.scheduleAtFixedRate(() -> {
-            broadcastEvent("heartbeat", "Server heartbeat");
-        }, 0, 30, TimeUnit.SECONDS);
+    /** Closes a stream the server chose to end; the client is expected to reconnect. */
+    private boolean closeEmitter(SseConnection connection, String reason) {
+        SseEvents.Drop event = describeDrop(connection, reason, null);
+        if (!releaseEmitter(connection.emitter())) {
+            return false;
+        }
+        event.commit();
+        try {
+            connection.emitter().complete();
+        } catch (RuntimeException ignored) {
+            // Already closed by the container.
+        }
+        return true;
+    }
 
-        scheduler.scheduleAtFixedRate(() -> {
-            String[] sampleMessages = {
-                "New user registered",
-                "Order processed successfully",
-                "System maintenance scheduled",
-                "Database backup completed",
-                "New feature deployed"
-            };
-            String randomMessage =
-                sampleMessages[ThreadLocalRandom.current().nextInt(sampleMessages.length)];
-            broadcastEvent("notification", randomMessage);
-        }, 10, 15, TimeUnit.SECONDS);
+    private static SseEvents.Drop describeDrop(SseConnection connection, String reason, Throwable cause) {
+        SseEvents.Drop event = new SseEvents.Drop();
+        if (event.isEnabled()) {
+            event.connectionId = connection.id();
+            event.reason = reason;
+            event.connectionAgeMs = System.currentTimeMillis() - connection.connectedAtMillis();
+            event.pendingSends = connection.pendingSends();
+            event.cause = cause == null ? null : String.valueOf(cause);
+        }
+        return event;
+    }
+
+    /** The enabled {@code app.sse.schedules} jobs; empty when periodic events are off. */
+    public List<ScheduledJob> scheduledJobs() {
+        return eventScheduler.jobs();
     }
 
     /**
-     * Stops both executors and releases every emitter. Without this the scheduler
+     * Stops the executors and releases every emitter. Without this the scheduler
      * outlives the application context and leaks across test runs (issue #26).
      */
     @PreDestroy
     public void shutdown() {
         scheduler.shutdownNow();
+        if (trace != null) {
+            trace.close();
+        }
+        eventScheduler.shutdownNow();
+        if (throttle != null) {
+            throttle.shutdownNow();
+        }
         broadcastExecutor.shutdownNow();
-        for (SseEmitter emitter : emitters) {
+        for (SseEmitter emitter : connections.keySet()) {
             try {
                 emitter.complete();
             } catch (RuntimeException ignored) {
                 // Emitter may already be closed by the container.
             }
         }
-        emitters.clear();
+        connections.clear();
+        deliveryOrder.clear();
+        connectionsById.clear();
     }
 
-    /** Waits for both executors to terminate. Returns false if they are still running. */
+    /** Waits for the executors to terminate. Returns false if any is still running. */
     boolean awaitTermination(long timeoutMs) throws InterruptedException {
         long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
         boolean schedulerDone = scheduler.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS);
-        long remainingMs = Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
-        boolean broadcastDone = broadcastExecutor.awaitTermination(remainingMs, TimeUnit.MILLISECONDS);
-        return schedulerDone && broadcastDone;
+        boolean dispatchDone = eventScheduler.awaitTermination(remainingMs(deadline));
+        boolean broadcastDone = broadcastExecutor.awaitTermination(remainingMs(deadline), TimeUnit.MILLISECONDS);
+        return schedulerDone && dispatchDone && broadcastDone;
+    }
+
+    private static long remainingMs(long deadlineNanos) {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
     }
 
     private static ThreadFactory namedDaemonFactory(String prefix) {
@@ -223,15 +1334,7 @@ public class EventService {
     }
 
     String buildPayload(String message) {
-        Map<String, String> payload = new LinkedHashMap<>();
-        payload.put("message", message);
-        payload.put("timestamp", getCurrentTimestamp());
-        try {
-            return objectMapper.writeValueAsString(payload);
-        } catch (JsonProcessingException e) {
-            // String values cannot fail serialization; fall back defensively.
-            return "{\"message\":null,\"timestamp\":null}";
-        }
+        return encoder.encode(PayloadEncoding.JSON, encoder.payload(message, Instant.now()));
     }
 
     private String getCurrentTimestamp() {
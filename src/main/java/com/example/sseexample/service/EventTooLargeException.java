@@ -0,0 +1,12 @@
+package com.example.sseexample.service;
+
+/**
+ * Raised when a published event exceeds {@code app.sse.publish.max-event-bytes}.
+ * Surfaced to trigger-event publishers as 413.
+ */
+public class EventTooLargeException extends RuntimeException {
+
+    public EventTooLargeException(int maxEventBytes) {
+        super("Event exceeds the " + maxEventBytes + " byte limit");
+    }
+}
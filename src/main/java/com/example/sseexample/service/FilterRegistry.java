@@ -0,0 +1,41 @@
+package com.example.sseexample.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns subscriber filters, so every connection with the same expression holds
+ * the same instance and a broadcast evaluates it once. Reference-counted, so a
+ * filter is dropped with its last subscriber and client-chosen expressions cannot
+ * accumulate.
+ */
+final class FilterRegistry {
+
+    private static final class Entry {
+        final EventFilter filter;
+        int subscribers;
+
+        Entry(EventFilter filter) {
+            this.filter = filter;
+        }
+    }
+
+    private final ConcurrentHashMap<EventFilter, Entry> filters = new ConcurrentHashMap<>();
+
+    /** The shared instance equal to {@code filter}, counting one more subscriber. */
+    EventFilter acquire(EventFilter filter) {
+        return filters.compute(filter, (key, entry) -> {
+            Entry interned = entry != null ? entry : new Entry(key);
+            interned.subscribers++;
+            return interned;
+        }).filter;
+    }
+
+    void release(EventFilter filter) {
+        filters.computeIfPresent(filter, (key, entry) -> --entry.subscribers == 0 ? null : entry);
+    }
+
+    /** Distinct filters currently in use. */
+    int size() {
+        return filters.size();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.sseexample.service;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Recently seen publish keys, so a producer's retry does not fan out a second time.
+ * Lookups and claims are a single {@code putIfAbsent}; no lock is taken. Every key
+ * lives for the same TTL, so claim order is also expiry order and one FIFO queue
+ * serves both expiry and the size bound.
+ */
+final class IdempotencyCache {
+
+    private record Claim(String key, long expiresAtNanos) {
+    }
+
+    private final ConcurrentHashMap<String, Claim> claims = new ConcurrentHashMap<>();
+    private final Queue<Claim> order = new ConcurrentLinkedQueue<>();
+    // ConcurrentHashMap.size() sums its counters on every call; this is exact enough.
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder duplicates = new LongAdder();
+    private final long ttlNanos;
+    private final int maxKeys;
+    private final LongSupplier nanoClock;
+
+    IdempotencyCache(long ttlMs, int maxKeys, LongSupplier nanoClock) {
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.maxKeys = maxKeys;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Claims {@code key} for one publish.
+     *
+     * @return false if the key was claimed within the TTL and the publish is a duplicate
+     */
+    boolean claim(String key) {
+        long now = nanoClock.getAsLong();
+        Claim fresh = new Claim(key, now + ttlNanos);
+        Claim existing = claims.putIfAbsent(key, fresh);
+        if (existing != null) {
+            if (existing.expiresAtNanos() - now > 0 || !claims.replace(key, existing, fresh)) {
+                duplicates.increment();
+                return false;
+            }
+            size.decrementAndGet();
+        }
+        order.offer(fresh);
+        size.incrementAndGet();
+        evict(now);
+        return true;
+    }
+
+    /**
+     * Gives a claimed key back after its publish failed, so a retry is broadcast
+     * rather than acknowledged as a duplicate. Its queue entry no longer matches
+     * a claim and is skipped when it reaches the head.
+     */
+    void release(String key) {
+        if (claims.remove(key) != null) {
+            size.decrementAndGet();
+        }
+    }
+
+    /** Drops expired claims, then the oldest live ones while over the size bound. */
+    private void evict(long now) {
+        Claim oldest;
+        while ((oldest = order.peek()) != null
+            && (oldest.expiresAtNanos() - now <= 0 || size.get() > maxKeys)) {
+            if (order.remove(oldest) && claims.remove(oldest.key(), oldest)) {
+                size.decrementAndGet();
+            }
+        }
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    long duplicates() {
+        return duplicates.sum();
+    }
+}
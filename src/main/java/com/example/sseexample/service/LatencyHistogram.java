@@ -0,0 +1,57 @@
+package com.example.sseexample.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies in power-of-two millisecond buckets, recorded without locking and
+ * drained once per interval. A percentile is reported as the upper bound of its
+ * bucket, so it is accurate to a factor of two: coarse, but enough to tell a
+ * 100 ms p99 from a 2 s one, and recording costs one increment.
+ */
+final class LatencyHistogram {
+
+    // Bucket 0 holds under 1 ms; bucket i holds [2^(i-1), 2^i) ms; the last is open-ended.
+    private static final int BUCKETS = 24;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+    LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    void record(long nanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int bucket = millis <= 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(millis));
+        buckets[bucket].increment();
+    }
+
+    /**
+     * Empties the histogram.
+     *
+     * @return the upper bound in milliseconds of the bucket holding the given
+     *         quantile of the drained samples, or 0 if there were none
+     */
+    long drainPercentile(double quantile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sumThenReset();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return 1L << i;
+            }
+        }
+        return 1L << (BUCKETS - 1);
+    }
+}
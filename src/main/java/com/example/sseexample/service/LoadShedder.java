@@ -0,0 +1,92 @@
+package com.example.sseexample.service;
+
+import com.example.sseexample.config.SseProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Applies {@code app.sse.balancing}: starts refusing above the high-water mark,
+ * sheds a paced batch of the oldest streams each interval until the pod is back at
+ * the low-water mark, then accepts traffic again. The gap between the two marks
+ * keeps readiness from flapping on every connect and disconnect.
+ *
+ * <p>Refusal is reported through the {@code sseBalancing} health indicator, which the
+ * readiness group includes, rather than by publishing {@code ReadinessState}. Spring's
+ * own readiness state is left alone, so ending the refusal can never mark ready a pod
+ * that is shutting down.
+ *
+ * <p>If every replica is above its high-water mark, all of them refuse readiness and
+ * the Service has no endpoints; the marks should leave room for the expected peak
+ * across replicas, just as {@code max-connections} must.
+ */
+@Component
+public class LoadShedder {
+
+    private final EventService eventService;
+    private final SseProperties.Balancing config;
+    private final LongAdder shed = new LongAdder();
+    private final ScheduledExecutorService ticker;
+    // Only the ticker thread writes this.
+    private volatile boolean refusing;
+
+    @Autowired
+    public LoadShedder(EventService eventService, SseProperties properties) {
+        this(eventService, properties.balancing());
+        if (config.enabled()) {
+            ticker.scheduleWithFixedDelay(this::evaluate, config.intervalMs(), config.intervalMs(),
+                TimeUnit.MILLISECONDS);
+        }
+    }
+
+    LoadShedder(EventService eventService, SseProperties.Balancing config) {
+        this.eventService = eventService;
+        this.config = config;
+        this.ticker = config.enabled() ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sse-balancing");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    /** One control step: update the refusal, then shed a batch if the pod is still refusing. */
+    void evaluate() {
+        int maxConnections = eventService.limits().maxConnections();
+        int connections = eventService.connectionCount();
+        int highWater = (int) Math.ceil(maxConnections * config.highWater());
+        int lowWater = (int) Math.floor(maxConnections * config.lowWater());
+
+        if (!refusing && connections >= highWater) {
+            refusing = true;
+        } else if (refusing && connections <= lowWater) {
+            refusing = false;
+        }
+        if (refusing) {
+            int batch = Math.min(connections - lowWater,
+                Math.max(1, (int) Math.ceil(connections * config.shedFraction())));
+            shed.add(eventService.shedOldest(batch, config.minAgeMs(), config.retryMs(), config.retryJitterMs()));
+        }
+    }
+
+    /** Whether the pod is between crossing high-water and getting back to low-water. */
+    public boolean isRefusing() {
+        return refusing;
+    }
+
+    public long shedConnections() {
+        return shed.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.sseexample.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Renders a broadcast payload in each {@link PayloadEncoding}. Thread-safe; the
+ * mappers are shared.
+ */
+final class PayloadEncoder {
+
+    private final ObjectMapper json = new ObjectMapper()
+        .enable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+    private final CBORMapper cbor = new CBORMapper();
+
+    /**
+     * One event's content. The message is parsed at most once, and only if a compact
+     * or binary subscriber or a field filter needs it. Confined to the broadcasting thread.
+     */
+    final class Payload {
+        private final String message;
+        private final Instant timestamp;
+        private JsonNode messageTree;
+        private ObjectNode compact;
+
+        Payload(String message, Instant timestamp) {
+            this.message = message;
+            this.timestamp = timestamp;
+        }
+
+        String message() {
+            return message;
+        }
+
+        /** The message as JSON, or a text node if it is not JSON. */
+        JsonNode messageTree() {
+            if (messageTree == null) {
+                messageTree = parseMessage(message);
+            }
+            return messageTree;
+        }
+
+        private ObjectNode compact() {
+            if (compact == null) {
+                compact = json.createObjectNode();
+                compact.set("m", messageTree());
+                compact.put("t", timestamp.toEpochMilli());
+            }
+            return compact;
+        }
+    }
+
+    Payload payload(String message, Instant timestamp) {
+        return new Payload(message, timestamp);
+    }
+
+    String encode(PayloadEncoding encoding, Payload payload) {
+        try {
+            return switch (encoding) {
+                case JSON -> json.writeValueAsString(verbose(payload));
+                case COMPACT -> json.writeValueAsString(payload.compact());
+                case CBOR -> Base64.getEncoder().encodeToString(cbor.writeValueAsBytes(payload.compact()));
+            };
+        } catch (JsonProcessingException e) {
+            // Strings and trees built here cannot fail serialization; fall back defensively.
+            return "{\"message\":null,\"timestamp\":null}";
+        }
+    }
+
+    private static Map<String, String> verbose(Payload payload) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("message", payload.message);
+        fields.put("timestamp", LocalDateTime.ofInstant(payload.timestamp, ZoneId.systemDefault())
+            .format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        return fields;
+    }
+
+    /** Messages that are valid JSON are embedded as values; anything else stays a string. */
+    private JsonNode parseMessage(String message) {
+        if (message != null && !message.isBlank()) {
+            try {
+                return json.readTree(message);
+            } catch (JsonProcessingException e) {
+                // Plain text.
+            }
+        }
+        return json.getNodeFactory().textNode(message);
+    }
+}
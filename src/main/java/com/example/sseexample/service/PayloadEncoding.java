@@ -0,0 +1,44 @@
+package com.example.sseexample.service;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Wire format of event payloads, chosen per subscriber with
+ * {@code /api/events?encoding=}. SSE carries UTF-8 text only, so the binary form
+ * travels base64-encoded in the data line.
+ */
+public enum PayloadEncoding {
+
+    /** {@code {"message":...,"timestamp":"2024-01-01T12:00:00"}}; the default. */
+    JSON("json"),
+
+    /**
+     * {@code {"m":...,"t":1704110400000}}: short keys and an epoch-millis timestamp.
+     * A message that is itself JSON is embedded as a value rather than an escaped string.
+     */
+    COMPACT("compact"),
+
+    /** The compact structure as CBOR, base64-encoded; numbers travel as binary. */
+    CBOR("cbor");
+
+    private final String token;
+
+    PayloadEncoding(String token) {
+        this.token = token;
+    }
+
+    public String token() {
+        return token;
+    }
+
+    public static PayloadEncoding fromToken(String token) {
+        for (PayloadEncoding encoding : values()) {
+            if (encoding.token.equalsIgnoreCase(token)) {
+                return encoding;
+            }
+        }
+        throw new IllegalArgumentException("Unknown encoding '" + token + "'; expected one of "
+            + Arrays.stream(values()).map(PayloadEncoding::token).collect(Collectors.joining(", ")));
+    }
+}
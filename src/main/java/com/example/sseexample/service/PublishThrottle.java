@@ -0,0 +1,278 @@
+package com.example.sseexample.service;
+
+import com.example.sseexample.config.SseProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Runs {@code app.sse.throttles}: at most one broadcast per window for each throttled
+ * event name, whatever the publish rate. Publishers never block on each other. A
+ * publish folds itself into its name's pending state with one compare-and-set, and
+ * whichever publisher finds the window closed claims it and broadcasts what is
+ * pending on its own thread, as an unthrottled publish would. Later windows are
+ * closed by the tick thread, which hands the broadcast to a dispatch pool, since a
+ * broadcast can block for up to the send timeout.
+ *
+ * <p>A publish's TTL runs from when it was published, not from when its window
+ * closes: the broadcast gets what is left of the newest publish's TTL, and a
+ * window whose newest publish has expired is dropped unbroadcast.
+ */
+final class PublishThrottle {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    /** Room left in a digest for its {@code count} and the array's punctuation. */
+    private static final int DIGEST_OVERHEAD_BYTES = 64;
+
+    /** Broadcasts a publish or digest; a TTL of 0 means it never expires. */
+    interface Broadcaster {
+        void broadcast(String eventName, String data, long ttlMs);
+    }
+
+    /**
+     * What has been published since the last broadcast, newest first. Immutable, so
+     * a publish replaces it with one compare-and-set.
+     *
+     * @param ttlMs          resolved TTL of this publish; 0 if it never expires
+     * @param publishedNanos when this publish arrived, which its TTL runs from
+     * @param size           publishes linked from here
+     * @param total          publishes since the last broadcast, including any trimmed from a digest
+     */
+    private record Pending(String data, long ttlMs, long publishedNanos, Pending previous, int size, long total) {
+
+        /** The newest {@code keep} publishes, relinked. */
+        Pending trimmed(int keep) {
+            List<Pending> newest = new ArrayList<>(keep);
+            for (Pending p = this; p != null && newest.size() < keep; p = p.previous()) {
+                newest.add(p);
+            }
+            Pending trimmed = null;
+            for (int i = newest.size() - 1; i >= 0; i--) {
+                Pending p = newest.get(i);
+                trimmed = new Pending(p.data(), p.ttlMs(), p.publishedNanos(), trimmed,
+                    trimmed == null ? 1 : trimmed.size() + 1, total);
+            }
+            return trimmed;
+        }
+    }
+
+    /** Per-name state; the only mutable parts are atomics. */
+    private static final class Window {
+        final String eventName;
+        final SseProperties.Throttle throttle;
+        final AtomicReference<Pending> pending = new AtomicReference<>();
+        /** Held from a window's first broadcast until a window closes with nothing pending. */
+        final AtomicBoolean open = new AtomicBoolean();
+
+        Window(String eventName, SseProperties.Throttle throttle) {
+            this.eventName = eventName;
+            this.throttle = throttle;
+        }
+
+        Pending append(Pending previous, String data, long ttlMs, long publishedNanos) {
+            if (previous == null) {
+                return new Pending(data, ttlMs, publishedNanos, null, 1, 1);
+            }
+            if (throttle.conflation() == SseProperties.Throttle.Conflation.LATEST) {
+                return new Pending(data, ttlMs, publishedNanos, null, 1, previous.total() + 1);
+            }
+            // Trimming only at twice the limit keeps a digest's memory bounded at O(1) amortized per publish.
+            Pending kept = previous.size() >= 2 * throttle.maxDigestEvents()
+                ? previous.trimmed(throttle.maxDigestEvents()) : previous;
+            return new Pending(data, ttlMs, publishedNanos, kept, kept.size() + 1, previous.total() + 1);
+        }
+    }
+
+    private final Map<String, Window> windows;
+    private final ScheduledExecutorService ticker;
+    private final ThreadPoolExecutor dispatch;
+    private final Broadcaster broadcaster;
+    private final ToLongFunction<String> configuredTtlMs;
+    private final int maxEventBytes;
+    private final LongAdder received = new LongAdder();
+    private final LongAdder broadcasts = new LongAdder();
+    private final LongAdder conflated = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    /**
+     * @param configuredTtlMs the TTL of a publish that names none, by event name; 0 if it never expires
+     */
+    PublishThrottle(Map<String, SseProperties.Throttle> throttles, ScheduledExecutorService ticker,
+                    Broadcaster broadcaster, ToLongFunction<String> configuredTtlMs, int maxEventBytes,
+                    ThreadFactory dispatchThreads) {
+        Map<String, Window> windows = new HashMap<>();
+        throttles.forEach((name, throttle) -> windows.put(name, new Window(name, throttle)));
+        this.windows = Map.copyOf(windows);
+        this.ticker = ticker;
+        this.broadcaster = broadcaster;
+        this.configuredTtlMs = configuredTtlMs;
+        this.maxEventBytes = maxEventBytes;
+        // One window closing at a time per name, so one thread per name is the most ever needed.
+        int threads = Math.max(1, windows.size());
+        this.dispatch = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), dispatchThreads);
+        this.dispatch.allowCoreThreadTimeOut(true);
+    }
+
+    boolean throttles(String eventName) {
+        return eventName != null && windows.containsKey(eventName);
+    }
+
+    /**
+     * Publishes under the name's throttle. True if this call broadcast, opening a
+     * window; false if the publish was left for the broadcast that closes it.
+     *
+     * @param ttlMs the publish's time-to-live, or null for the name's configured one
+     */
+    boolean publish(String eventName, String data, Long ttlMs) {
+        Window window = windows.get(eventName);
+        long ttl = ttlMs == null ? configuredTtlMs.applyAsLong(eventName) : ttlMs;
+        long publishedNanos = System.nanoTime();
+        window.pending.updateAndGet(previous -> window.append(previous, data, ttl, publishedNanos));
+        received.increment();
+        if (!window.open.compareAndSet(false, true)) {
+            return false;
+        }
+        flush(window);
+        return true;
+    }
+
+    /**
+     * Called only by the holder of the window's claim. Broadcasts what is pending and
+     * schedules the window's close one window after the broadcast began; with nothing
+     * pending, gives the claim up instead.
+     */
+    private void flush(Window window) {
+        Pending pending;
+        while ((pending = window.pending.getAndSet(null)) == null) {
+            window.open.set(false);
+            // A publish that saw the window open before the release relies on this check.
+            if (window.pending.get() == null || !window.open.compareAndSet(false, true)) {
+                return;
+            }
+        }
+        long start = System.nanoTime();
+        long ttlMs = remainingTtlMs(pending, start);
+        if (ttlMs < 0) {
+            expired.add(pending.total());
+        } else {
+            try {
+                broadcaster.broadcast(window.eventName, render(window, pending), ttlMs);
+                broadcasts.increment();
+                conflated.add(pending.total() - 1);
+            } catch (RuntimeException e) {
+                // A digest over the event size limit, or a fan-out failure; the next window tries again.
+                failed.increment();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long delay = Math.max(0, TimeUnit.MILLISECONDS.toNanos(window.throttle.windowMs()) - elapsed);
+        try {
+            ticker.schedule(() -> close(window), delay, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down.
+        }
+    }
+
+    private void close(Window window) {
+        try {
+            dispatch.execute(() -> flush(window));
+        } catch (RejectedExecutionException e) {
+            // Shutting down.
+        }
+    }
+
+    /**
+     * What is left of the newest publish's TTL, rounded up: 0 if it never expires,
+     * -1 if it has passed. Rounding up keeps a sliver left from reading as no limit.
+     */
+    private static long remainingTtlMs(Pending newest, long nowNanos) {
+        if (newest.ttlMs() == 0) {
+            return 0;
+        }
+        long remaining = TimeUnit.MILLISECONDS.toNanos(newest.ttlMs()) - (nowNanos - newest.publishedNanos());
+        return remaining <= 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(remaining + TimeUnit.MILLISECONDS.toNanos(1) - 1);
+    }
+
+    private String render(Window window, Pending pending) {
+        if (window.throttle.conflation() == SseProperties.Throttle.Conflation.LATEST) {
+            return pending.data();
+        }
+        // Newest first until the size limit, then written out oldest first. Sized as
+        // serialized, since text that is not JSON gains quotes and escapes in the digest.
+        // The newest is always kept, so a digest never comes out empty.
+        List<JsonNode> events = new ArrayList<>();
+        long bytes = DIGEST_OVERHEAD_BYTES;
+        for (Pending p = pending; p != null && events.size() < window.throttle.maxDigestEvents(); p = p.previous()) {
+            JsonNode event = asJson(p.data());
+            bytes += SseFrame.utf8Length(event.toString()) + 1;
+            if (bytes > maxEventBytes && !events.isEmpty()) {
+                break;
+            }
+            events.add(event);
+        }
+        ObjectNode digest = MAPPER.createObjectNode();
+        digest.put("count", pending.total());
+        ArrayNode list = digest.putArray("events");
+        for (int i = events.size() - 1; i >= 0; i--) {
+            list.add(events.get(i));
+        }
+        return digest.toString();
+    }
+
+    /** JSON text is embedded as-is, like a published message, so filters can match its fields. */
+    private static JsonNode asJson(String data) {
+        try {
+            return MAPPER.readTree(data);
+        } catch (JsonProcessingException e) {
+            return MAPPER.getNodeFactory().textNode(data);
+        }
+    }
+
+    /** Publishes to throttled names. */
+    long receivedPublishes() {
+        return received.sum();
+    }
+
+    /** Broadcasts made for throttled names, one per window at most. */
+    long throttledBroadcasts() {
+        return broadcasts.sum();
+    }
+
+    /** Publishes folded into another publish's broadcast rather than broadcast on their own. */
+    long conflatedPublishes() {
+        return conflated.sum();
+    }
+
+    /** Window broadcasts that failed, e.g. a digest over the event size limit. */
+    long failedBroadcasts() {
+        return failed.sum();
+    }
+
+    /** Publishes dropped because the newest publish of their window expired before it closed. */
+    long expiredPublishes() {
+        return expired.sum();
+    }
+
+    void shutdownNow() {
+        dispatch.shutdownNow();
+    }
+}
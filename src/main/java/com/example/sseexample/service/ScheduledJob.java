@@ -0,0 +1,89 @@
+package com.example.sseexample.service;
+
+import com.example.sseexample.config.SseProperties;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One configured periodic event and its counters. A job has at most one broadcast
+ * in flight; see {@link EventScheduler}.
+ */
+public final class ScheduledJob {
+
+    private final String name;
+    private final SseProperties.Schedule schedule;
+    private final AtomicBoolean inFlight = new AtomicBoolean();
+    private final AtomicInteger nextMessage = new AtomicInteger();
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder broadcastNanos = new LongAdder();
+    // Tick grid without jitter; only the scheduler thread touches it.
+    long plannedNanos;
+
+    ScheduledJob(String name, SseProperties.Schedule schedule) {
+        this.name = name;
+        this.schedule = schedule;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String event() {
+        return schedule.event();
+    }
+
+    SseProperties.Schedule schedule() {
+        return schedule;
+    }
+
+    /** Broadcasts completed. */
+    public long runs() {
+        return runs.sum();
+    }
+
+    /** Ticks folded into a later one because a broadcast was still running or the scheduler fell behind. */
+    public long coalescedTicks() {
+        return coalesced.sum();
+    }
+
+    /** Broadcasts that threw, e.g. on a rejected fan-out; counted in {@link #runs()} too. */
+    public long failedRuns() {
+        return failures.sum();
+    }
+
+    /** Wall time spent in this job's broadcasts, fan-out included. */
+    public long broadcastNanos() {
+        return broadcastNanos.sum();
+    }
+
+    String nextMessage() {
+        var messages = schedule.messages();
+        int index = schedule.selection() == SseProperties.Schedule.Selection.ROUND_ROBIN
+            ? Math.floorMod(nextMessage.getAndIncrement(), messages.size())
+            : ThreadLocalRandom.current().nextInt(messages.size());
+        return messages.get(index);
+    }
+
+    boolean tryStart() {
+        return inFlight.compareAndSet(false, true);
+    }
+
+    void finished(long elapsedNanos) {
+        runs.increment();
+        broadcastNanos.add(elapsedNanos);
+        inFlight.set(false);
+    }
+
+    void failed() {
+        failures.increment();
+    }
+
+    void coalesce(long ticks) {
+        coalesced.add(ticks);
+    }
+}
@@ -1,12 +1,27 @@
 package com.example.sseexample.service;
 
 /**
- * Raised when the global SSE connection cap ({@code app.sse.max-connections}) is
- * already reached. Surfaced to clients as 503 with a Retry-After header.
+ * Raised when a new stream cannot be admitted: the global SSE connection cap
+ * ({@code app.sse.max-connections}) is already reached, or delivery to the open
+ * streams is degraded (see {@link AdaptiveAdmission}). Surfaced to clients as 503
+ * with a Retry-After header.
  */
 public class SseCapacityExceededException extends RuntimeException {
 
+    private static final long DEFAULT_RETRY_AFTER_SECONDS = 5;
+
+    private final long retryAfterSeconds;
+
     public SseCapacityExceededException(int maxConnections) {
-        super("SSE connection limit reached (" + maxConnections + ")");
+        this("SSE connection limit reached (" + maxConnections + ")", DEFAULT_RETRY_AFTER_SECONDS);
+    }
+
+    public SseCapacityExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long retryAfterSeconds() {
+        return retryAfterSeconds;
     }
 }
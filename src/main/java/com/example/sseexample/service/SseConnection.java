@@ -0,0 +1,212 @@
+package com.example.sseexample.service;
+
+import com.example.sseexample.config.EventPriority;
+import com.example.sseexample.config.SseProperties;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One admitted stream. Deliberately small: a thousand of these live for minutes at
+ * a time, so it holds only the emitter, its admission time, payload encoding and
+ * filter or multiplexed subscriptions, one queue per {@link EventPriority}, the
+ * state of its drain and a few counters for introspection (see {@link ConnectionInfo}).
+ *
+ * <p>An ordered connection puts every frame on the control lane, which is drained
+ * strictly first-in first-out, so it sees broadcasts in sequence order at the cost
+ * of heartbeats waiting behind queued data.
+ *
+ * <p>At most one pool thread drains a connection at a time, so sends to one emitter
+ * never contend for its write lock and the round-robin credits need no locking.
+ */
+final class SseConnection {
+
+    private static final EventPriority[] PRIORITIES = EventPriority.values();
+
+    private final long id;
+    private final SseEmitter emitter;
+    private final long connectedAtMillis;
+    private final PayloadEncoding encoding;
+    private final EventFilter filter;
+    private final boolean ordered;
+    private final ClientInfo client;
+    private final Subscriptions subscriptions;
+    private final AtomicInteger pendingSends = new AtomicInteger();
+    private final Queue<Delivery>[] lanes;
+    private final AtomicBoolean drainClaimed = new AtomicBoolean();
+    private final int[] credits = new int[PRIORITIES.length];
+    private volatile Future<?> drain;
+    private volatile long drainSubmittedNanos;
+    private volatile boolean closed;
+    // Written only by the thread holding the drain; volatile so introspection can read them.
+    private volatile long lastWriteMillis;
+    private volatile long framesSent;
+    private volatile long bytesSent;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    SseConnection(long id, SseEmitter emitter, long connectedAtMillis, PayloadEncoding encoding,
+                  EventFilter filter, boolean ordered, ClientInfo client, Subscriptions subscriptions) {
+        this.id = id;
+        this.emitter = emitter;
+        this.connectedAtMillis = connectedAtMillis;
+        this.encoding = encoding;
+        this.filter = filter;
+        this.ordered = ordered;
+        this.client = client;
+        this.subscriptions = subscriptions;
+        this.lanes = new Queue[PRIORITIES.length];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /** Process-unique, in admission order; correlates diagnostics for one stream. */
+    long id() {
+        return id;
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    long connectedAtMillis() {
+        return connectedAtMillis;
+    }
+
+    PayloadEncoding encoding() {
+        return encoding;
+    }
+
+    /** The interned filter, or null if the subscriber takes every event. */
+    EventFilter filter() {
+        return filter;
+    }
+
+    boolean ordered() {
+        return ordered;
+    }
+
+    ClientInfo client() {
+        return client;
+    }
+
+    /** The logical subscriptions of a multiplexed stream, or null for a plain one. */
+    Subscriptions subscriptions() {
+        return subscriptions;
+    }
+
+    /** Records a successful send. Called only by the thread holding the drain. */
+    void sent(int frameBytes, long nowMillis) {
+        framesSent++;
+        bytesSent += frameBytes;
+        lastWriteMillis = nowMillis;
+    }
+
+    /** Zero before the first successful send. */
+    long lastWriteMillis() {
+        return lastWriteMillis;
+    }
+
+    long framesSent() {
+        return framesSent;
+    }
+
+    long bytesSent() {
+        return bytesSent;
+    }
+
+    int pendingSends() {
+        return pendingSends.get();
+    }
+
+    void enqueue(Delivery delivery) {
+        pendingSends.incrementAndGet();
+        EventPriority lane = ordered ? EventPriority.CONTROL : delivery.priority();
+        lanes[lane.ordinal()].offer(delivery);
+    }
+
+    void sendFinished() {
+        pendingSends.decrementAndGet();
+    }
+
+    /**
+     * Picks the next frame. Control frames always go next, so one never waits behind
+     * more than the send in progress. Realtime and bulk share what remains by
+     * weighted round robin: each round grants each class its weight in credits, and
+     * the round ends when no class with credit has work. Called only by the thread
+     * holding the drain.
+     */
+    Delivery next(SseProperties.Priority weights) {
+        Delivery control = lanes[EventPriority.CONTROL.ordinal()].poll();
+        if (control != null) {
+            return control;
+        }
+        for (int attempt = 0; attempt < 2; attempt++) {
+            for (int i = EventPriority.CONTROL.ordinal() + 1; i < PRIORITIES.length; i++) {
+                if (credits[i] > 0) {
+                    Delivery delivery = lanes[i].poll();
+                    if (delivery != null) {
+                        credits[i]--;
+                        return delivery;
+                    }
+                }
+            }
+            for (int i = 0; i < PRIORITIES.length; i++) {
+                credits[i] = weights.weight(PRIORITIES[i]);
+            }
+        }
+        return null;
+    }
+
+    boolean hasQueued() {
+        for (Queue<Delivery> lane : lanes) {
+            if (!lane.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Claims the right to drain; exactly one caller wins until it is released. */
+    boolean claimDrain() {
+        return drainClaimed.compareAndSet(false, true);
+    }
+
+    /**
+     * Releases the drain, then re-claims it if frames arrived meanwhile: an enqueue
+     * that lost the claim race just before the release would otherwise be stranded.
+     */
+    boolean releaseDrain() {
+        drainClaimed.set(false);
+        return hasQueued() && claimDrain();
+    }
+
+    void drainSubmitted(Future<?> drain, long submittedNanos) {
+        this.drain = drain;
+        this.drainSubmittedNanos = submittedNanos;
+    }
+
+    long drainSubmittedNanos() {
+        return drainSubmittedNanos;
+    }
+
+    /** Interrupts the thread draining this connection, if a drain is running. */
+    void cancelDrain() {
+        Future<?> current = drain;
+        if (current != null) {
+            current.cancel(true);
+        }
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    void close() {
+        closed = true;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.sseexample.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder events for the delivery path. Each is a flag check while no
+ * recording enables it, so they stay compiled in. The recording thread is captured
+ * with every event, which is how a stalled send is tied to the pool thread it
+ * blocked; stack traces are off to keep the hot path cheap.
+ *
+ * <p>Connection ids correlate the events of one stream across admission, sends and
+ * drop. See {@link SseFlightRecording} for the in-process recording.
+ */
+final class SseEvents {
+
+    static final String PREFIX = "com.example.sse.";
+
+    private SseEvents() {
+    }
+
+    @Name(PREFIX + "Admission")
+    @Label("SSE Admission")
+    @Category("SSE")
+    @Description("A stream was admitted, or refused at the connection cap or for degraded delivery")
+    @StackTrace(false)
+    static final class Admission extends Event {
+        @Label("Connection Id")
+        long connectionId;
+        @Label("Accepted")
+        boolean accepted;
+        @Label("Open Connections")
+        int connections;
+        @Label("Connection Cap")
+        int maxConnections;
+        @Label("Encoding")
+        String encoding;
+        @Label("Filter")
+        String filter;
+        @Label("Overload Signal")
+        String overload;
+    }
+
+    @Name(PREFIX + "Broadcast")
+    @Label("SSE Broadcast")
+    @Category("SSE")
+    @Description("One broadcast from render to the last delivery settling")
+    @StackTrace(false)
+    static final class Broadcast extends Event {
+        @Label("Event Name")
+        String eventName;
+        @Label("Priority")
+        String priority;
+        @Label("Targets")
+        int targets;
+        @Label("Delivered")
+        @Description("Targets whose filter accepted the event")
+        int delivered;
+        @Label("Encodings")
+        int encodings;
+        @Label("Frame Bytes")
+        @DataAmount
+        long frameBytes;
+    }
+
+    @Name(PREFIX + "Send")
+    @Label("SSE Send")
+    @Category("SSE")
+    @Description("A single emitter send that took at least the threshold")
+    @Threshold("20 ms")
+    @StackTrace(false)
+    static final class Send extends Event {
+        @Label("Connection Id")
+        long connectionId;
+        @Label("Priority")
+        String priority;
+        @Label("Frame Bytes")
+        @DataAmount
+        long frameBytes;
+        @Label("Pending Sends")
+        int pendingSends;
+        @Label("Connection Age (ms)")
+        long connectionAgeMs;
+        @Label("Failed")
+        boolean failed;
+    }
+
+    @Name(PREFIX + "Drop")
+    @Label("SSE Drop")
+    @Category("SSE")
+    @Description("A stream closed by the server: delivery failed or stalled, or it was evicted or shed")
+    @StackTrace(false)
+    static final class Drop extends Event {
+        @Label("Connection Id")
+        long connectionId;
+        @Label("Reason")
+        String reason;
+        @Label("Connection Age (ms)")
+        long connectionAgeMs;
+        @Label("Pending Sends")
+        int pendingSends;
+        @Label("Cause")
+        String cause;
+    }
+
+    @Name(PREFIX + "ExecutorSaturation")
+    @Label("SSE Executor Saturation")
+    @Category("SSE")
+    @Description("A drain waited past the threshold for a pool thread, or was rejected")
+    @StackTrace(false)
+    static final class ExecutorSaturation extends Event {
+        @Label("Connection Id")
+        long connectionId;
+        @Label("Queue Wait (ms)")
+        long queueWaitMs;
+        @Label("Queued Drains")
+        int queueDepth;
+        @Label("Pool Size")
+        int poolSize;
+        @Label("Active Threads")
+        int activeThreads;
+        @Label("Rejected")
+        boolean rejected;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.sseexample.service;
+
+import com.example.sseexample.config.SseProperties;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The in-process Flight Recorder recording behind {@code app.sse.diagnostics.jfr}.
+ * Bounded by age and size, so it can run for the life of a production pod; the
+ * SSE events are enabled with the configured thresholds, optionally on top of the
+ * JDK's default event set.
+ */
+@Component
+public class SseFlightRecording {
+
+    static final String NAME = "sse";
+
+    private final Recording recording;
+
+    public SseFlightRecording(SseProperties properties) {
+        SseProperties.Diagnostics config = properties.diagnostics();
+        this.recording = config.jfr() ? start(config) : null;
+    }
+
+    private static Recording start(SseProperties.Diagnostics config) {
+        Map<String, String> settings = new HashMap<>();
+        if (config.jdkEvents()) {
+            try {
+                settings.putAll(Configuration.getConfiguration("default").getSettings());
+            } catch (IOException | ParseException e) {
+                throw new IllegalStateException("JDK default JFR configuration is unavailable", e);
+            }
+        }
+        for (String event : new String[] {"Admission", "Broadcast", "Send", "Drop", "ExecutorSaturation"}) {
+            settings.put(SseEvents.PREFIX + event + "#enabled", "true");
+        }
+        settings.put(SseEvents.PREFIX + "Send#threshold", config.sendThresholdMs() + " ms");
+
+        Recording recording = new Recording(settings);
+        recording.setName(NAME);
+        recording.setToDisk(true);
+        recording.setMaxAge(Duration.ofMillis(config.maxAgeMs()));
+        recording.setMaxSize(config.maxSizeBytes());
+        recording.start();
+        return recording;
+    }
+
+    public boolean isRecording() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+
+    /**
+     * Writes what the recording holds to a new temporary file, which the caller
+     * owns. Empty when the recording is not running.
+     */
+    public Optional<Path> dump() throws IOException {
+        if (!isRecording()) {
+            return Optional.empty();
+        }
+        Path file = Files.createTempFile("sse-", ".jfr");
+        try {
+            recording.dump(file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return Optional.of(file);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+}
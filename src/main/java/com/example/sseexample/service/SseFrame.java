@@ -0,0 +1,143 @@
+package com.example.sseexample.service;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * An event rendered to its SSE wire form once per broadcast and shared by every
+ * emitter. Building an {@code SseEventBuilder} per send allocated a StringBuilder,
+ * a set and the formatted lines for each of up to 1000 subscribers; the rendered
+ * parts are immutable, so one copy serves them all.
+ *
+ * <p>The parts are also encoded here, into a single UTF-8 array. Spring writes a
+ * string part by encoding it afresh on every send, so at 1000 subscribers each
+ * broadcast left a thousand copies of its bytes behind for the young collector; a
+ * byte array part is written as it is. The array is an ordinary heap object and
+ * goes when the last {@link Delivery} holding the frame does.
+ */
+final class SseFrame implements SseEmitter.SseEventBuilder {
+
+    private final Set<DataWithMediaType> parts;
+    private final int sizeBytes;
+
+    private SseFrame(Set<DataWithMediaType> rendered) {
+        StringBuilder wire = new StringBuilder();
+        for (DataWithMediaType part : rendered) {
+            wire.append(part.getData());
+        }
+        byte[] bytes = wire.toString().getBytes(StandardCharsets.UTF_8);
+        this.parts = Set.of(new DataWithMediaType(bytes, MediaType.TEXT_PLAIN));
+        this.sizeBytes = bytes.length;
+    }
+
+    /** Renders a named event; a null name falls back to the SSE default "message". */
+    static SseFrame of(String eventName, String data) {
+        SseEmitter.SseEventBuilder builder = SseEmitter.event();
+        if (eventName != null) {
+            builder.name(eventName);
+        }
+        return new SseFrame(builder.data(data).build());
+    }
+
+    /**
+     * Renders a broadcast event carrying its sequence number as the SSE {@code id},
+     * which also becomes the client's {@code Last-Event-ID}.
+     */
+    static SseFrame of(String eventName, long sequence, String data) {
+        SseEmitter.SseEventBuilder builder = SseEmitter.event();
+        if (eventName != null) {
+            builder.name(eventName);
+        }
+        return new SseFrame(builder.id(Long.toString(sequence)).data(data).build());
+    }
+
+    /**
+     * Renders a broadcast event for a multiplexed stream: the SSE {@code id} is the
+     * sequence number, a semicolon and the comma-separated ids of the subscriptions
+     * it matched, such as {@code 42;alerts,prices}.
+     */
+    static SseFrame tagged(String eventName, long sequence, String subscriptions, String data) {
+        SseEmitter.SseEventBuilder builder = SseEmitter.event();
+        if (eventName != null) {
+            builder.name(eventName);
+        }
+        return new SseFrame(builder.id(sequence + ";" + subscriptions).data(data).build());
+    }
+
+    /** Renders an event that also sets how long the client waits before reconnecting. */
+    static SseFrame reconnect(String eventName, long reconnectMillis, String data) {
+        return new SseFrame(SseEmitter.event().name(eventName).reconnectTime(reconnectMillis).data(data).build());
+    }
+
+    /**
+     * Encoded length of {@code text} in UTF-8, counted without encoding it. Unpaired
+     * surrogates count as the one byte {@code '?'} they are replaced with.
+     */
+    static long utf8Length(CharSequence text) {
+        long bytes = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                bytes++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /** Bytes written per send. */
+    int sizeBytes() {
+        return sizeBytes;
+    }
+
+    @Override
+    public Set<DataWithMediaType> build() {
+        return parts;
+    }
+
+    @Override
+    public SseEmitter.SseEventBuilder id(String id) {
+        throw alreadyBuilt();
+    }
+
+    @Override
+    public SseEmitter.SseEventBuilder name(String eventName) {
+        throw alreadyBuilt();
+    }
+
+    @Override
+    public SseEmitter.SseEventBuilder reconnectTime(long reconnectTimeMillis) {
+        throw alreadyBuilt();
+    }
+
+    @Override
+    public SseEmitter.SseEventBuilder comment(String comment) {
+        throw alreadyBuilt();
+    }
+
+    @Override
+    public SseEmitter.SseEventBuilder data(Object object) {
+        throw alreadyBuilt();
+    }
+
+    @Override
+    public SseEmitter.SseEventBuilder data(Object object, MediaType mediaType) {
+        throw alreadyBuilt();
+    }
+
+    private static UnsupportedOperationException alreadyBuilt() {
+        return new UnsupportedOperationException("SseFrame is rendered once and shared; it cannot be modified");
+    }
+}
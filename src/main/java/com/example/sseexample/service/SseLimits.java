@@ -0,0 +1,42 @@
+package com.example.sseexample.service;
+
+import com.example.sseexample.config.SseProperties;
+
+/**
+ * The subset of {@link SseProperties} that can change while streams are open. The
+ * service holds one immutable instance and swaps it whole, so a broadcast or an
+ * admission always sees a consistent set of values.
+ *
+ * @param maxConnections   admission cap; lowering it never evicts existing streams
+ * @param timeoutMs        emitter timeout for streams opened after the change
+ * @param sendTimeoutMs    per-send budget for broadcasts started after the change
+ * @param broadcastThreads delivery pool size; the pool is resized in place
+ */
+public record SseLimits(int maxConnections, long timeoutMs, long sendTimeoutMs, int broadcastThreads) {
+
+    public SseLimits {
+        if (maxConnections < 1) {
+            throw new IllegalArgumentException("maxConnections must be at least 1");
+        }
+        if (timeoutMs < 1 || sendTimeoutMs < 1) {
+            throw new IllegalArgumentException("timeouts must be at least 1 ms");
+        }
+        if (broadcastThreads < 1) {
+            throw new IllegalArgumentException("broadcastThreads must be at least 1");
+        }
+    }
+
+    static SseLimits from(SseProperties properties) {
+        return new SseLimits(properties.maxConnections(), properties.timeoutMs(),
+            properties.sendTimeoutMs(), properties.broadcastThreads());
+    }
+
+    /** Returns a copy with every non-null argument applied. */
+    public SseLimits with(Integer maxConnections, Long timeoutMs, Long sendTimeoutMs, Integer broadcastThreads) {
+        return new SseLimits(
+            maxConnections != null ? maxConnections : this.maxConnections,
+            timeoutMs != null ? timeoutMs : this.timeoutMs,
+            sendTimeoutMs != null ? sendTimeoutMs : this.sendTimeoutMs,
+            broadcastThreads != null ? broadcastThreads : this.broadcastThreads);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.sseexample.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Latest value per key for state streams, and the subscribers that hold a copy.
+ * The keys form one JSON document, so a snapshot is that document and every update
+ * is an RFC 6902 patch against it, computed once per publish rather than per
+ * subscriber.
+ *
+ * <p>Not thread-safe: {@link EventService} serializes access so that a subscriber's
+ * snapshot and the patches queued after it can never interleave out of order.
+ */
+final class StateStore {
+
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    private final Map<String, JsonNode> values = new LinkedHashMap<>();
+    private final List<SseConnection> subscribers = new ArrayList<>();
+    private long version;
+
+    /**
+     * Replaces the value under {@code key}, or removes it when {@code value} is null,
+     * and returns the patch that takes a subscriber's copy from the previous version
+     * to this one. An empty patch means nothing changed and the version stays put.
+     */
+    ArrayNode apply(String key, JsonNode value) {
+        ArrayNode patch = NODES.arrayNode();
+        String path = "/" + escape(key);
+        diff(path, values.get(key), value, patch);
+        if (patch.isEmpty()) {
+            return patch;
+        }
+        if (value == null) {
+            values.remove(key);
+        } else {
+            values.put(key, value.deepCopy());
+        }
+        version++;
+        return patch;
+    }
+
+    long version() {
+        return version;
+    }
+
+    ObjectNode snapshot() {
+        ObjectNode document = NODES.objectNode();
+        values.forEach((key, value) -> document.set(key, value.deepCopy()));
+        return document;
+    }
+
+    int size() {
+        return values.size();
+    }
+
+    void subscribe(SseConnection connection) {
+        subscribers.add(connection);
+    }
+
+    void unsubscribe(SseConnection connection) {
+        subscribers.remove(connection);
+    }
+
+    List<SseConnection> subscribers() {
+        return List.copyOf(subscribers);
+    }
+
+    /**
+     * Objects are compared field by field so a one-field change yields one operation;
+     * arrays and scalars are replaced whole, which keeps patches valid without the
+     * cost of an element-wise diff.
+     */
+    static void diff(String path, JsonNode before, JsonNode after, ArrayNode patch) {
+        if (before == null && after == null) {
+            return;
+        }
+        if (before == null) {
+            patch.addObject().put("op", "add").put("path", path).set("value", after);
+            return;
+        }
+        if (after == null) {
+            patch.addObject().put("op", "remove").put("path", path);
+            return;
+        }
+        if (before.equals(after)) {
+            return;
+        }
+        if (!before.isObject() || !after.isObject()) {
+            patch.addObject().put("op", "replace").put("path", path).set("value", after);
+            return;
+        }
+        for (Iterator<String> names = before.fieldNames(); names.hasNext(); ) {
+            String name = names.next();
+            if (!after.has(name)) {
+                patch.addObject().put("op", "remove").put("path", path + "/" + escape(name));
+            }
+        }
+        for (Map.Entry<String, JsonNode> field : after.properties()) {
+            diff(path + "/" + escape(field.getKey()), before.get(field.getKey()), field.getValue(), patch);
+        }
+    }
+
+    /** RFC 6901 reference token escaping. */
+    private static String escape(String token) {
+        return token.replace("~", "~0").replace("/", "~1");
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.sseexample.service;
+
+/**
+ * What a subscriber asked for when opening {@code /api/events}.
+ *
+ * @param encoding payload wire format
+ * @param filter   server-side event filter, or null to receive every event
+ * @param ordered  deliver strictly in broadcast order instead of letting control
+ *                 events overtake and weighting realtime over bulk
+ */
+public record StreamOptions(PayloadEncoding encoding, EventFilter filter, boolean ordered) {
+
+    public static final StreamOptions DEFAULT = new StreamOptions(PayloadEncoding.JSON, null, false);
+
+    public StreamOptions {
+        if (encoding == null) {
+            throw new IllegalArgumentException("encoding must not be null");
+        }
+    }
+
+    public StreamOptions(PayloadEncoding encoding, EventFilter filter) {
+        this(encoding, filter, false);
+    }
+
+    /**
+     * Parses request parameters; either may be null.
+     *
+     * @throws IllegalArgumentException if the encoding is unknown or the filter malformed
+     */
+    public static StreamOptions parse(String encoding, String filter) {
+        return parse(encoding, filter, false);
+    }
+
+    public static StreamOptions parse(String encoding, String filter, boolean ordered) {
+        return new StreamOptions(
+            encoding == null ? PayloadEncoding.JSON : PayloadEncoding.fromToken(encoding),
+            filter == null ? null : EventFilter.compile(filter),
+            ordered);
+    }
+}
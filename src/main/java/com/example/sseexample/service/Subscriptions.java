@@ -0,0 +1,148 @@
+package com.example.sseexample.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * The logical subscriptions of one multiplexed stream, each an id chosen by the
+ * client and an optional filter. Broadcasts read the current set without locking;
+ * changes replace it, so a broadcast sees the set either before or after a change.
+ * Filters are interned in the {@link FilterRegistry} and handed back by the
+ * mutators so the caller can release them.
+ */
+final class Subscriptions {
+
+    private static final Pattern ID = Pattern.compile("[A-Za-z0-9_-]{1,32}");
+
+    /** One logical subscription; a null filter takes every event. */
+    record Subscription(String id, EventFilter filter) {
+
+        /**
+         * Parses {@code id} or {@code id:filter}; ids cannot contain a colon, so the
+         * first one separates them.
+         *
+         * @throws IllegalArgumentException if the id or filter is malformed
+         */
+        static Subscription parse(String spec) {
+            int colon = spec.indexOf(':');
+            return of(colon < 0 ? spec : spec.substring(0, colon), colon < 0 ? null : spec.substring(colon + 1));
+        }
+
+        static Subscription of(String id, String filter) {
+            if (id == null || !ID.matcher(id).matches()) {
+                throw new IllegalArgumentException(
+                    "Subscription ids are 1 to 32 letters, digits, '-' or '_'");
+            }
+            return new Subscription(id, filter == null || filter.isBlank() ? null : EventFilter.compile(filter));
+        }
+    }
+
+    private final String key;
+    private final int maxSubscriptions;
+    // Sorted by id, so the tag of a given match set is always spelled the same way.
+    private volatile Subscription[] current = new Subscription[0];
+    private boolean closed;
+
+    Subscriptions(String key, int maxSubscriptions) {
+        this.key = key;
+        this.maxSubscriptions = maxSubscriptions;
+    }
+
+    /** The unguessable handle the control endpoint addresses this stream by. */
+    String key() {
+        return key;
+    }
+
+    int size() {
+        return current.length;
+    }
+
+    /**
+     * The ids of the subscriptions {@code matches} accepts, comma-separated in id
+     * order, or null if none does.
+     */
+    String tag(Predicate<EventFilter> matches) {
+        StringBuilder tag = null;
+        for (Subscription subscription : current) {
+            if (subscription.filter() == null || matches.test(subscription.filter())) {
+                if (tag == null) {
+                    tag = new StringBuilder(subscription.id());
+                } else {
+                    tag.append(',').append(subscription.id());
+                }
+            }
+        }
+        return tag == null ? null : tag.toString();
+    }
+
+    /**
+     * Adds a subscription or replaces the one with its id.
+     *
+     * @return the filter it replaced, for the caller to release, or null
+     * @throws IllegalStateException    if the stream has closed
+     * @throws IllegalArgumentException if the stream already has the maximum
+     */
+    synchronized EventFilter put(Subscription subscription) {
+        if (closed) {
+            throw new IllegalStateException("Stream closed");
+        }
+        Subscription[] next = new Subscription[current.length + 1];
+        int n = 0;
+        EventFilter replaced = null;
+        boolean inserted = false;
+        for (Subscription existing : current) {
+            int order = existing.id().compareTo(subscription.id());
+            if (order == 0) {
+                replaced = existing.filter();
+                continue;
+            }
+            if (order > 0 && !inserted) {
+                next[n++] = subscription;
+                inserted = true;
+            }
+            next[n++] = existing;
+        }
+        if (!inserted) {
+            next[n++] = subscription;
+        }
+        if (n > maxSubscriptions) {
+            throw new IllegalArgumentException("A stream holds at most " + maxSubscriptions + " subscriptions");
+        }
+        current = Arrays.copyOf(next, n);
+        return replaced;
+    }
+
+    /**
+     * @return the removed subscription, whose filter the caller releases, or null if
+     *         there was none with that id
+     */
+    synchronized Subscription remove(String id) {
+        Subscription[] snapshot = current;
+        for (int i = 0; i < snapshot.length; i++) {
+            if (snapshot[i].id().equals(id)) {
+                Subscription[] next = new Subscription[snapshot.length - 1];
+                System.arraycopy(snapshot, 0, next, 0, i);
+                System.arraycopy(snapshot, i + 1, next, i, next.length - i);
+                current = next;
+                return snapshot[i];
+            }
+        }
+        return null;
+    }
+
+    /** Empties and closes the set; later changes fail. Returns the filters to release. */
+    synchronized List<EventFilter> close() {
+        closed = true;
+        List<EventFilter> filters = new ArrayList<>();
+        for (Subscription subscription : current) {
+            if (subscription.filter() != null) {
+                filters.add(subscription.filter());
+            }
+        }
+        current = new Subscription[0];
+        return filters;
+    }
+}
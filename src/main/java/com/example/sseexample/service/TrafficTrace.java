@@ -0,0 +1,368 @@
+package com.example.sseexample.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A compact binary record of stream lifecycle and publishes, for replaying a
+ * production traffic pattern against a test instance. It holds what shapes load
+ * and nothing a subscriber sent or a publisher said: connection ids and stream
+ * options, event names and payload sizes, each with its time.
+ *
+ * <p>The file is the magic {@code SSETRACE}, a version byte and the start time in
+ * epoch milliseconds, followed by records. Each record is a type byte and the
+ * microseconds since the previous record as a varint, then its fields. Event names
+ * are written once, as a NAME record, and referred to by index afterwards, so a
+ * publish is typically four or five bytes.
+ */
+public final class TrafficTrace {
+
+    static final byte[] MAGIC = {'S', 'S', 'E', 'T', 'R', 'A', 'C', 'E'};
+    static final int VERSION = 1;
+
+    private static final int CONNECT = 1;
+    private static final int DISCONNECT = 2;
+    private static final int PUBLISH = 3;
+    private static final int NAME = 4;
+
+    static final int FILTERED = 1;
+    static final int ORDERED = 2;
+    static final int MULTIPLEXED = 4;
+
+    private static final PayloadEncoding[] ENCODINGS = PayloadEncoding.values();
+
+    private TrafficTrace() {
+    }
+
+    public enum Kind { CONNECT, DISCONNECT, PUBLISH }
+
+    /**
+     * One recorded occurrence.
+     *
+     * @param offsetMicros  time since the trace started
+     * @param kind          what happened
+     * @param connectionId  the stream connected or disconnected; 0 for a publish
+     * @param encoding      the stream's payload encoding; null unless connecting
+     * @param flags         {@code FILTERED}, {@code ORDERED} and {@code MULTIPLEXED} bits of a connect
+     * @param eventName     the published event's name; null unless publishing
+     * @param payloadBytes  the published payload's UTF-8 size; 0 unless publishing
+     */
+    public record Entry(long offsetMicros, Kind kind, long connectionId, PayloadEncoding encoding, int flags,
+                        String eventName, int payloadBytes) {
+
+        public boolean ordered() {
+            return (flags & ORDERED) != 0;
+        }
+
+        public boolean filtered() {
+            return (flags & FILTERED) != 0;
+        }
+
+        public boolean multiplexed() {
+            return (flags & MULTIPLEXED) != 0;
+        }
+    }
+
+    /**
+     * The start time and entries of a trace.
+     *
+     * @param startEpochMillis wall-clock time the recording began
+     * @param entries          in recorded order
+     */
+    public record Recording(long startEpochMillis, List<Entry> entries) {
+
+        public long durationMicros() {
+            return entries.isEmpty() ? 0 : entries.get(entries.size() - 1).offsetMicros();
+        }
+    }
+
+    /** @throws IOException if the file is not a trace, or is of another version */
+    public static Recording read(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return read(in);
+        }
+    }
+
+    public static Recording read(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input));
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC) || in.readUnsignedByte() != VERSION) {
+            throw new IOException("Not a version " + VERSION + " SSE traffic trace");
+        }
+        long start = in.readLong();
+        List<Entry> entries = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        long offset = 0;
+        while (true) {
+            int type = in.read();
+            if (type < 0) {
+                break;
+            }
+            // A recording cut short by a crash ends mid-record; keep what is whole.
+            try {
+                offset += readVarLong(in);
+                switch (type) {
+                    case CONNECT -> {
+                        long id = readVarLong(in);
+                        PayloadEncoding encoding = ENCODINGS[in.readUnsignedByte()];
+                        int flags = in.readUnsignedByte();
+                        entries.add(new Entry(offset, Kind.CONNECT, id, encoding, flags, null, 0));
+                    }
+                    case DISCONNECT -> entries.add(new Entry(offset, Kind.DISCONNECT, readVarLong(in), null, 0, null, 0));
+                    case PUBLISH -> {
+                        String name = names.get((int) readVarLong(in));
+                        entries.add(new Entry(offset, Kind.PUBLISH, 0, null, 0, name, (int) readVarLong(in)));
+                    }
+                    case NAME -> names.add(in.readUTF());
+                    default -> throw new IOException("Unknown trace record type " + type);
+                }
+            } catch (EOFException e) {
+                break;
+            }
+        }
+        return new Recording(start, entries);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /**
+     * Appends records to a trace file. The admission and broadcast paths only time a
+     * record and offer it to a bounded queue; a writer thread encodes it and owns all
+     * file I/O, flushing its buffer once a second. Once the file reaches its size
+     * limit, the queue is full, or a write fails, the record is counted as dropped;
+     * after the limit or a failure recording stops for good.
+     */
+    static final class Recorder {
+
+        private static final int QUEUE_CAPACITY = 65_536;
+        private static final int WRITE_BATCH = 1_024;
+        private static final long FLUSH_INTERVAL_MS = 1_000;
+
+        /** A record as captured on the calling thread, encoded later by the writer. */
+        private record Pending(int type, long nanos, long id, int encoding, int flags, String name,
+                               long payloadBytes) {
+        }
+
+        /** Wakes the writer on close rather than leaving it to its poll timeout. */
+        private static final Pending WAKE = new Pending(0, 0, 0, 0, 0, null, 0);
+
+        private final BlockingQueue<Pending> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final LongSupplier nanoClock;
+        private final AtomicLong dropped = new AtomicLong();
+        private final Thread writer;
+        private volatile boolean closing;
+        private volatile boolean stopped;
+        private volatile long written;
+
+        // Only the writer thread touches these once it has started.
+        private final DataOutputStream out;
+        private final ByteArrayOutputStream scratch = new ByteArrayOutputStream(64);
+        private final DataOutputStream record = new DataOutputStream(scratch);
+        private final long maxBytes;
+        private final Map<String, Integer> names = new HashMap<>();
+        private long lastNanos;
+
+        Recorder(Path file, long maxBytes, LongSupplier nanoClock, long startEpochMillis, ThreadFactory threads)
+            throws IOException {
+            this(Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE), maxBytes, nanoClock, startEpochMillis, threads);
+        }
+
+        Recorder(OutputStream output, long maxBytes, LongSupplier nanoClock, long startEpochMillis,
+                 ThreadFactory threads) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(output, 64 * 1024));
+            this.maxBytes = maxBytes;
+            this.nanoClock = nanoClock;
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(startEpochMillis);
+            this.written = MAGIC.length + 1 + Long.BYTES;
+            this.lastNanos = nanoClock.getAsLong();
+            this.writer = threads.newThread(this::writeUntilClosed);
+            writer.start();
+        }
+
+        void connect(long connectionId, PayloadEncoding encoding, int flags) {
+            offer(new Pending(CONNECT, nanoClock.getAsLong(), connectionId, encoding.ordinal(), flags, null, 0));
+        }
+
+        void disconnect(long connectionId) {
+            offer(new Pending(DISCONNECT, nanoClock.getAsLong(), connectionId, 0, 0, null, 0));
+        }
+
+        void publish(String eventName, long payloadBytes) {
+            offer(new Pending(PUBLISH, nanoClock.getAsLong(), 0, 0, 0, eventName == null ? "message" : eventName,
+                payloadBytes));
+        }
+
+        private void offer(Pending pending) {
+            if (stopped || closing || !queue.offer(pending)) {
+                dropped.incrementAndGet();
+            }
+        }
+
+        private void writeUntilClosed() {
+            List<Pending> batch = new ArrayList<>(WRITE_BATCH);
+            long nextFlush = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MS);
+            try {
+                while (!closing || !queue.isEmpty()) {
+                    Pending first = queue.poll(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                    if (first != null) {
+                        batch.add(first);
+                        queue.drainTo(batch, WRITE_BATCH - 1);
+                        batch.forEach(this::write);
+                        batch.clear();
+                    }
+                    long now = System.nanoTime();
+                    if (now - nextFlush >= 0 && !stopped) {
+                        io(out::flush);
+                        nextFlush = now + TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MS);
+                    }
+                }
+            } catch (InterruptedException e) {
+                queue.drainTo(batch);
+                batch.forEach(this::write);
+            } finally {
+                stop();
+            }
+        }
+
+        private void write(Pending pending) {
+            if (pending == WAKE) {
+                return;
+            }
+            if (pending.type() == PUBLISH && !names.containsKey(pending.name()) && !stopped) {
+                names.put(pending.name(), names.size());
+                append(new Pending(NAME, pending.nanos(), 0, 0, 0, pending.name(), 0));
+            }
+            append(pending);
+        }
+
+        /** Writes one record, or counts it dropped if recording has stopped. */
+        private void append(Pending pending) {
+            if (!stopped && written >= maxBytes) {
+                stop();
+            }
+            if (stopped) {
+                dropped.incrementAndGet();
+                return;
+            }
+            long deltaMicros = TimeUnit.NANOSECONDS.toMicros(Math.max(0, pending.nanos() - lastNanos));
+            // Carry the sub-microsecond remainder so offsets do not drift over a long trace.
+            lastNanos += TimeUnit.MICROSECONDS.toNanos(deltaMicros);
+            scratch.reset();
+            io(() -> {
+                record.writeByte(pending.type());
+                writeVarLong(deltaMicros);
+                switch (pending.type()) {
+                    case CONNECT -> {
+                        writeVarLong(pending.id());
+                        record.writeByte(pending.encoding());
+                        record.writeByte(pending.flags());
+                    }
+                    case DISCONNECT -> writeVarLong(pending.id());
+                    case PUBLISH -> {
+                        writeVarLong(names.get(pending.name()));
+                        writeVarLong(pending.payloadBytes());
+                    }
+                    case NAME -> record.writeUTF(pending.name());
+                    default -> throw new IllegalStateException("Unknown trace record type " + pending.type());
+                }
+                scratch.writeTo(out);
+            });
+            if (!stopped) {
+                written += scratch.size();
+            }
+        }
+
+        private interface Write {
+            void run() throws IOException;
+        }
+
+        private void io(Write write) {
+            try {
+                write.run();
+            } catch (IOException e) {
+                stop();
+            }
+        }
+
+        private void writeVarLong(long value) throws IOException {
+            while ((value & ~0x7fL) != 0) {
+                record.writeByte((int) (value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            record.writeByte((int) value);
+        }
+
+        private void stop() {
+            if (stopped) {
+                return;
+            }
+            stopped = true;
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // Nothing more can be recorded either way.
+            }
+        }
+
+        /** Writes out what is queued, closes the file and waits for the writer to finish. */
+        void close() {
+            closing = true;
+            queue.offer(WAKE);
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                writer.interrupt();
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /** Bytes recorded so far, header included. */
+        long bytes() {
+            return written;
+        }
+
+        /** Records not written because recording had stopped or could not keep up. */
+        long dropped() {
+            return dropped.get();
+        }
+
+        boolean recording() {
+            return !stopped && !closing;
+        }
+    }
+}
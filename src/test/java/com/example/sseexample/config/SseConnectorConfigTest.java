@@ -0,0 +1,63 @@
+package com.example.sseexample.config;
+
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.UpgradeProtocol;
+import org.apache.coyote.http11.AbstractHttp11Protocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The connector tuning must actually reach Tomcat, and a stream cap that Tomcat
+ * itself could never accept must fail at startup rather than under load.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "app.sse.connector.max-threads=17",
+        "app.sse.connector.max-connections=1500",
+        "app.sse.connector.socket-read-buffer-bytes=2048",
+        "app.sse.connector.h2c=true",
+        "app.sse.connector.http2-max-concurrent-streams=64"
+    }
+)
+class SseConnectorConfigTest {
+
+    @Autowired
+    private ServletWebServerApplicationContext context;
+
+    private Connector connector() {
+        return ((TomcatWebServer) context.getWebServer()).getTomcat().getConnector();
+    }
+
+    @Test
+    void connector_AppliesThreadAndConnectionLimits() {
+        AbstractHttp11Protocol<?> protocol = (AbstractHttp11Protocol<?>) connector().getProtocolHandler();
+
+        assertEquals(17, protocol.getMaxThreads());
+        assertEquals(1500, protocol.getMaxConnections());
+        assertEquals("2048", String.valueOf(connector().getProperty("socket.appReadBufSize")));
+    }
+
+    @Test
+    void connector_WithH2cEnabled_RegistersHttp2Upgrade() {
+        UpgradeProtocol[] upgrades = connector().findUpgradeProtocols();
+
+        assertEquals(1, upgrades.length);
+        Http2Protocol http2 = assertInstanceOf(Http2Protocol.class, upgrades[0]);
+        assertEquals(64, http2.getMaxConcurrentStreams());
+    }
+
+    @Test
+    void properties_ConnectorCapNotAboveStreamCap_IsRejected() {
+        SseProperties.Connector tight = new SseProperties.Connector(50, 10, 1000, 100, 15_000L, 4096, 8192, 4096, false, 200);
+
+        assertThrows(IllegalArgumentException.class,
+            () -> SseProperties.defaults().withConnector(tight));
+    }
+}
@@ -1,15 +1,23 @@
 package com.example.sseexample.controller;
 
+import com.example.sseexample.config.SseProperties;
 import com.example.sseexample.service.EventService;
+import com.example.sseexample.service.EventTooLargeException;
 import com.example.sseexample.service.SseCapacityExceededException;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -33,6 +41,8 @@ class EventControllerIntegrationTest {
         private SseEmitter lastEmitter;
         private String lastEventName;
         private String lastEventData;
+        private Long lastTtlMs;
+        private boolean failNextBroadcast;
 
         public TestEventService() {
             super(false); // Disable periodic events
@@ -46,10 +56,20 @@ class EventControllerIntegrationTest {
 
         @Override
         public void broadcastEvent(String eventName, String data) {
+            if (failNextBroadcast) {
+                failNextBroadcast = false;
+                throw new SseCapacityExceededException(1);
+            }
             this.lastEventName = eventName;
             this.lastEventData = data;
         }
 
+        @Override
+        public void broadcastEvent(String eventName, String data, long ttlMs) {
+            broadcastEvent(eventName, data);
+            this.lastTtlMs = ttlMs;
+        }
+
         public SseEmitter getLastEmitter() {
             return lastEmitter;
         }
@@ -61,6 +81,10 @@ class EventControllerIntegrationTest {
         public String getLastEventData() {
             return lastEventData;
         }
+
+        public Long getLastTtlMs() {
+            return lastTtlMs;
+        }
     }
 
     // Stands in for a service that has hit the app.sse.max-connections cap (issue #15)
@@ -87,6 +111,30 @@ class EventControllerIntegrationTest {
                 .andExpect(header().string("Retry-After", "5"));
     }
 
+    @Test
+    void streamEvents_WhileDegraded_ShouldReturn503WithComputedRetryAfter() throws Exception {
+        MockMvc degraded = MockMvcBuilders
+            .standaloneSetup(new EventController(new SaturatedEventService() {
+                @Override
+                public SseEmitter createEventStream() {
+                    throw new SseCapacityExceededException("Delivery is degraded (heap)", 17);
+                }
+            }))
+            .build();
+
+        degraded.perform(get("/api/events")
+                .accept(MediaType.TEXT_EVENT_STREAM_VALUE))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "17"));
+    }
+
+    @Test
+    void streamEvents_ReportsPodLoadInHeader() throws Exception {
+        mockMvc.perform(get("/api/events")
+                .accept(MediaType.TEXT_EVENT_STREAM_VALUE))
+                .andExpect(header().string("X-SSE-Load", "0.000"));
+    }
+
     @Test
     void streamEvents_ShouldReturnSseEmitter() throws Exception {
         // When & Then
@@ -99,6 +147,55 @@ class EventControllerIntegrationTest {
         org.junit.jupiter.api.Assertions.assertNotNull(eventService.getLastEmitter());
     }
 
+    @Test
+    void streamEvents_WithUnknownEncoding_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/events").param("encoding", "xml")
+                .accept(MediaType.TEXT_EVENT_STREAM_VALUE))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamEvents_WithMalformedFilter_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/events").param("filter", "payload==x")
+                .accept(MediaType.TEXT_EVENT_STREAM_VALUE))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamEvents_WithInvalidResumeToken_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/events").param("resume", "not-a-token")
+                .accept(MediaType.TEXT_EVENT_STREAM_VALUE))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamMultiplexed_WithStreamLevelFilterOrBadSubscription_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/events").param("mode", "mux").param("filter", "event==custom")
+                .accept(MediaType.TEXT_EVENT_STREAM_VALUE))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/events").param("mode", "mux").param("subscribe", "prices:payload==x")
+                .accept(MediaType.TEXT_EVENT_STREAM_VALUE))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamMultiplexed_ShouldStartStream() throws Exception {
+        mockMvc.perform(get("/api/events").param("mode", "mux")
+                .param("subscribe", "prices:event==custom", "all")
+                .accept(MediaType.TEXT_EVENT_STREAM_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+        org.junit.jupiter.api.Assertions.assertEquals(2, eventService.multiplexedSubscriptions());
+    }
+
+    @Test
+    void subscribe_OnUnknownStream_ShouldReturn404() throws Exception {
+        mockMvc.perform(put("/api/streams/unknown/subscriptions/prices").param("filter", "event==custom"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/api/streams/unknown/subscriptions/prices"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void triggerEvent_ShouldBroadcastEvent() throws Exception {
         // Given
@@ -117,6 +214,101 @@ class EventControllerIntegrationTest {
         org.junit.jupiter.api.Assertions.assertEquals("\"" + testMessage + "\"", eventService.getLastEventData());
     }
 
+    @Test
+    void publishState_ThenCurrentState_ReturnsLatestValuePerKey() throws Exception {
+        mockMvc.perform(put("/api/state/price")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bid\":1.5}"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("State version 1"));
+        mockMvc.perform(delete("/api/state/missing"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("State version 1"));
+
+        mockMvc.perform(get("/api/state"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"price\":{\"bid\":1.5}}"));
+    }
+
+    @Test
+    void triggerEvent_RetriedWithSameIdempotencyKey_BroadcastsOnce() throws Exception {
+        mockMvc.perform(post("/api/trigger-event")
+                .header("Idempotency-Key", "publish-1")
+                .content("first"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Event triggered"));
+
+        mockMvc.perform(post("/api/trigger-event")
+                .header("Idempotency-Key", "publish-1")
+                .content("retry"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Event already triggered"));
+
+        org.junit.jupiter.api.Assertions.assertEquals("first", eventService.getLastEventData());
+    }
+
+    @Test
+    void triggerEvent_RetriedAfterAFailedPublish_BroadcastsTheRetry() throws Exception {
+        eventService.failNextBroadcast = true;
+        mockMvc.perform(post("/api/trigger-event")
+                .header("Idempotency-Key", "publish-1")
+                .content("first"))
+                .andExpect(status().isServiceUnavailable());
+
+        mockMvc.perform(post("/api/trigger-event")
+                .header("Idempotency-Key", "publish-1")
+                .content("retry"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Event triggered"));
+
+        org.junit.jupiter.api.Assertions.assertEquals("retry", eventService.getLastEventData());
+    }
+
+    @Test
+    void triggerEvent_WithOversizedIdempotencyKey_ShouldReturn400() throws Exception {
+        mockMvc.perform(post("/api/trigger-event")
+                .header("Idempotency-Key", "k".repeat(256))
+                .content("message"))
+                .andExpect(status().isBadRequest());
+
+        org.junit.jupiter.api.Assertions.assertNull(eventService.getLastEventName());
+    }
+
+    @Test
+    void triggerEvent_WithTtlMs_BroadcastsWithThatTtl() throws Exception {
+        mockMvc.perform(post("/api/trigger-event?ttlMs=1500")
+                .content("price"))
+                .andExpect(status().isOk());
+
+        org.junit.jupiter.api.Assertions.assertEquals(1500L, eventService.getLastTtlMs());
+    }
+
+    @Test
+    void triggerEvent_WithNegativeTtlMs_ShouldReturn400() throws Exception {
+        mockMvc.perform(post("/api/trigger-event?ttlMs=-1")
+                .content("price"))
+                .andExpect(status().isBadRequest());
+
+        org.junit.jupiter.api.Assertions.assertNull(eventService.getLastEventName());
+    }
+
+    @Test
+    void triggerEvent_WithinAThrottleWindow_ShouldReturn202() throws Exception {
+        EventService throttled = new EventService(SseProperties.defaults().withThrottles(
+            Map.of("custom", new SseProperties.Throttle(60_000L, SseProperties.Throttle.Conflation.LATEST, 100))));
+        MockMvc throttledMvc = MockMvcBuilders.standaloneSetup(new EventController(throttled)).build();
+        try {
+            throttledMvc.perform(post("/api/trigger-event").content("first"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("Event triggered"));
+            throttledMvc.perform(post("/api/trigger-event").content("second"))
+                    .andExpect(status().isAccepted())
+                    .andExpect(content().string("Event conflated"));
+        } finally {
+            throttled.shutdown();
+        }
+    }
+
     @Test
     void home_ShouldReturnWelcomeMessage() throws Exception {
         // When & Then
@@ -141,4 +333,77 @@ class EventControllerIntegrationTest {
         org.junit.jupiter.api.Assertions.assertEquals("custom", eventService.getLastEventName());
         org.junit.jupiter.api.Assertions.assertEquals(invalidJson, eventService.getLastEventData());
     }
+
+    @Test
+    void triggerEvent_OverMaxEventBytes_ShouldReturn413() throws Exception {
+        mockMvc.perform(post("/api/trigger-event")
+                .content("x".repeat(eventService.maxEventBytes() + 1)))
+                .andExpect(status().isPayloadTooLarge());
+
+        org.junit.jupiter.api.Assertions.assertNull(eventService.getLastEventName());
+        org.junit.jupiter.api.Assertions.assertEquals(1, eventService.oversizedPublishes());
+    }
+
+    @Test
+    void triggerEvent_EmptyBody_ShouldReturn400() throws Exception {
+        mockMvc.perform(post("/api/trigger-event"))
+                .andExpect(status().isBadRequest());
+
+        org.junit.jupiter.api.Assertions.assertNull(eventService.getLastEventName());
+    }
+
+    @Test
+    void triggerEvent_EndlessChunkedBody_StopsReadingJustPastTheLimit() {
+        EventService limited = new EventService(
+            SseProperties.defaults().withPublish(new SseProperties.Publish(1024)));
+        AtomicLong consumed = new AtomicLong();
+        // No Content-Length and a body that never ends: only an early stop can return.
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/trigger-event") {
+            @Override
+            public ServletInputStream getInputStream() {
+                return new EndlessInputStream(consumed);
+            }
+        };
+
+        org.junit.jupiter.api.Assertions.assertThrows(EventTooLargeException.class,
+            () -> new EventController(limited).triggerEvent(request, null, null));
+        org.junit.jupiter.api.Assertions.assertEquals(1025, consumed.get());
+        limited.shutdown();
+    }
+
+    private static final class EndlessInputStream extends ServletInputStream {
+        private final AtomicLong consumed;
+
+        EndlessInputStream(AtomicLong consumed) {
+            this.consumed = consumed;
+        }
+
+        @Override
+        public int read() {
+            consumed.incrementAndGet();
+            return 'x';
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            Arrays.fill(buffer, offset, offset + length, (byte) 'x');
+            consumed.addAndGet(length);
+            return length;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return false;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+            throw new UnsupportedOperationException();
+        }
+    }
 }
@@ -2,9 +2,14 @@ package com.example.sseexample.controller;
 
 import com.example.sseexample.service.EventService;
 import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class EventControllerSimpleTest {
 
@@ -27,7 +32,7 @@ class EventControllerSimpleTest {
         EventController controller = new EventController(service);
         
         // When
-        SseEmitter emitter = controller.streamEvents();
+        SseEmitter emitter = controller.streamEvents(null, null, false);
         
         // Then
         assertNotNull(emitter);
@@ -49,17 +54,14 @@ class EventControllerSimpleTest {
     }
     
     @Test
-    void triggerEvent_ShouldReturnSuccess() {
+    void triggerEvent_ShouldReturnSuccess() throws Exception {
         // Given
         EventService service = new EventService(false);
-        EventController controller = new EventController(service);
-        
-        // When
-        var response = controller.triggerEvent("test message");
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new EventController(service)).build();
         
-        // Then
-        assertNotNull(response);
-        assertEquals(200, response.getStatusCode().value());
-        assertEquals("Event triggered", response.getBody());
+        // When / Then
+        mockMvc.perform(post("/api/trigger-event").content("test message"))
+            .andExpect(status().isOk())
+            .andExpect(content().string("Event triggered"));
     }
 }
\ No newline at end of file
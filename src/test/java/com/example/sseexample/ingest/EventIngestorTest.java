@@ -0,0 +1,261 @@
+package com.example.sseexample.ingest;
+
+import com.example.sseexample.config.SseProperties;
+import com.example.sseexample.service.EventService;
+import com.example.sseexample.service.EventTooLargeException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Both built-in sources must decode NDJSON in arrival order, skip what they cannot
+ * decode, and stop reading rather than buffer without bound when broadcasts lag.
+ */
+class EventIngestorTest {
+
+    /** Records broadcasts instead of delivering them; optionally holds each one until released. */
+    private static class RecordingEventService extends EventService {
+        private final List<String> broadcasts = new CopyOnWriteArrayList<>();
+        private final List<Long> ttls = new CopyOnWriteArrayList<>();
+        private final CountDownLatch release;
+
+        RecordingEventService(CountDownLatch release) {
+            super(false);
+            this.release = release;
+        }
+
+        @Override
+        public void broadcastEvent(String eventName, String data, long ttlMs) {
+            if (data.equals("fails")) {
+                throw new EventTooLargeException(1);
+            }
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            broadcasts.add(eventName + ":" + data);
+            ttls.add(ttlMs);
+        }
+    }
+
+    private final RecordingEventService service = new RecordingEventService(new CountDownLatch(0));
+    private EventIngestor ingestor;
+
+    @AfterEach
+    void tearDown() {
+        if (ingestor != null) {
+            ingestor.shutdown();
+        }
+        service.shutdown();
+    }
+
+    private static SseProperties.Ingest config(int bufferEvents, int readBufferBytes, int maxLineBytes) {
+        return new SseProperties.Ingest(bufferEvents, maxLineBytes, readBufferBytes, false, "127.0.0.1", 0, 2,
+            "", 20L, false);
+    }
+
+    private static TcpEventSource tcp(SseProperties.Ingest config) {
+        return new TcpEventSource(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+            config.tcpMaxClients(), config.readBufferBytes(), config.maxLineBytes());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 10s");
+            Thread.sleep(10);
+        }
+    }
+
+    private static void write(Path file, String text) throws Exception {
+        Files.writeString(file, text, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Test
+    void tcpSource_BroadcastsRecordsInOrderAndSkipsMalformedOnes() throws Exception {
+        SseProperties.Ingest config = config(100, 64, 128);
+        TcpEventSource source = tcp(config);
+        ingestor = new EventIngestor(service, config, List.of(source));
+
+        try (Socket producer = new Socket(InetAddress.getLoopbackAddress(), source.localPort())) {
+            OutputStream out = producer.getOutputStream();
+            StringBuilder lines = new StringBuilder();
+            for (int i = 0; i < 500; i++) {
+                lines.append("{\"data\":\"m").append(i).append("\"}\n");
+            }
+            lines.append("not json\n")
+                .append("{\"event\":\"bad name\",\"data\":\"x\"}\n")
+                .append("{\"event\":\"custom\",\"data\":\"").append("x".repeat(200)).append("\"}\n")
+                .append("\r\n")
+                .append("{\"event\":\"price\",\"data\":{\"symbol\":\"ACME\"}}\r\n");
+            out.write(lines.toString().getBytes(StandardCharsets.UTF_8));
+            out.flush();
+
+            await(() -> ingestor.dispatchedEvents() == 501);
+        }
+
+        assertEquals("custom:m0", service.broadcasts.get(0));
+        assertEquals("custom:m499", service.broadcasts.get(499));
+        assertEquals("price:{\"symbol\":\"ACME\"}", service.broadcasts.get(500));
+        assertEquals(3, ingestor.malformedRecords());
+    }
+
+    @Test
+    void tcpSource_SkipsRecordsNamedLikeTheServersOwnEvents() throws Exception {
+        SseProperties.Ingest config = config(100, 64, 128);
+        TcpEventSource source = tcp(config);
+        ingestor = new EventIngestor(service, config, List.of(source));
+
+        try (Socket producer = new Socket(InetAddress.getLoopbackAddress(), source.localPort())) {
+            OutputStream out = producer.getOutputStream();
+            out.write(("{\"event\":\"patch\",\"data\":{\"op\":\"replace\"}}\n"
+                + "{\"event\":\"heartbeat\",\"data\":\"ping\"}\n"
+                + "{\"event\":\"patches\",\"data\":\"ok\"}\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            await(() -> ingestor.dispatchedEvents() == 1 && ingestor.malformedRecords() == 2);
+        }
+
+        assertEquals(List.of("patches:ok"), service.broadcasts);
+        List<String> reserved = List.of("connected", "resume", "multiplex", "heartbeat", "snapshot", "patch", "rebalance");
+        for (String name : reserved) {
+            assertThrows(IllegalArgumentException.class, () -> new IngestEvent(name, "x"), name);
+        }
+    }
+
+    @Test
+    void tcpSource_WhenBroadcastsStall_StopsReadingInsteadOfBuffering() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEventService stalled = new RecordingEventService(release);
+        SseProperties.Ingest config = config(4, 64, 128);
+        TcpEventSource source = tcp(config);
+        ingestor = new EventIngestor(stalled, config, List.of(source));
+
+        try (Socket producer = new Socket(InetAddress.getLoopbackAddress(), source.localPort())) {
+            byte[] line = "{\"data\":\"tick\"}\n".getBytes(StandardCharsets.UTF_8);
+            OutputStream out = producer.getOutputStream();
+            for (int i = 0; i < 1000; i++) {
+                out.write(line);
+            }
+            out.flush();
+
+            await(() -> ingestor.buffered() == 4);
+            Thread.sleep(100);
+            // The buffer, plus what the dispatcher took before it stalled.
+            assertTrue(ingestor.acceptedEvents() <= 2 * 4 + 1,
+                "accepted " + ingestor.acceptedEvents() + " events while stalled");
+
+            release.countDown();
+            await(() -> ingestor.dispatchedEvents() == 1000);
+        } finally {
+            stalled.shutdown();
+        }
+    }
+
+    @Test
+    void fileTail_FollowsAppendsAcrossSmallReadsAndTruncation(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("events.ndjson");
+        write(file, "{\"data\":\"before start\"}\n");
+        // A 7-byte read buffer splits every record across several reads.
+        SseProperties.Ingest config = config(100, 7, 128);
+        ingestor = new EventIngestor(service, config,
+            List.of(new FileTailEventSource(file, config.tailPollMs(), false, 7, 128)));
+
+        write(file, "{\"data\":\"one\"}\n{\"data\":");
+        write(file, "\"two\"}\n");
+        await(() -> service.broadcasts.size() == 2);
+
+        Files.writeString(file, "{\"data\":\"after truncate\"}\n", StandardCharsets.UTF_8,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        await(() -> service.broadcasts.size() == 3);
+
+        assertEquals(List.of("custom:one", "custom:two", "custom:after truncate"), service.broadcasts);
+    }
+
+    @Test
+    void fileTail_PicksUpAFileCreatedAfterStart(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("late.ndjson");
+        SseProperties.Ingest config = config(100, 64, 128);
+        ingestor = new EventIngestor(service, config,
+            List.of(new FileTailEventSource(file, config.tailPollMs(), false, 64, 128)));
+        Thread.sleep(50);
+
+        write(file, "{\"event\":\"custom\",\"data\":\"hello\"}\n");
+
+        await(() -> service.broadcasts.equals(List.of("custom:hello")));
+    }
+
+    @Test
+    void dispatch_DiscardsEventsWhoseTtlPassedInTheBuffer() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEventService stalled = new RecordingEventService(release);
+        SseProperties.Ingest config = config(100, 64, 128);
+        TcpEventSource source = tcp(config);
+        ingestor = new EventIngestor(stalled, config, List.of(source));
+
+        try (Socket producer = new Socket(InetAddress.getLoopbackAddress(), source.localPort())) {
+            OutputStream out = producer.getOutputStream();
+            out.write(("{\"data\":\"holds the dispatcher\"}\n"
+                + "{\"data\":\"stale\",\"ttlMs\":50}\n"
+                + "{\"data\":\"fresh\",\"ttlMs\":60000}\n"
+                + "{\"data\":\"forever\",\"ttlMs\":0}\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            await(() -> ingestor.acceptedEvents() == 4);
+            Thread.sleep(100);
+
+            release.countDown();
+            await(() -> ingestor.dispatchedEvents() + ingestor.expiredEvents() == 4);
+        } finally {
+            stalled.shutdown();
+        }
+
+        assertEquals(List.of("custom:holds the dispatcher", "custom:fresh", "custom:forever"), stalled.broadcasts);
+        assertEquals(1, ingestor.expiredEvents());
+        long fresh = stalled.ttls.get(1);
+        assertTrue(fresh > 0 && fresh <= 60_000 - 100, "the time spent buffered counts: " + fresh);
+        assertEquals(0L, stalled.ttls.get(2));
+    }
+
+    @Test
+    void dispatch_CountsAFailedBroadcastAsFailedNotDispatched() throws Exception {
+        SseProperties.Ingest config = config(100, 64, 128);
+        TcpEventSource source = tcp(config);
+        ingestor = new EventIngestor(service, config, List.of(source));
+
+        try (Socket producer = new Socket(InetAddress.getLoopbackAddress(), source.localPort())) {
+            OutputStream out = producer.getOutputStream();
+            out.write("{\"data\":\"fails\"}\n{\"data\":\"after\"}\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            await(() -> ingestor.dispatchedEvents() + ingestor.failedEvents() == 2);
+        }
+
+        assertEquals(List.of("custom:after"), service.broadcasts);
+        assertEquals(1, ingestor.failedEvents());
+        assertEquals(1, ingestor.dispatchedEvents());
+    }
+
+    @Test
+    void ingestor_WithoutSources_StartsNoThreads() {
+        ingestor = new EventIngestor(service, SseProperties.Ingest.defaults(), List.of());
+
+        assertTrue(ingestor.sourceNames().isEmpty());
+        assertEquals(0, ingestor.buffered());
+    }
+}
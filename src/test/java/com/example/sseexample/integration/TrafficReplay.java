@@ -0,0 +1,337 @@
+package com.example.sseexample.integration;
+
+import com.example.sseexample.service.PayloadEncoding;
+import com.example.sseexample.service.TrafficTrace;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Drives a running instance with a recorded {@link TrafficTrace}: opens and closes
+ * {@code /api/events} streams and posts {@code /api/trigger-event} publishes at the
+ * recorded times, divided by a speed factor, and reports how the instance coped.
+ *
+ * <p>Publishes are replayed with the recorded payload size, padded around the time
+ * they were sent, so each subscriber measures delivery latency from the publisher's
+ * request to the line arriving. Streams reopen with their recorded encoding and
+ * ordering; filters were not recorded, so a replayed stream takes every event and
+ * the replay is a worst case for fan-out. Multiplexed streams reopen as plain
+ * ones. Events the target schedules itself, like heartbeats, are skipped.
+ */
+final class TrafficReplay {
+
+    private static final Pattern SENT_AT = Pattern.compile("replayNanos\\\\?\":(\\d+)");
+    private static final CBORMapper CBOR = new CBORMapper();
+
+    private TrafficReplay() {
+    }
+
+    /**
+     * @param baseUrl     the instance under test, e.g. {@code http://localhost:8080}
+     * @param speed       1 replays in recorded time, 4 four times faster
+     * @param skipEvents  recorded event names not to publish
+     * @param drain       how long to keep streams open after the last entry for deliveries to land
+     */
+    record Options(URI baseUrl, double speed, Set<String> skipEvents, Duration drain) {
+    }
+
+    /** Latency percentiles in milliseconds. */
+    record Latency(long count, double p50, double p99, double max) {
+
+        static Latency of(Samples samples) {
+            long[] nanos = samples.toArray();
+            if (nanos.length == 0) {
+                return new Latency(0, 0, 0, 0);
+            }
+            Arrays.sort(nanos);
+            return new Latency(nanos.length, millis(nanos[percentileIndex(nanos.length, 0.50)]),
+                millis(nanos[percentileIndex(nanos.length, 0.99)]), millis(nanos[nanos.length - 1]));
+        }
+
+        private static int percentileIndex(int count, double quantile) {
+            return Math.max(0, (int) Math.ceil(quantile * count) - 1);
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+
+    /**
+     * @param label              name in the report
+     * @param speed              replay speed factor
+     * @param traceMs            recorded duration
+     * @param wallMs             replay duration, drain excluded
+     * @param connects           streams opened and admitted
+     * @param refused            streams refused with 503
+     * @param connectFailures    streams that failed otherwise
+     * @param publishFailures    publishes answered other than 200, or not at all
+     * @param publishLatency     publish request to response; the instance answers after fan-out
+     * @param expectedDeliveries publishes times the streams open when each was sent
+     * @param deliveryLatency    publish request to the event arriving on a stream
+     * @param maxLagMs           furthest the replay fell behind its schedule
+     */
+    record Report(String label, double speed, long traceMs, long wallMs, int connects, int refused,
+                  int connectFailures, int publishFailures, Latency publishLatency, long expectedDeliveries,
+                  Latency deliveryLatency, double maxLagMs) {
+
+        double deliveredRatio() {
+            return expectedDeliveries == 0 ? 1.0 : (double) deliveryLatency.count() / expectedDeliveries;
+        }
+
+        double publishesPerSecond() {
+            return wallMs == 0 ? 0 : publishLatency.count() * 1000.0 / wallMs;
+        }
+    }
+
+    /** A growable array of samples shared by the client's threads. */
+    static final class Samples {
+        private long[] values = new long[256];
+        private int size;
+
+        synchronized void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        synchronized long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /** One replayed stream: counts the replayed events it receives and when. */
+    private static final class Stream implements Flow.Subscriber<String> {
+        private final Samples deliveries;
+        private volatile Flow.Subscription subscription;
+        private volatile boolean connected;
+        private volatile boolean closed;
+
+        Stream(Samples deliveries) {
+            this.deliveries = deliveries;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (closed) {
+                subscription.cancel();
+            } else {
+                subscription.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (!line.startsWith("data:")) {
+                return;
+            }
+            long received = System.nanoTime();
+            long sentAt = sentAt(line.substring("data:".length()));
+            if (sentAt > 0) {
+                deliveries.add(received - sentAt);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            closed = true;
+        }
+
+        @Override
+        public void onComplete() {
+            closed = true;
+        }
+
+        void close() {
+            closed = true;
+            Flow.Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+    }
+
+    /** The publisher's send time carried by a replayed event, or 0 for any other event. */
+    static long sentAt(String data) {
+        Matcher matcher = SENT_AT.matcher(data);
+        if (matcher.find()) {
+            return Long.parseLong(matcher.group(1));
+        }
+        // CBOR streams carry base64 of a map whose "m" embeds the published JSON.
+        try {
+            JsonNode sent = CBOR.readTree(Base64.getDecoder().decode(data.trim())).path("m").path("replayNanos");
+            return sent.isNumber() ? sent.asLong() : 0;
+        } catch (IllegalArgumentException | IOException e) {
+            return 0;
+        }
+    }
+
+    /** A JSON message of {@code bytes} UTF-8 bytes, or as near as the timestamp allows. */
+    static String payload(long sentAtNanos, int bytes) {
+        String head = "{\"replayNanos\":" + sentAtNanos + ",\"pad\":\"";
+        int padding = Math.max(0, bytes - head.length() - 2);
+        return head + "x".repeat(padding) + "\"}";
+    }
+
+    static Report run(String label, TrafficTrace.Recording recording, Options options) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        Samples publishLatencies = new Samples();
+        Samples deliveryLatencies = new Samples();
+        Map<Long, Stream> streams = new HashMap<>();
+        Set<Stream> open = ConcurrentHashMap.newKeySet();
+        List<CompletableFuture<?>> publishes = new ArrayList<>();
+        AtomicInteger connects = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        AtomicInteger connectFailures = new AtomicInteger();
+        AtomicInteger publishFailures = new AtomicInteger();
+        AtomicLong expectedDeliveries = new AtomicLong();
+        long maxLagNanos = 0;
+        warmUp(client, options.baseUrl());
+
+        long start = System.nanoTime();
+        for (TrafficTrace.Entry entry : recording.entries()) {
+            long due = start + (long) (TimeUnit.MICROSECONDS.toNanos(entry.offsetMicros()) / options.speed());
+            long now;
+            while ((now = System.nanoTime()) < due) {
+                LockSupport.parkNanos(due - now);
+            }
+            maxLagNanos = Math.max(maxLagNanos, now - due);
+            switch (entry.kind()) {
+                case CONNECT -> {
+                    Stream stream = new Stream(deliveryLatencies);
+                    streams.put(entry.connectionId(), stream);
+                    open.add(stream);
+                    connect(client, options.baseUrl(), entry, stream, connects, refused, connectFailures);
+                }
+                case DISCONNECT -> {
+                    Stream stream = streams.remove(entry.connectionId());
+                    if (stream != null) {
+                        open.remove(stream);
+                        stream.close();
+                    }
+                }
+                case PUBLISH -> {
+                    if (options.skipEvents().contains(entry.eventName())) {
+                        continue;
+                    }
+                    expectedDeliveries.addAndGet(open.stream().filter(s -> s.connected && !s.closed).count());
+                    publishes.add(publish(client, options.baseUrl(), entry.payloadBytes(), publishLatencies,
+                        publishFailures));
+                }
+            }
+        }
+        long wallMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        try {
+            CompletableFuture.allOf(publishes.toArray(new CompletableFuture<?>[0]))
+                .get(options.drain().toMillis() + 30_000, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            // Counted as publish failures as each one completes or not.
+        }
+        Thread.sleep(options.drain().toMillis());
+        open.forEach(Stream::close);
+
+        return new Report(label, options.speed(), recording.durationMicros() / 1000, wallMs, connects.get(),
+            refused.get(), connectFailures.get(), publishFailures.get(), Latency.of(publishLatencies),
+            expectedDeliveries.get(), Latency.of(deliveryLatencies), maxLagNanos / 1_000_000.0);
+    }
+
+    /**
+     * Makes one request before the clock starts. The first request to a fresh
+     * instance can take seconds to set up the client and the target's dispatcher,
+     * long enough for the publishes scheduled after it to overtake the streams.
+     */
+    private static void warmUp(HttpClient client, URI baseUrl) throws InterruptedException {
+        try {
+            client.send(HttpRequest.newBuilder(baseUrl.resolve("/api/")).GET().build(),
+                HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            // The replay reports the target as unreachable through its connect failures.
+        }
+    }
+
+    private static void connect(HttpClient client, URI baseUrl, TrafficTrace.Entry entry, Stream stream,
+                                AtomicInteger connects, AtomicInteger refused, AtomicInteger failures) {
+        URI uri = baseUrl.resolve("/api/events?encoding=" + entry.encoding().token()
+            + (entry.ordered() ? "&ordered=true" : ""));
+        HttpRequest request = HttpRequest.newBuilder(uri).header("Accept", "text/event-stream").GET().build();
+        client.sendAsync(request, info -> {
+            if (info.statusCode() == 200) {
+                // The headers arrive once the stream is registered, so later publishes reach it.
+                stream.connected = true;
+                connects.incrementAndGet();
+                return HttpResponse.BodySubscribers.fromLineSubscriber(stream);
+            }
+            (info.statusCode() == 503 ? refused : failures).incrementAndGet();
+            stream.close();
+            return HttpResponse.BodySubscribers.discarding();
+        }).exceptionally(e -> {
+            if (!stream.closed) {
+                failures.incrementAndGet();
+            }
+            stream.close();
+            return null;
+        });
+    }
+
+    private static CompletableFuture<?> publish(HttpClient client, URI baseUrl, int bytes, Samples latencies,
+                                                AtomicInteger failures) {
+        long sent = System.nanoTime();
+        HttpRequest request = HttpRequest.newBuilder(baseUrl.resolve("/api/trigger-event"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(payload(sent, bytes)))
+            .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).handle((response, error) -> {
+            if (error == null && response.statusCode() == 200) {
+                latencies.add(System.nanoTime() - sent);
+            } else {
+                failures.incrementAndGet();
+            }
+            return null;
+        });
+    }
+
+    static String table(List<Report> reports) {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format(Locale.ROOT, "%-18s %6s %8s %8s %6s %6s %6s %8s %6s %9s %9s %10s %7s %9s %9s %9s %8s%n",
+            "replay", "speed", "trace s", "wall s", "conns", "503", "fail", "pubs", "failed", "pub p50", "pub p99",
+            "deliveries", "ratio", "dlv p50", "dlv p99", "dlv max", "lag ms"));
+        for (Report r : reports) {
+            table.append(String.format(Locale.ROOT,
+                "%-18s %5.1fx %8.1f %8.1f %6d %6d %6d %8d %6d %9.1f %9.1f %10d %7.3f %9.1f %9.1f %9.1f %8.1f%n",
+                r.label(), r.speed(), r.traceMs() / 1000.0, r.wallMs() / 1000.0, r.connects(), r.refused(),
+                r.connectFailures(), r.publishLatency().count(), r.publishFailures(), r.publishLatency().p50(),
+                r.publishLatency().p99(), r.deliveryLatency().count(), r.deliveredRatio(),
+                r.deliveryLatency().p50(), r.deliveryLatency().p99(), r.deliveryLatency().max(), r.maxLagMs()));
+        }
+        return table.toString();
+    }
+}
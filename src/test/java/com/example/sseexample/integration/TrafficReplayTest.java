@@ -0,0 +1,114 @@
+package com.example.sseexample.integration;
+
+import com.example.sseexample.SseExampleApplication;
+import com.example.sseexample.service.PayloadEncoding;
+import com.example.sseexample.service.TrafficTrace;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Replays traffic with {@link TrafficReplay}. {@code gradle benchmark} records a short
+ * trace from one instance and replays it against another; {@code gradle replayTraffic}
+ * replays a production trace against a running instance at each requested speed and
+ * prints the reports side by side, so runs before and after a change can be compared.
+ * Both boot real servers and depend on timing, so neither runs in the default suite.
+ */
+@Tag("benchmark")
+class TrafficReplayTest {
+
+    private static ConfigurableApplicationContext start(String... args) {
+        List<String> all = new ArrayList<>(List.of(
+            "--server.port=0", "--management.server.port=0", "--server.shutdown=immediate"));
+        all.addAll(Arrays.asList(args));
+        return SpringApplication.run(SseExampleApplication.class, all.toArray(new String[0]));
+    }
+
+    private static URI baseUrl(ConfigurableApplicationContext context) {
+        return URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+    }
+
+    @Test
+    void replay_RecordedTrafficDrivesAnotherInstance() throws Exception {
+        Path trace = Files.createTempFile("sse", ".trace");
+        try {
+            // Record: three streams, eight publishes, one stream leaving halfway.
+            try (ConfigurableApplicationContext recorded = start("--app.sse.trace.file=" + trace)) {
+                TrafficReplay.run("record", syntheticTraffic(), new TrafficReplay.Options(
+                    baseUrl(recorded), 1.0, Set.of(), Duration.ofMillis(200)));
+            }
+            TrafficTrace.Recording recording = TrafficTrace.read(trace);
+            assertEquals(3, recording.entries().stream().filter(e -> e.kind() == TrafficTrace.Kind.CONNECT).count());
+
+            // Replay what was recorded, twice as fast.
+            try (ConfigurableApplicationContext target = start()) {
+                TrafficReplay.Report report = TrafficReplay.run("replay", recording, new TrafficReplay.Options(
+                    baseUrl(target), 2.0, Set.of("heartbeat", "notification"), Duration.ofMillis(500)));
+                System.out.print(TrafficReplay.table(List.of(report)));
+
+                assertEquals(3, report.connects());
+                assertEquals(0, report.refused() + report.connectFailures() + report.publishFailures());
+                assertEquals(8, report.publishLatency().count());
+                assertTrue(report.deliveryLatency().count() > 0);
+                assertTrue(report.deliveryLatency().count() <= 3 * 8);
+            }
+        } finally {
+            Files.deleteIfExists(trace);
+        }
+    }
+
+    /** The trace a replay of the recording instance's traffic starts from. */
+    private static TrafficTrace.Recording syntheticTraffic() {
+        List<TrafficTrace.Entry> entries = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            entries.add(new TrafficTrace.Entry(i * 10_000L, TrafficTrace.Kind.CONNECT, i,
+                PayloadEncoding.values()[i - 1], 0, null, 0));
+        }
+        for (int i = 0; i < 8; i++) {
+            entries.add(new TrafficTrace.Entry(300_000L + i * 25_000L, TrafficTrace.Kind.PUBLISH, 0, null, 0,
+                "custom", 64 + i * 100));
+            if (i == 4) {
+                entries.add(new TrafficTrace.Entry(300_000L + i * 25_000L + 1, TrafficTrace.Kind.DISCONNECT, 2,
+                    null, 0, null, 0));
+            }
+        }
+        return new TrafficTrace.Recording(0, entries);
+    }
+
+    @Test
+    void replay_TraceAgainstRunningInstance() throws Exception {
+        String file = System.getProperty("sse.replay.trace");
+        assumeTrue(file != null, "gradle replayTraffic -PreplayTrace=<file>");
+        TrafficTrace.Recording recording = TrafficTrace.read(Path.of(file));
+        URI baseUrl = URI.create(System.getProperty("sse.replay.baseUrl", "http://localhost:8080"));
+        Set<String> skip = Arrays.stream(System.getProperty("sse.replay.skip", "heartbeat,notification").split(","))
+            .map(String::trim).filter(name -> !name.isEmpty()).collect(Collectors.toSet());
+        Duration drain = Duration.ofMillis(Long.parseLong(System.getProperty("sse.replay.drainMs", "2000")));
+
+        List<TrafficReplay.Report> reports = new ArrayList<>();
+        for (String speed : System.getProperty("sse.replay.speeds", "1").split(",")) {
+            double factor = Double.parseDouble(speed.trim());
+            reports.add(TrafficReplay.run(Path.of(file).getFileName() + " @" + speed.trim() + "x", recording,
+                new TrafficReplay.Options(baseUrl, factor, skip, drain)));
+        }
+        System.out.print(TrafficReplay.table(reports));
+
+        for (TrafficReplay.Report report : reports) {
+            assertTrue(report.connects() > 0 || recording.entries().isEmpty(), report.label() + ": no stream connected");
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.sseexample.service;
+
+import com.example.sseexample.config.SseProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives the admission checks by hand: injected heap readings and recorded
+ * latencies, one evaluation per simulated interval.
+ */
+class AdaptiveAdmissionTest {
+
+    private static final SseProperties.Admission CONFIG =
+        new SseProperties.Admission(true, 1_000L, 100L, 0.9, 600_000L, 2L, 30L);
+
+    private final AtomicReference<Double> heap = new AtomicReference<>(0.5);
+    private final AdaptiveAdmission admission = new AdaptiveAdmission(CONFIG, heap::get);
+
+    private static long ms(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    @Test
+    void histogram_ReportsTheBucketHoldingThePercentile() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(ms(3));
+        }
+        histogram.record(ms(900));
+
+        assertEquals(4, histogram.drainPercentile(0.99));
+        assertEquals(0, histogram.drainPercentile(0.99), "drained");
+
+        for (int i = 0; i < 98; i++) {
+            histogram.record(ms(3));
+        }
+        histogram.record(ms(900));
+        histogram.record(ms(900));
+        assertEquals(1_024, histogram.drainPercentile(0.99));
+    }
+
+    @Test
+    void evaluate_HealthyWhileEverySignalIsUnderItsLimit() {
+        admission.recordFanOut(ms(200));
+        admission.recordQueueWait(ms(20));
+
+        AdaptiveAdmission.Reading reading = admission.evaluate();
+
+        assertFalse(reading.degraded());
+        assertEquals(0, reading.streak());
+        assertEquals(256, reading.fanOutP99Ms());
+    }
+
+    @Test
+    void evaluate_NamesTheSignalFurthestOverItsLimit() {
+        admission.recordFanOut(ms(1_500));
+        admission.recordQueueWait(ms(700));
+
+        AdaptiveAdmission.Reading reading = admission.evaluate();
+
+        assertTrue(reading.degraded());
+        assertEquals(AdaptiveAdmission.Signal.QUEUE_WAIT, reading.worst());
+        assertEquals(10.24, reading.severity(), 1e-9);
+
+        heap.set(0.95);
+        assertEquals(AdaptiveAdmission.Signal.HEAP, admission.evaluate().worst());
+    }
+
+    @Test
+    void evaluate_RecoversOnTheFirstHealthyInterval() {
+        heap.set(0.95);
+        admission.evaluate();
+        assertEquals(2, admission.evaluate().streak());
+
+        heap.set(0.5);
+
+        assertFalse(admission.evaluate().degraded());
+        assertEquals(0, admission.evaluate().streak());
+    }
+
+    @Test
+    void retryAfter_GrowsWithSeverityAndStreakUpToTheCap() {
+        heap.set(0.99);
+        admission.evaluate();
+        long first = admission.retryAfterSeconds();
+        assertTrue(first >= 3 && first <= 4, "2s x 1.1 severity, rounded up, plus jitter: " + first);
+
+        for (int i = 0; i < 5; i++) {
+            admission.evaluate();
+        }
+        long later = admission.retryAfterSeconds();
+        assertTrue(later >= 14 && later <= 21, "2s x 1.1 x 6 intervals, plus jitter: " + later);
+
+        for (int i = 0; i < 50; i++) {
+            admission.evaluate();
+        }
+        Set<Long> capped = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            capped.add(admission.retryAfterSeconds());
+        }
+        assertTrue(capped.stream().allMatch(s -> s >= 20 && s <= 30), "two thirds of 30s, plus jitter: " + capped);
+        assertTrue(capped.size() > 5, "still spread at the cap: " + capped);
+    }
+
+    @Test
+    void admit_WhileDegraded_RefusesNewStreamsButKeepsOpenOnes() {
+        EventService service = new EventService(SseProperties.defaults().withAdmission(CONFIG), false);
+        try {
+            SseEmitter open = new SseEmitter(60_000L);
+            service.admit(open);
+            AdaptiveAdmission guard = service.admission().orElseThrow();
+            guard.recordFanOut(ms(5_000));
+            guard.evaluate();
+
+            SseCapacityExceededException refused =
+                assertThrows(SseCapacityExceededException.class, () -> service.admit(new SseEmitter(60_000L)));
+
+            assertTrue(refused.retryAfterSeconds() >= 2 && refused.retryAfterSeconds() <= 30);
+            assertTrue(refused.getMessage().contains("fan-out"), refused.getMessage());
+            assertEquals(1, service.connectionCount());
+            assertEquals(1, guard.refusals(AdaptiveAdmission.Signal.FAN_OUT));
+
+            guard.evaluate();
+            service.admit(new SseEmitter(60_000L));
+            assertEquals(2, service.connectionCount());
+        } finally {
+            service.shutdown();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.sseexample.service;
+
+import com.example.sseexample.config.SseProperties;
+import com.example.sseexample.service.BroadcastPoolAutoSizer.Action;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives the pool controller with a fake clock, fake CPU reading and synthetic
+ * delivery samples, so every decision is deterministic.
+ */
+class BroadcastPoolAutoSizerTest {
+
+    // min 1, max 6, target queue wait 50ms, CPU ceiling 0.8, cooldown 10s
+    private static final SseProperties.Autosize CONFIG =
+        new SseProperties.Autosize(true, 1, 6, 50L, 0.8, 1_000L, 10_000L);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger pool = new AtomicInteger(4);
+    private double cpu = 0.2;
+    private BroadcastStats stats;
+    private BroadcastPoolAutoSizer sizer;
+
+    @BeforeEach
+    void setUp() {
+        stats = new BroadcastStats();
+        sizer = new BroadcastPoolAutoSizer(CONFIG, stats, () -> cpu, clock::get, pool::get, pool::set);
+    }
+
+    private void advanceSeconds(long seconds) {
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    private void sends(int count, long queueWaitMs) {
+        for (int i = 0; i < count; i++) {
+            stats.recordQueueWait(TimeUnit.MILLISECONDS.toNanos(queueWaitMs));
+        }
+    }
+
+    @Test
+    void evaluate_SendsQueueingWithCpuHeadroom_GrowsOneThreadAtATime() {
+        sends(100, 200);
+        assertEquals(Action.GROW, sizer.evaluate());
+        assertEquals(5, pool.get());
+
+        advanceSeconds(1);
+        sends(100, 200);
+        assertEquals(Action.HOLD, sizer.evaluate(), "still inside the cooldown");
+        assertEquals(5, pool.get());
+
+        advanceSeconds(10);
+        sends(100, 200);
+        assertEquals(Action.GROW, sizer.evaluate());
+        assertEquals(6, pool.get());
+
+        advanceSeconds(10);
+        sends(100, 200);
+        assertEquals(Action.HOLD, sizer.evaluate(), "already at max-threads");
+        assertEquals(6, pool.get());
+    }
+
+    @Test
+    void evaluate_CpuSaturated_CutsPoolByAQuarterEvenWhileSendsQueue() {
+        pool.set(6);
+        cpu = 0.95;
+        sends(100, 500);
+
+        assertEquals(Action.SHRINK, sizer.evaluate());
+        assertEquals(4, pool.get());
+    }
+
+    @Test
+    void evaluate_IdleWindows_ReturnThreadsDownToMinimumOnly() {
+        for (int expected = 3; expected >= 1; expected--) {
+            assertEquals(Action.SHRINK, sizer.evaluate());
+            assertEquals(expected, pool.get());
+            advanceSeconds(10);
+        }
+
+        assertEquals(Action.HOLD, sizer.evaluate());
+        assertEquals(1, pool.get());
+    }
+
+    @Test
+    void evaluate_SlowConsumersButShortQueueWait_Holds() {
+        // Broadcasts take seconds because consumers block, yet sends start promptly:
+        // more threads would only park on more sockets.
+        stats.recordFanOut(TimeUnit.SECONDS.toNanos(4));
+        sends(100, 20);
+
+        assertEquals(Action.HOLD, sizer.evaluate());
+        assertEquals(4, pool.get());
+        assertEquals(4_000.0, sizer.lastFanOutMs(), 0.001);
+    }
+
+    @Test
+    void evaluate_PoolOutsideBounds_IsClampedDespiteCooldown() {
+        sends(100, 200);
+        sizer.evaluate();
+        pool.set(20); // e.g. raised by hand through /actuator/sselimits
+
+        advanceSeconds(1);
+        sends(100, 30);
+        assertEquals(Action.SHRINK, sizer.evaluate());
+        assertEquals(6, pool.get());
+    }
+
+    @Test
+    void evaluate_UnknownCpuLoad_DoesNotBlockGrowth() {
+        cpu = -1;
+        sends(10, 200);
+
+        assertEquals(Action.GROW, sizer.evaluate());
+    }
+
+    @Test
+    void decisions_AreCountedPerAction() {
+        sends(10, 200);
+        sizer.evaluate();
+        sizer.evaluate();
+
+        assertEquals(1, sizer.decisions(Action.GROW));
+        assertEquals(1, sizer.decisions(Action.HOLD));
+        assertEquals(0, sizer.decisions(Action.SHRINK));
+    }
+
+    @Test
+    void eventService_WithAutosizeEnabled_ExposesController() {
+        EventService adaptive = new EventService(SseProperties.defaults().withAutosize(CONFIG), false);
+        EventService fixed = new EventService(SseProperties.defaults(), false);
+
+        assertTrue(adaptive.autoSizer().isPresent());
+        assertTrue(fixed.autoSizer().isEmpty());
+        adaptive.shutdown();
+        fixed.shutdown();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.sseexample.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BroadcastSequencerTest {
+
+    /** Claims, renders and enqueues the way EventService#broadcastEvent does. */
+    private static void broadcast(BroadcastSequencer sequencer, Runnable render, List<Long> enqueued) {
+        long sequence = sequencer.claim();
+        try {
+            render.run();
+            sequencer.awaitTurn(sequence);
+            enqueued.add(sequence);
+        } finally {
+            sequencer.release(sequence);
+        }
+    }
+
+    private static void awaitParked(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.WAITING) {
+            assertTrue(System.nanoTime() < deadline, "still " + thread.getState());
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void broadcast_WhoseRenderThrows_StillReleasesItsTurn() throws Exception {
+        BroadcastSequencer sequencer = new BroadcastSequencer();
+        List<Long> enqueued = new CopyOnWriteArrayList<>();
+
+        assertThrows(IllegalStateException.class, () -> broadcast(sequencer, () -> {
+            throw new IllegalStateException("render failed");
+        }, enqueued));
+        Thread next = new Thread(() -> broadcast(sequencer, () -> { }, enqueued));
+        next.start();
+        next.join(5_000);
+
+        assertFalse(next.isAlive(), "a failed broadcast must not stall the next one");
+        assertEquals(List.of(2L), enqueued);
+        assertEquals(2, sequencer.lastReleased());
+    }
+
+    @Test
+    void awaitTurn_BehindAHeldTurn_ParksUntilReleased() throws Exception {
+        BroadcastSequencer sequencer = new BroadcastSequencer();
+        List<Long> enqueued = new CopyOnWriteArrayList<>();
+        long held = sequencer.claim();
+        List<Thread> waiting = List.of(
+            new Thread(() -> broadcast(sequencer, () -> { }, enqueued)),
+            new Thread(() -> broadcast(sequencer, () -> { }, enqueued)));
+        for (Thread thread : waiting) {
+            thread.start();
+            awaitParked(thread);
+        }
+        assertTrue(enqueued.isEmpty());
+
+        sequencer.release(held);
+        for (Thread thread : waiting) {
+            thread.join(5_000);
+        }
+
+        assertEquals(List.of(2L, 3L), enqueued);
+        assertEquals(3, sequencer.lastReleased());
+    }
+}
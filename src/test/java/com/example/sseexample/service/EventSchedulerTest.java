@@ -0,0 +1,160 @@
+package com.example.sseexample.service;
+
+import com.example.sseexample.config.SseProperties;
+import com.example.sseexample.config.SseProperties.Schedule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Scheduled jobs must never bunch up behind a slow broadcast: late ticks are
+ * coalesced, and one job's stalled fan-out does not delay another job.
+ */
+class EventSchedulerTest {
+
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+    private EventScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        ticker.shutdownNow();
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private static Schedule every(long periodMs, String... messages) {
+        return new Schedule(true, null, periodMs, 0L, 0L, List.of(messages), Schedule.Selection.ROUND_ROBIN);
+    }
+
+    private EventScheduler start(Map<String, Schedule> schedules, BiConsumer<String, String> broadcaster) {
+        scheduler = new EventScheduler(ticker, SseProperties.defaults().withSchedules(schedules).schedules(),
+            broadcaster, Executors.defaultThreadFactory());
+        scheduler.start();
+        return scheduler;
+    }
+
+    @Test
+    void tick_WhileBroadcastStillRunning_IsCoalescedNotQueued() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger started = new AtomicInteger();
+        List<Long> finishedAt = new CopyOnWriteArrayList<>();
+        start(Map.of("slow", every(10L, "x")), (event, message) -> {
+            if (started.incrementAndGet() == 1) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            finishedAt.add(System.nanoTime());
+        });
+
+        Thread.sleep(200);
+        assertEquals(1, started.get(), "ticks must not start a second broadcast while one is running");
+        ScheduledJob job = scheduler.jobs().get(0);
+        assertTrue(job.coalescedTicks() >= 10, "coalesced " + job.coalescedTicks());
+
+        release.countDown();
+        Thread.sleep(100);
+        // Roughly one run per period after release, not a burst of the ~20 missed ticks.
+        long burst = finishedAt.stream().filter(t -> t - finishedAt.get(0) < TimeUnit.MILLISECONDS.toNanos(5)).count();
+        assertTrue(burst <= 2, burst + " broadcasts fired back-to-back after release");
+    }
+
+    @Test
+    void stalledJob_DoesNotDelayOtherJobs() throws Exception {
+        CountDownLatch never = new CountDownLatch(1);
+        AtomicInteger fastRuns = new AtomicInteger();
+        start(Map.of("stalled", every(10L, "x"), "fast", every(10L, "y")), (event, message) -> {
+            if (event.equals("stalled")) {
+                try {
+                    never.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            } else {
+                fastRuns.incrementAndGet();
+            }
+        });
+
+        Thread.sleep(200);
+
+        assertTrue(fastRuns.get() >= 10, "fast job ran only " + fastRuns.get() + " times");
+    }
+
+    @Test
+    void job_PublishesUnderItsNameAndCyclesMessagesInRoundRobin() throws Exception {
+        List<String> published = new CopyOnWriteArrayList<>();
+        CountDownLatch three = new CountDownLatch(3);
+        start(Map.of("ticker", every(10L, "a", "b")), (event, message) -> {
+            published.add(event + ":" + message);
+            three.countDown();
+        });
+
+        assertTrue(three.await(5, TimeUnit.SECONDS));
+
+        assertEquals(List.of("ticker:a", "ticker:b", "ticker:a"), published.subList(0, 3));
+    }
+
+    @Test
+    void job_WhoseBroadcastThrows_CountsTheFailureAndKeepsTicking() throws Exception {
+        CountDownLatch three = new CountDownLatch(3);
+        start(Map.of("failing", every(10L, "x")), (event, message) -> {
+            three.countDown();
+            throw new IllegalStateException("fan-out rejected");
+        });
+
+        assertTrue(three.await(5, TimeUnit.SECONDS));
+
+        ScheduledJob job = scheduler.jobs().get(0);
+        assertTrue(job.failedRuns() >= 2, "failed " + job.failedRuns());
+    }
+
+    @Test
+    void disabledJob_IsNotScheduled() {
+        Schedule off = new Schedule(false, "off", 10L, 0L, 0L, List.of("x"), Schedule.Selection.RANDOM);
+
+        start(Map.of("off", off), (event, message) -> fail("disabled job ran"));
+
+        assertTrue(scheduler.jobs().isEmpty());
+    }
+
+    @Test
+    void properties_BindSchedulesAndFallBackToDefaults() {
+        Map<String, String> source = Map.of(
+            "app.sse.schedules.prices.period-ms", "1000",
+            "app.sse.schedules.prices.jitter-ms", "100",
+            "app.sse.schedules.prices.messages[0]", "{\"symbol\":\"ACME\"}",
+            "app.sse.schedules.prices.selection", "round-robin");
+
+        SseProperties bound = new Binder(new MapConfigurationPropertySource(source))
+            .bind("app.sse", SseProperties.class).get();
+
+        Schedule prices = bound.schedules().get("prices");
+        assertEquals("prices", prices.event());
+        assertEquals(Schedule.Selection.ROUND_ROBIN, prices.selection());
+        assertEquals(100L, prices.jitterMs());
+        assertEquals(Map.of("prices", prices), bound.schedules());
+        assertEquals(Schedule.defaults(), SseProperties.defaults().schedules());
+    }
+
+    @Test
+    void schedule_JitterNotBelowPeriod_IsRejected() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new Schedule(true, "x", 100L, 0L, 100L, List.of("x"), Schedule.Selection.RANDOM));
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.sseexample.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Covers connection introspection: stable id-keyed paging, per-stream counters
+ * and operator eviction.
+ */
+class EventServiceConnectionsTest {
+
+    private final EventService service = new EventService(false);
+
+    private static class CountingEmitter extends SseEmitter {
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        CountingEmitter() {
+            super(60_000L);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+        }
+
+        @Override
+        public void complete() {
+            completed.set(true);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        service.shutdown();
+    }
+
+    private List<Long> admit(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(service.admit(new CountingEmitter()).id());
+        }
+        return ids;
+    }
+
+    @Test
+    void connections_PagesByIdCursorInAdmissionOrder() {
+        List<Long> ids = admit(5);
+
+        ConnectionPage first = service.connections(0, 2);
+        ConnectionPage second = service.connections(first.nextAfter(), 2);
+        // A stream closing between pages must not shift the next page.
+        service.evict(ids.get(0));
+        ConnectionPage last = service.connections(second.nextAfter(), 2);
+
+        assertEquals(5, first.total());
+        assertEquals(ids.subList(0, 2), first.connections().stream().map(ConnectionInfo::id).toList());
+        assertEquals(ids.subList(2, 4), second.connections().stream().map(ConnectionInfo::id).toList());
+        assertEquals(List.of(ids.get(4)), last.connections().stream().map(ConnectionInfo::id).toList());
+        assertNull(last.nextAfter());
+        assertEquals(4, last.total());
+    }
+
+    @Test
+    void connection_ReportsClientAndDeliveryCounters() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("203.0.113.7");
+        request.addHeader("User-Agent", "curl/8.5 " + "x".repeat(400));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        long id = service.admit(new CountingEmitter(), StreamOptions.parse("compact", "event==custom")).id();
+        RequestContextHolder.resetRequestAttributes();
+
+        ConnectionInfo before = service.connection(id).orElseThrow();
+        service.broadcastEvent("custom", "one");
+        service.broadcastEvent("custom", "two");
+        service.broadcastEvent("notification", "filtered out");
+        ConnectionInfo after = service.connection(id).orElseThrow();
+
+        assertEquals("203.0.113.7", after.remoteAddress());
+        assertEquals(ClientInfo.MAX_USER_AGENT_LENGTH, after.userAgent().length());
+        assertTrue(after.userAgent().startsWith("curl/8.5"));
+        assertEquals("compact", after.encoding());
+        assertEquals("event==custom", after.filter());
+        assertNull(before.lastWriteAt());
+        assertEquals(0, before.framesSent());
+        assertEquals(2, after.framesSent());
+        assertTrue(after.bytesSent() > 0);
+        assertNotNull(after.lastWriteAt());
+        assertEquals(0, after.queuedFrames());
+    }
+
+    @Test
+    void connection_OffRequestThread_HasNoClientInfo() {
+        long id = admit(1).get(0);
+
+        ConnectionInfo info = service.connection(id).orElseThrow();
+
+        assertNull(info.remoteAddress());
+        assertNull(info.userAgent());
+    }
+
+    @Test
+    void evict_ClosesTheStreamAndForgetsIt() {
+        CountingEmitter emitter = new CountingEmitter();
+        long id = service.admit(emitter).id();
+
+        assertTrue(service.evict(id));
+
+        assertTrue(emitter.completed.get());
+        assertTrue(service.connection(id).isEmpty());
+        assertEquals(0, service.connectionCount());
+        assertFalse(service.evict(id), "a second eviction finds nothing");
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.sseexample.service;
+
+import com.example.sseexample.config.SseProperties;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The Flight Recorder events must describe what the delivery path actually did,
+ * with connection ids that tie a stream's admission to its sends and its drop.
+ */
+class EventServiceDiagnosticsTest {
+
+    /** Emitter whose send blocks until released; interrupts are ignored as on a full socket. */
+    private static class BlockingEmitter extends SseEmitter {
+        private final CountDownLatch release;
+
+        BlockingEmitter(CountDownLatch release) {
+            super(60_000L);
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (System.nanoTime() < deadline) {
+                try {
+                    if (release.await(20, TimeUnit.MILLISECONDS)) {
+                        break;
+                    }
+                } catch (InterruptedException ignored) {
+                    // A blocked socket write does not honour interrupts either.
+                }
+            }
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            // No async request bound in a unit test.
+        }
+    }
+
+    private static class FastEmitter extends SseEmitter {
+        FastEmitter() {
+            super(60_000L);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+        }
+    }
+
+    private static List<RecordedEvent> record(Runnable workload) throws Exception {
+        Path file = Files.createTempFile("sse-test-", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : new String[] {"Admission", "Broadcast", "Send", "Drop", "ExecutorSaturation"}) {
+                recording.enable(SseEvents.PREFIX + name).withoutThreshold();
+            }
+            recording.start();
+            workload.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals(SseEvents.PREFIX + name)).toList();
+    }
+
+    @Test
+    void recording_CapturesAdmissionBroadcastSendAndDrop() throws Exception {
+        EventService service = new EventService(new SseProperties(10, 300_000L, 100L, 4), false);
+        CountDownLatch release = new CountDownLatch(1);
+        long[] ids = new long[2];
+
+        List<RecordedEvent> events = record(() -> {
+            ids[0] = service.admit(new BlockingEmitter(release)).id();
+            ids[1] = service.admit(new FastEmitter()).id();
+            service.broadcastEvent("custom", "payload");
+        });
+        release.countDown();
+        service.shutdown();
+
+        List<RecordedEvent> admissions = ofType(events, "Admission");
+        assertEquals(2, admissions.size());
+        assertTrue(admissions.stream().allMatch(e -> e.getBoolean("accepted")));
+
+        RecordedEvent broadcast = ofType(events, "Broadcast").get(0);
+        assertEquals("custom", broadcast.getString("eventName"));
+        assertEquals(2, broadcast.getInt("targets"));
+        assertEquals(1, broadcast.getInt("encodings"));
+
+        // The stalled send is still blocked when the recording stops.
+        RecordedEvent send = ofType(events, "Send").get(0);
+        assertEquals(ids[1], send.getLong("connectionId"));
+        assertFalse(send.getBoolean("failed"));
+
+        RecordedEvent drop = ofType(events, "Drop").get(0);
+        assertEquals(ids[0], drop.getLong("connectionId"));
+        assertEquals("send-timeout", drop.getString("reason"));
+    }
+
+    @Test
+    void recording_CapturesRefusedAdmission() throws Exception {
+        EventService service = new EventService(new SseProperties(1, 300_000L, 100L, 1), false);
+
+        List<RecordedEvent> events = record(() -> {
+            service.admit(new FastEmitter());
+            assertThrows(SseCapacityExceededException.class, () -> service.admit(new FastEmitter()));
+        });
+        service.shutdown();
+
+        RecordedEvent refused = ofType(events, "Admission").get(1);
+        assertFalse(refused.getBoolean("accepted"));
+        assertEquals(1, refused.getInt("maxConnections"));
+    }
+
+    @Test
+    void flightRecording_WhenEnabled_DumpsSseEvents() throws Exception {
+        SseProperties properties = SseProperties.defaults()
+            .withDiagnostics(new SseProperties.Diagnostics(true, 0L, 100L, 60_000L, 8L * 1024 * 1024, false));
+        SseFlightRecording recording = new SseFlightRecording(properties);
+        EventService service = new EventService(properties, false);
+        try {
+            service.admit(new FastEmitter());
+            Optional<Path> dump = recording.dump();
+
+            assertTrue(dump.isPresent());
+            try {
+                assertFalse(ofType(RecordingFile.readAllEvents(dump.get()), "Admission").isEmpty());
+            } finally {
+                Files.deleteIfExists(dump.get());
+            }
+        } finally {
+            service.shutdown();
+            recording.close();
+        }
+    }
+
+    @Test
+    void flightRecording_WhenDisabled_HasNothingToDump() throws Exception {
+        SseFlightRecording recording = new SseFlightRecording(SseProperties.defaults());
+
+        assertFalse(recording.isRecording());
+        assertTrue(recording.dump().isEmpty());
+    }
+}
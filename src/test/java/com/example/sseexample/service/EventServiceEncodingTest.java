@@ -0,0 +1,102 @@
+package com.example.sseexample.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Covers negotiated payload encodings: each subscriber gets its own format, and a
+ * broadcast is encoded once per format in use rather than once per subscriber.
+ */
+class EventServiceEncodingTest {
+
+    private final EventService service = new EventService(false);
+
+    /** Records the builder instances it is handed and their data lines. */
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<SseEventBuilder> builders = new CopyOnWriteArrayList<>();
+
+        RecordingEmitter() {
+            super(60_000L);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            builders.add(builder);
+        }
+
+        String data() {
+            String text = SseWire.text(builders.get(0));
+            return text.substring(text.indexOf("data:") + "data:".length()).trim();
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void broadcastEvent_EachSubscriberReceivesItsEncoding() throws Exception {
+        RecordingEmitter json = new RecordingEmitter();
+        RecordingEmitter compact = new RecordingEmitter();
+        RecordingEmitter cbor = new RecordingEmitter();
+        service.admit(json, PayloadEncoding.JSON);
+        service.admit(compact, PayloadEncoding.COMPACT);
+        service.admit(cbor, PayloadEncoding.CBOR);
+
+        service.broadcastEvent("custom", "{\"price\":101.25,\"qty\":3}");
+
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode verbose = mapper.readTree(json.data());
+        assertEquals("{\"price\":101.25,\"qty\":3}", verbose.get("message").asText());
+        assertTrue(verbose.has("timestamp"));
+
+        JsonNode shortForm = mapper.readTree(compact.data());
+        assertEquals(101.25, shortForm.get("m").get("price").asDouble());
+        assertTrue(shortForm.get("t").isNumber());
+
+        JsonNode binary = new CBORMapper().readTree(Base64.getDecoder().decode(cbor.data()));
+        assertEquals(shortForm, binary);
+    }
+
+    @Test
+    void broadcastEvent_EncodesOncePerEncodingInUse() {
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        RecordingEmitter other = new RecordingEmitter();
+        service.admit(first, PayloadEncoding.COMPACT);
+        service.admit(second, PayloadEncoding.COMPACT);
+        service.admit(other, PayloadEncoding.JSON);
+
+        service.broadcastEvent("custom", "shared");
+
+        assertSame(first.builders.get(0), second.builders.get(0));
+        assertNotSame(first.builders.get(0), other.builders.get(0));
+    }
+
+    @Test
+    void compact_PlainTextMessage_StaysAString() throws Exception {
+        RecordingEmitter compact = new RecordingEmitter();
+        service.admit(compact, PayloadEncoding.COMPACT);
+
+        service.broadcastEvent("custom", "not json at all");
+
+        assertEquals("not json at all", new ObjectMapper().readTree(compact.data()).get("m").asText());
+    }
+
+    @Test
+    void fromToken_UnknownEncoding_IsRejected() {
+        assertEquals(PayloadEncoding.CBOR, PayloadEncoding.fromToken("CBOR"));
+        assertThrows(IllegalArgumentException.class, () -> PayloadEncoding.fromToken("xml"));
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.sseexample.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Covers server-side filters: subscribers receive only matching events, control
+ * events still get through, and identical filters are shared rather than repeated.
+ */
+class EventServiceFilterTest {
+
+    private final EventService service = new EventService(false);
+
+    /** Records the event name of every send. */
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> names = new CopyOnWriteArrayList<>();
+
+        RecordingEmitter() {
+            super(60_000L);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            String head = SseWire.text(builder);
+            names.add(head.substring("event:".length(), head.indexOf('\n')));
+        }
+    }
+
+    private RecordingEmitter subscribe(String filter) {
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.admit(emitter, StreamOptions.parse(null, filter));
+        return emitter;
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void broadcastEvent_DeliversOnlyMatchingEvents() {
+        RecordingEmitter customOnly = subscribe("event==custom");
+        RecordingEmitter everything = new RecordingEmitter();
+        service.admit(everything);
+
+        service.broadcastEvent("notification", "New user registered");
+        service.broadcastEvent("custom", "hello");
+
+        assertEquals(List.of("custom"), customOnly.names);
+        assertEquals(List.of("notification", "custom"), everything.names);
+    }
+
+    @Test
+    void broadcastEvent_MatchesMessagePrefixAndJsonFields() {
+        RecordingEmitter orders = subscribe("message^=Order");
+        RecordingEmitter acme = subscribe("event==custom && message.symbol=='ACME'");
+
+        service.broadcastEvent("notification", "Order processed successfully");
+        service.broadcastEvent("notification", "Database backup completed");
+        service.broadcastEvent("custom", "{\"symbol\":\"ACME\",\"bid\":1.5}");
+        service.broadcastEvent("custom", "{\"symbol\":\"INIT\",\"bid\":2.5}");
+
+        assertEquals(List.of("notification"), orders.names);
+        assertEquals(List.of("custom"), acme.names);
+    }
+
+    @Test
+    void broadcastEvent_ControlEventsBypassFilters() {
+        RecordingEmitter filtered = subscribe("event==custom");
+
+        service.broadcastEvent("heartbeat", "Server heartbeat");
+
+        assertEquals(List.of("heartbeat"), filtered.names);
+    }
+
+    @Test
+    void admit_IdenticalFilters_ShareOneInstanceUntilLastSubscriberLeaves() {
+        RecordingEmitter first = subscribe("event==custom && message^=a");
+        RecordingEmitter second = subscribe("message ^= a&&event == custom");
+        RecordingEmitter other = subscribe("event!=custom");
+
+        assertEquals(2, service.distinctFilters());
+        service.releaseEmitter(first);
+        service.releaseEmitter(other);
+        assertEquals(1, service.distinctFilters());
+        service.releaseEmitter(second);
+        assertEquals(0, service.distinctFilters());
+    }
+
+    @Test
+    void compile_NormalizesAndRejectsMalformedExpressions() {
+        assertEquals(EventFilter.compile("event==a && message^=\"b\""), EventFilter.compile("message^=b&&event==a"));
+        assertThrows(IllegalArgumentException.class, () -> EventFilter.compile("event"));
+        assertThrows(IllegalArgumentException.class, () -> EventFilter.compile("payload==x"));
+        assertThrows(IllegalArgumentException.class, () -> EventFilter.compile("message..a==x"));
+        assertThrows(IllegalArgumentException.class, () -> EventFilter.compile("event==a&&".repeat(9) + "event==a"));
+    }
+}
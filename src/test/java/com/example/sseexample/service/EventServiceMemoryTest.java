@@ -0,0 +1,166 @@
+package com.example.sseexample.service;
+
+import com.example.sseexample.config.SseProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Covers per-connection memory accounting and the shared, pre-rendered frame that
+ * replaced a builder per subscriber per broadcast.
+ */
+class EventServiceMemoryTest {
+
+    /** Records the builder instance each send was handed. */
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<SseEventBuilder> received = new CopyOnWriteArrayList<>();
+
+        RecordingEmitter() {
+            super(60_000L);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            received.add(builder);
+        }
+    }
+
+    /** Emitter whose send parks until released, so a send can be observed in flight. */
+    private static class ParkedEmitter extends SseEmitter {
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        ParkedEmitter() {
+            super(60_000L);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Test
+    void broadcastEvent_SharesOneRenderedFrameAcrossSubscribers() {
+        EventService service = new EventService(SseProperties.defaults(), false);
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        service.admit(first);
+        service.admit(second);
+
+        service.broadcastEvent("test", "payload");
+
+        assertEquals(1, first.received.size());
+        assertSame(first.received.get(0), second.received.get(0));
+        String wire = SseWire.text(first.received.get(0));
+        assertTrue(wire.startsWith("event:test\nid:1\ndata:"), wire);
+        service.shutdown();
+    }
+
+    @Test
+    void memoryReport_ScalesBaselineByConnectionCount() {
+        EventService service = new EventService(SseProperties.defaults(), false);
+        service.createEventStream();
+        service.createEventStream();
+        service.createEventStream();
+
+        ConnectionMemoryReport report = service.memoryReport();
+
+        assertEquals(3, report.connections());
+        assertEquals(3 * report.perConnection().total(), report.estimatedTotalBytes());
+        assertEquals(0, report.pendingSends());
+        assertTrue(report.heapMaxBytes() > 0);
+        service.shutdown();
+    }
+
+    @Test
+    void memoryReport_SmallerConnectorBuffers_LowerTheBaseline() {
+        SseProperties.Connector lean = new SseProperties.Connector(
+            50, 10, 2000, 100, 15_000L, 2048, 4096, 2048, false, 200);
+        EventService defaults = new EventService(SseProperties.defaults(), false);
+        EventService tuned = new EventService(SseProperties.defaults().withConnector(lean), false);
+
+        assertTrue(tuned.memoryReport().perConnection().total()
+            < defaults.memoryReport().perConnection().total());
+        defaults.shutdown();
+        tuned.shutdown();
+    }
+
+    @Test
+    void memoryReport_CountsSendsInFlightAndSettlesAfterwards() throws Exception {
+        EventService service = new EventService(SseProperties.defaults(), false);
+        ParkedEmitter parked = new ParkedEmitter();
+        service.admit(parked);
+
+        Thread publisher = new Thread(() -> service.broadcastEvent("test", "payload"));
+        publisher.start();
+        assertTrue(parked.entered.await(5, TimeUnit.SECONDS));
+
+        ConnectionMemoryReport during = service.memoryReport();
+        assertEquals(1, during.pendingSends());
+        assertTrue(during.inFlightFrameBytes() > 0);
+        assertTrue(during.maxConnectionBytes() > during.perConnection().total());
+
+        parked.release.countDown();
+        publisher.join(5_000);
+        ConnectionMemoryReport after = service.memoryReport();
+        assertEquals(0, after.pendingSends());
+        assertEquals(0, after.inFlightFrameBytes());
+        service.shutdown();
+    }
+
+    @Test
+    void broadcastEvent_EncodesTheFrameOnceIntoOneSharedArray() {
+        EventService service = new EventService(SseProperties.defaults(), false);
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        service.admit(first);
+        service.admit(second);
+
+        service.broadcastEvent("test", "caf\u00e9");
+
+        Set<SseEmitter.DataWithMediaType> parts = first.received.get(0).build();
+        assertEquals(1, parts.size());
+        byte[] wire = assertInstanceOf(byte[].class, parts.iterator().next().getData());
+        assertSame(wire, second.received.get(0).build().iterator().next().getData());
+        assertEquals(wire.length, ((SseFrame) first.received.get(0)).sizeBytes());
+        service.shutdown();
+    }
+
+    @Test
+    void broadcastEvent_OverMaxEventBytes_IsRefusedBeforeRendering() {
+        EventService service = new EventService(
+            SseProperties.defaults().withPublish(new SseProperties.Publish(1024)), false);
+        RecordingEmitter subscriber = new RecordingEmitter();
+        service.admit(subscriber);
+
+        // Two bytes per char in UTF-8: 512 fit exactly, 513 do not.
+        service.broadcastEvent("test", "\u00e9".repeat(512));
+        assertThrows(EventTooLargeException.class, () -> service.broadcastEvent("test", "\u00e9".repeat(513)));
+
+        assertEquals(1, subscriber.received.size());
+        assertEquals(1, service.oversizedPublishes());
+        assertEquals(0, service.memoryReport().inFlightFrameBytes());
+        service.shutdown();
+    }
+
+    @Test
+    void utf8Length_MatchesEncodedLength() {
+        String text = "a\u00e9\u20ac\ud83d\ude00\ud800z";
+
+        assertEquals(text.getBytes(StandardCharsets.UTF_8).length, SseFrame.utf8Length(text));
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.sseexample.service;
+
+import com.example.sseexample.config.SseProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Covers multiplexed streams: each event is sent once per stream, tagged with the
+ * subscriptions it matched, and subscriptions come and go without reconnecting.
+ */
+class EventServiceMultiplexTest {
+
+    private final EventService service = new EventService(
+        SseProperties.defaults().withMultiplex(new SseProperties.Multiplex(3)), false);
+
+    /** Records every send, and the id line of each. */
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<SseEventBuilder> builders = new CopyOnWriteArrayList<>();
+        private final List<String> ids = new CopyOnWriteArrayList<>();
+
+        RecordingEmitter() {
+            super(60_000L);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            builders.add(builder);
+            String text = SseWire.text(builder);
+            int id = text.indexOf("id:");
+            ids.add(id < 0 ? null : text.substring(id + "id:".length(), text.indexOf('\n', id)));
+        }
+    }
+
+    private String multiplex(RecordingEmitter emitter, String... subscriptions) {
+        Subscriptions mux = new Subscriptions("key-" + System.identityHashCode(emitter), 3);
+        service.admit(emitter, StreamOptions.DEFAULT, ClientInfo.current(), mux);
+        for (String spec : subscriptions) {
+            Subscriptions.Subscription subscription = Subscriptions.Subscription.parse(spec);
+            assertTrue(service.subscribe(mux.key(), subscription.id(),
+                subscription.filter() == null ? null : subscription.filter().expression()));
+        }
+        return mux.key();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void broadcastEvent_SendsOnceTaggedWithEveryMatchingSubscription() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        multiplex(emitter, "prices:event==custom", "all", "orders:message^=Order");
+
+        service.broadcastEvent("custom", "{\"symbol\":\"ACME\"}");
+        service.broadcastEvent("notification", "Order processed successfully");
+        service.broadcastEvent("notification", "Database backup completed");
+
+        assertEquals(3, emitter.ids.size());
+        assertTrue(emitter.ids.get(0).endsWith(";all,prices"), emitter.ids.get(0));
+        assertTrue(emitter.ids.get(1).endsWith(";all,orders"), emitter.ids.get(1));
+        assertTrue(emitter.ids.get(2).endsWith(";all"), emitter.ids.get(2));
+    }
+
+    @Test
+    void broadcastEvent_ControlEventsGoOutUntagged() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        multiplex(emitter, "prices:event==custom");
+
+        service.broadcastEvent("heartbeat", "Server heartbeat");
+
+        assertEquals(1, emitter.ids.size());
+        assertFalse(emitter.ids.get(0).contains(";"), emitter.ids.get(0));
+    }
+
+    @Test
+    void broadcastEvent_StreamsWithTheSameMatchesShareOneFrame() {
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        RecordingEmitter other = new RecordingEmitter();
+        multiplex(first, "prices:event==custom");
+        multiplex(second, "prices:event=='custom'");
+        multiplex(other, "everything");
+
+        service.broadcastEvent("custom", "hello");
+
+        assertSame(first.builders.get(0), second.builders.get(0));
+        assertNotSame(first.builders.get(0), other.builders.get(0));
+        assertEquals(1, service.distinctFilters());
+    }
+
+    @Test
+    void subscriptions_ChangeWithoutReconnecting() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        String key = multiplex(emitter, "prices:event==custom");
+
+        service.broadcastEvent("notification", "New user registered");
+        assertTrue(service.subscribe(key, "alerts", "event==notification"));
+        service.broadcastEvent("notification", "New user registered");
+        assertTrue(service.unsubscribe(key, "alerts"));
+        assertFalse(service.unsubscribe(key, "alerts"));
+        service.broadcastEvent("notification", "New user registered");
+
+        assertEquals(1, emitter.ids.size());
+        assertTrue(emitter.ids.get(0).endsWith(";alerts"));
+        assertEquals(1, service.multiplexedSubscriptions());
+    }
+
+    @Test
+    void subscribe_EnforcesLimitsAndUnknownStreams() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        String key = multiplex(emitter, "a", "b", "c");
+
+        assertThrows(IllegalArgumentException.class, () -> service.subscribe(key, "d", null));
+        assertTrue(service.subscribe(key, "c", "event==custom"), "replacing does not count against the limit");
+        assertThrows(IllegalArgumentException.class, () -> service.subscribe(key, "bad id", null));
+        assertThrows(IllegalArgumentException.class, () -> service.subscribe(key, "e", "payload==x"));
+        assertFalse(service.subscribe("unknown", "a", null));
+        assertEquals(1, service.distinctFilters());
+    }
+
+    @Test
+    void release_DropsTheStreamAndItsFilters() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        String key = multiplex(emitter, "prices:event==custom", "orders:message^=Order");
+        assertEquals(2, service.distinctFilters());
+
+        service.releaseEmitter(emitter);
+
+        assertEquals(0, service.distinctFilters());
+        assertEquals(0, service.multiplexedSubscriptions());
+        assertFalse(service.subscribe(key, "late", "event==custom"));
+        assertEquals(0, service.distinctFilters());
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.sseexample.service;
+
+import com.example.sseexample.config.EventPriority;
+import com.example.sseexample.config.SseProperties;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Per-subscriber ordering under concurrent publishers. Each trial draws a random
+ * mix of publishers, event classes, filters and ordered or priority streams from a
+ * seed reported on failure, and checks the properties every subscriber must see:
+ * ascending sequence ids (per class, or overall on ordered streams), each
+ * publisher's events in the order it published them, no loss, and never two sends
+ * at once on one emitter.
+ */
+class EventServiceOrderingTest {
+
+    private static final Pattern ID = Pattern.compile("(?m)^id:(\\d+)$");
+    private static final Pattern EVENT = Pattern.compile("(?m)^event:(\\S+)$");
+    private static final Pattern MESSAGE = Pattern.compile("\"message\":\"([^\"]*)\"");
+    private static final String[] NAMES = {"heartbeat", "custom", "report"};
+    private static final String[] FILTERS = {null, "event==custom", "message^=p0-"};
+
+    private record Received(long id, String event, String message) {
+    }
+
+    /** Records what each send carried and whether sends ever overlapped. */
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<Received> received = new CopyOnWriteArrayList<>();
+        private final AtomicInteger inSend = new AtomicInteger();
+        private volatile boolean overlapped;
+
+        RecordingEmitter() {
+            super(60_000L);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            if (inSend.incrementAndGet() > 1) {
+                overlapped = true;
+            }
+            try {
+                String frame = SseWire.text(builder);
+                received.add(new Received(Long.parseLong(find(ID, frame)), find(EVENT, frame), find(MESSAGE, frame)));
+                // Send-side jitter only; the trial itself is driven by its seed.
+                if (ThreadLocalRandom.current().nextBoolean()) {
+                    Thread.yield();
+                }
+            } finally {
+                inSend.decrementAndGet();
+            }
+        }
+
+        private static String find(Pattern pattern, CharSequence frame) {
+            Matcher matcher = pattern.matcher(frame);
+            assertTrue(matcher.find(), "missing " + pattern + " in " + frame);
+            return matcher.group(1);
+        }
+    }
+
+    private static SseProperties props() {
+        SseProperties defaults = new SseProperties(50, 300_000L, 10_000L, 4);
+        SseProperties.Priority priority = defaults.priority();
+        return defaults.withPriority(new SseProperties.Priority(Map.of("report", EventPriority.BULK),
+            priority.defaultPriority(), priority.realtimeWeight(), priority.bulkWeight(), priority.maxFramesPerTurn()));
+    }
+
+    @RepeatedTest(20)
+    void concurrentPublishers_EverySubscriberSeesPublishOrder() throws Exception {
+        long seed = new Random().nextLong();
+        Random random = new Random(seed);
+        EventService service = new EventService(props(), false);
+        try {
+            int subscriberCount = 2 + random.nextInt(6);
+            List<RecordingEmitter> emitters = new ArrayList<>();
+            List<StreamOptions> options = new ArrayList<>();
+            for (int i = 0; i < subscriberCount; i++) {
+                StreamOptions streamOptions = StreamOptions.parse(null,
+                    FILTERS[random.nextInt(FILTERS.length)], random.nextBoolean());
+                RecordingEmitter emitter = new RecordingEmitter();
+                service.admit(emitter, streamOptions);
+                emitters.add(emitter);
+                options.add(streamOptions);
+            }
+
+            int publisherCount = 2 + random.nextInt(5);
+            List<List<String[]>> plans = new ArrayList<>();
+            for (int p = 0; p < publisherCount; p++) {
+                List<String[]> plan = new ArrayList<>();
+                int events = 20 + random.nextInt(60);
+                for (int n = 0; n < events; n++) {
+                    plan.add(new String[] {NAMES[random.nextInt(NAMES.length)], "p" + p + "-" + n});
+                }
+                plans.add(plan);
+            }
+
+            CountDownLatch go = new CountDownLatch(1);
+            List<Thread> publishers = new ArrayList<>();
+            for (List<String[]> plan : plans) {
+                Thread publisher = new Thread(() -> {
+                    try {
+                        go.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (String[] event : plan) {
+                        service.broadcastEvent(event[0], event[1]);
+                    }
+                });
+                publisher.start();
+                publishers.add(publisher);
+            }
+            go.countDown();
+            for (Thread publisher : publishers) {
+                publisher.join(30_000);
+            }
+
+            for (int i = 0; i < subscriberCount; i++) {
+                String context = "seed " + seed + ", subscriber " + i + " " + options.get(i);
+                assertSubscriberOrder(emitters.get(i), options.get(i), plans, context);
+            }
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private static void assertSubscriberOrder(RecordingEmitter emitter, StreamOptions options,
+                                              List<List<String[]>> plans, String context) {
+        assertFalse(emitter.overlapped, "sends overlapped; " + context);
+
+        Map<String, Long> lastIdByLane = new HashMap<>();
+        Map<String, Integer> lastIndexByPublisher = new HashMap<>();
+        for (Received event : emitter.received) {
+            String lane = options.ordered() ? "all" : laneOf(event.event());
+            Long previous = lastIdByLane.put(lane, event.id());
+            assertTrue(previous == null || previous < event.id(),
+                "id " + event.id() + " after " + previous + " on lane " + lane + "; " + context);
+
+            String[] origin = event.message().split("-");
+            int index = Integer.parseInt(origin[1]);
+            Integer before = lastIndexByPublisher.put(origin[0] + "/" + lane, index);
+            assertTrue(before == null || before < index,
+                event.message() + " after index " + before + "; " + context);
+        }
+
+        long expected = plans.stream().flatMap(List::stream)
+            .filter(event -> accepts(options.filter(), event[0], event[1]))
+            .count();
+        assertEquals(expected, emitter.received.size(), "lost or duplicated events; " + context);
+    }
+
+    private static String laneOf(String event) {
+        return switch (event) {
+            case "heartbeat" -> "control";
+            case "report" -> "bulk";
+            default -> "realtime";
+        };
+    }
+
+    /** Control events bypass filters, as in the service. */
+    private static boolean accepts(EventFilter filter, String event, String message) {
+        return filter == null || event.equals("heartbeat")
+            || filter.test(event, new PayloadEncoder().payload(message, Instant.now()));
+    }
+
+    @Test
+    void broadcastEvent_CarriesAscendingSequenceIds() {
+        EventService service = new EventService(false);
+        try {
+            RecordingEmitter emitter = new RecordingEmitter();
+            service.admit(emitter);
+
+            service.broadcastEvent("custom", "one");
+            service.broadcastEvent("custom", "two");
+
+            assertEquals(2, emitter.received.size());
+            assertEquals(emitter.received.get(0).id() + 1, emitter.received.get(1).id());
+        } finally {
+            service.shutdown();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.sseexample.service;
+
+import com.example.sseexample.config.EventPriority;
+import com.example.sseexample.config.SseProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Covers priority lanes: control frames must not queue behind bulk traffic, and
+ * realtime and bulk share a connection by weight rather than strictly.
+ */
+class EventServicePriorityTest {
+
+    private static SseProperties props(int broadcastThreads) {
+        return new SseProperties(10, 300_000L, 10_000L, broadcastThreads);
+    }
+
+    private static String eventName(SseEmitter.SseEventBuilder builder) {
+        String head = SseWire.text(builder);
+        return head.substring("event:".length(), head.indexOf('\n'));
+    }
+
+    /** Emitter that holds its first send until opened, then records the order of the rest. */
+    private static class GatedEmitter extends SseEmitter {
+        private final CountDownLatch gate = new CountDownLatch(1);
+        private final AtomicBoolean first = new AtomicBoolean(true);
+        private final List<String> order = new CopyOnWriteArrayList<>();
+
+        GatedEmitter() {
+            super(60_000L);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            if (first.getAndSet(false)) {
+                try {
+                    gate.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return;
+            }
+            order.add(eventName(builder));
+        }
+    }
+
+    @Test
+    void heartbeat_BehindABulkBacklogOnEveryConnection_IsSentNext() throws Exception {
+        EventService service = new EventService(props(2), false);
+        GatedEmitter first = new GatedEmitter();
+        GatedEmitter second = new GatedEmitter();
+        service.admit(first);
+        service.admit(second);
+
+        // Each connection holds its first send, so the rest of the bulk traffic queues behind it.
+        List<Thread> publishers = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            publishers.add(new Thread(() -> service.broadcastEvent("custom", "bulk")));
+        }
+        publishers.forEach(Thread::start);
+        awaitPending(service, 24);
+        publishers.add(new Thread(() -> service.broadcastEvent("heartbeat", "Server heartbeat")));
+        publishers.get(12).start();
+        awaitPending(service, 26);
+
+        first.gate.countDown();
+        second.gate.countDown();
+        for (Thread publisher : publishers) {
+            publisher.join(10_000);
+        }
+
+        // In FIFO order the heartbeat would wait out the eleven bulk frames queued ahead of it.
+        for (GatedEmitter emitter : List.of(first, second)) {
+            assertEquals(12, emitter.order.size());
+            assertEquals("heartbeat", emitter.order.get(0), "control must overtake bulk: " + emitter.order);
+        }
+        service.shutdown();
+    }
+
+    @Test
+    void drain_ControlFirstThenRealtimeAndBulkByWeight() throws Exception {
+        EventService service = new EventService(props(1), false);
+        GatedEmitter emitter = new GatedEmitter();
+        service.admit(emitter);
+
+        List<Thread> publishers = new ArrayList<>();
+        publishers.add(new Thread(() -> service.broadcastEvent("custom", "held")));
+        publishers.get(0).start();
+        awaitPending(service, 1);
+
+        for (int i = 0; i < 12; i++) {
+            publishers.add(new Thread(() -> service.broadcastEvent("notification", "realtime")));
+        }
+        for (int i = 0; i < 4; i++) {
+            publishers.add(new Thread(() -> service.broadcastEvent("custom", "bulk")));
+        }
+        publishers.add(new Thread(() -> service.broadcastEvent("heartbeat", "control")));
+        publishers.subList(1, publishers.size()).forEach(Thread::start);
+        awaitPending(service, publishers.size());
+
+        emitter.gate.countDown();
+        for (Thread publisher : publishers) {
+            publisher.join(10_000);
+        }
+
+        List<String> order = emitter.order;
+        assertEquals(17, order.size());
+        assertEquals("heartbeat", order.get(0), "control must go first: " + order);
+        assertTrue(order.indexOf("custom") < order.lastIndexOf("notification"),
+            "bulk must be interleaved with realtime, not starved behind it: " + order);
+        service.shutdown();
+    }
+
+    @Test
+    void priority_IsConfigurablePerEventName() {
+        SseProperties.Priority priority = new SseProperties.Priority(
+            Map.of("price-tick", EventPriority.REALTIME, "custom", EventPriority.CONTROL),
+            EventPriority.BULK, 4, 1, 16);
+
+        assertEquals(EventPriority.REALTIME, priority.of("price-tick"));
+        assertEquals(EventPriority.CONTROL, priority.of("custom"));
+        assertEquals(EventPriority.CONTROL, priority.of("heartbeat"), "built-in defaults are kept");
+        assertEquals(EventPriority.BULK, priority.of("anything-else"));
+    }
+
+    private static void awaitPending(EventService service, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (service.memoryReport().pendingSends() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, service.memoryReport().pendingSends());
+    }
+}
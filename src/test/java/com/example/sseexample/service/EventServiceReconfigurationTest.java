@@ -0,0 +1,115 @@
+package com.example.sseexample.service;
+
+import com.example.sseexample.config.SseProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Covers live reconfiguration of the SSE limits: the admission cap, the delivery
+ * pool size and the timeouts change without a restart or evicting anyone.
+ */
+class EventServiceReconfigurationTest {
+
+    private EventService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    /** Emitter whose send blocks until released. */
+    private static class StalledEmitter extends SseEmitter {
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        StalledEmitter() {
+            super(60_000L);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            // No async request bound in a unit test.
+        }
+    }
+
+    @Test
+    void updateLimits_LowerCap_KeepsExistingStreamsButRefusesNewOnes() {
+        service = new EventService(new SseProperties(3, 300_000L, 5_000L, 2), false);
+        SseEmitter first = service.createEventStream();
+        SseEmitter second = service.createEventStream();
+
+        service.updateLimits(1, null, null, null);
+
+        assertThrows(SseCapacityExceededException.class, service::createEventStream);
+        assertTrue(service.releaseEmitter(first), "existing stream must not be evicted");
+        assertTrue(service.releaseEmitter(second), "existing stream must not be evicted");
+        assertDoesNotThrow(service::createEventStream);
+    }
+
+    @Test
+    void updateLimits_RaisedCap_AdmitsMoreStreams() {
+        service = new EventService(new SseProperties(1, 300_000L, 5_000L, 2), false);
+        service.createEventStream();
+
+        service.updateLimits(2, null, null, null);
+
+        assertDoesNotThrow(service::createEventStream);
+    }
+
+    @Test
+    void updateLimits_ResizesBroadcastPoolInBothDirections() {
+        service = new EventService(new SseProperties(10, 300_000L, 5_000L, 2), false);
+
+        service.updateLimits(null, null, null, 6);
+        assertEquals(6, service.broadcastPoolSize());
+
+        service.updateLimits(null, null, null, 1);
+        assertEquals(1, service.broadcastPoolSize());
+    }
+
+    @Test
+    void updateLimits_NewTimeouts_ApplyToNextStreamAndBroadcast() {
+        service = new EventService(new SseProperties(10, 300_000L, 5_000L, 2), false);
+        service.updateLimits(null, 60_000L, 100L, null);
+
+        assertEquals(60_000L, service.createEventStream().getTimeout());
+
+        StalledEmitter stalled = new StalledEmitter();
+        service.admit(stalled);
+        long start = System.nanoTime();
+        service.broadcastEvent("test", "payload");
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        stalled.release.countDown();
+
+        assertTrue(elapsedMs < 2_000, "broadcast should use the new 100ms send budget, took " + elapsedMs + "ms");
+        assertFalse(service.releaseEmitter(stalled), "stalled consumer should have been dropped");
+    }
+
+    @Test
+    void updateLimits_Invalid_IsRejectedAndLeavesLimitsUnchanged() {
+        service = new EventService(new SseProperties(10, 300_000L, 5_000L, 2), false);
+        SseLimits before = service.limits();
+
+        assertThrows(IllegalArgumentException.class, () -> service.updateLimits(null, null, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> service.updateLimits(5_000, null, null, null));
+
+        assertEquals(before, service.limits());
+        assertEquals(2, service.broadcastPoolSize());
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.sseexample.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Covers state streams: a subscriber gets one snapshot, then only the fields that
+ * changed, and applying the patches to the snapshot reproduces the published state.
+ */
+class EventServiceStateTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final EventService service = new EventService(false);
+
+    /** Records each event as name plus parsed data. */
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> names = new CopyOnWriteArrayList<>();
+        private final List<JsonNode> data = new CopyOnWriteArrayList<>();
+
+        RecordingEmitter() {
+            super(60_000L);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            String text = SseWire.text(builder);
+            String name = text.substring("event:".length(), text.indexOf('\n'));
+            String json = text.substring(text.indexOf("data:") + "data:".length()).trim();
+            names.add(name);
+            try {
+                data.add(MAPPER.readTree(json));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static JsonNode json(String text) throws Exception {
+        return MAPPER.readTree(text);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void subscribeState_ReceivesSnapshotOfCurrentState() throws Exception {
+        service.publishState("order-1", json("{\"status\":\"new\",\"qty\":5}"));
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        service.subscribeState(emitter);
+
+        assertEquals(List.of("snapshot"), emitter.names);
+        JsonNode snapshot = emitter.data.get(0);
+        assertEquals(1, snapshot.get("version").asLong());
+        assertEquals(json("{\"order-1\":{\"status\":\"new\",\"qty\":5}}"), snapshot.get("state"));
+    }
+
+    @Test
+    void publishState_SendsOnlyChangedFields() throws Exception {
+        service.publishState("order-1", json("{\"status\":\"new\",\"qty\":5,\"lines\":[1,2]}"));
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.subscribeState(emitter);
+
+        service.publishState("order-1", json("{\"status\":\"shipped\",\"qty\":5,\"lines\":[1,2]}"));
+
+        assertEquals(List.of("snapshot", "patch"), emitter.names);
+        JsonNode patch = emitter.data.get(1);
+        assertEquals(2, patch.get("version").asLong());
+        assertEquals(json("[{\"op\":\"replace\",\"path\":\"/order-1/status\",\"value\":\"shipped\"}]"),
+            patch.get("patch"));
+    }
+
+    @Test
+    void publishState_UnchangedValue_SendsNothing() throws Exception {
+        service.publishState("k", json("{\"a\":1}"));
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.subscribeState(emitter);
+
+        long version = service.publishState("k", json("{\"a\":1}"));
+
+        assertEquals(1, version);
+        assertEquals(List.of("snapshot"), emitter.names);
+    }
+
+    @Test
+    void publishState_PlainStreamsDoNotReceivePatches() throws Exception {
+        RecordingEmitter plain = new RecordingEmitter();
+        service.admit(plain);
+
+        service.publishState("k", json("{\"a\":1}"));
+
+        assertTrue(plain.names.isEmpty());
+    }
+
+    @Test
+    void patches_AppliedToSnapshot_ReproduceState() throws Exception {
+        service.publishState("a", json("{\"x\":1,\"nested\":{\"y\":2,\"gone\":true}}"));
+        service.publishState("b/c", json("7"));
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.subscribeState(emitter);
+
+        service.publishState("a", json("{\"x\":1,\"nested\":{\"y\":3,\"z\":[4]}}"));
+        service.publishState("b/c", null);
+        service.publishState("d", json("\"new\""));
+
+        JsonNode document = emitter.data.get(0).get("state").deepCopy();
+        for (JsonNode event : emitter.data.subList(1, emitter.data.size())) {
+            document = applyPatch(document, (ArrayNode) event.get("patch"));
+        }
+        assertEquals(service.stateSnapshot(), document);
+        assertEquals(json("{\"a\":{\"x\":1,\"nested\":{\"y\":3,\"z\":[4]}},\"d\":\"new\"}"), document);
+    }
+
+    @Test
+    void releaseEmitter_StopsPatchesToThatSubscriber() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.subscribeState(emitter);
+        service.releaseEmitter(emitter);
+
+        service.publishState("k", json("1"));
+
+        assertEquals(List.of("snapshot"), emitter.names);
+    }
+
+    @Test
+    void publishState_PatchStarvedBehindASlowSend_ClosesTheSubscriberToResync() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> names = new CopyOnWriteArrayList<>();
+        SseEmitter emitter = new SseEmitter(60_000L) {
+            @Override
+            public void send(SseEventBuilder builder) throws java.io.IOException {
+                String text = SseWire.text(builder);
+                String name = text.substring("event:".length(), text.indexOf('\n'));
+                if (name.equals("custom")) {
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                names.add(name);
+            }
+        };
+        service.subscribeState(emitter);
+        Thread slow = new Thread(() -> service.broadcastEvent("custom", "slow"));
+        slow.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (service.memoryReport().pendingSends() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        // The custom send keeps the default timeout; the patch behind it gets a short one.
+        service.updateLimits(null, null, 200L, null);
+        service.publishState("k", json("1"));
+        release.countDown();
+        slow.join(5_000);
+
+        assertEquals(0, service.connectionCount(), "a subscriber missing a patch must reconnect");
+        assertEquals(List.of("snapshot", "custom"), names);
+    }
+
+    /** Minimal RFC 6902 apply for add/remove/replace on object members. */
+    private static JsonNode applyPatch(JsonNode document, ArrayNode patch) {
+        for (JsonNode op : patch) {
+            String[] tokens = op.get("path").asText().substring(1).split("/", -1);
+            JsonNode parent = document;
+            for (int i = 0; i < tokens.length - 1; i++) {
+                parent = parent.get(unescape(tokens[i]));
+            }
+            String last = unescape(tokens[tokens.length - 1]);
+            ObjectNode target = (ObjectNode) parent;
+            switch (op.get("op").asText()) {
+                case "add", "replace" -> target.set(last, op.get("value"));
+                case "remove" -> target.remove(last);
+                default -> fail("unexpected op " + op);
+            }
+        }
+        return document;
+    }
+
+    private static String unescape(String token) {
+        return token.replace("~1", "/").replace("~0", "~");
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.sseexample.service;
+
+import com.example.sseexample.config.SseProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Event time-to-live: a frame still queued behind a lagging subscriber when its TTL
+ * passes is discarded, whether the broadcaster or the draining thread finds it
+ * first, and the subscriber goes on to fresher events.
+ */
+class EventServiceTtlTest {
+
+    /** Records the event name of each frame; the first send can be held until released. */
+    private static class LaggingEmitter extends SseEmitter {
+        private final List<String> received = new CopyOnWriteArrayList<>();
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release;
+        private final long sendMillis;
+
+        LaggingEmitter(CountDownLatch release, long sendMillis) {
+            super(60_000L);
+            this.release = release;
+            this.sendMillis = sendMillis;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            entered.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+                Thread.sleep(sendMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String wire = SseWire.text(builder);
+            received.add(wire.substring("event:".length(), wire.indexOf('\n')));
+        }
+    }
+
+    private static Thread broadcastInBackground(EventService service, String eventName) {
+        Thread publisher = new Thread(() -> service.broadcastEvent(eventName, "payload"));
+        publisher.start();
+        return publisher;
+    }
+
+    @Test
+    void broadcastEvent_StillQueuedAtItsTtl_IsDiscardedWithoutWaitingForTheSendTimeout() throws Exception {
+        EventService service = new EventService(SseProperties.defaults(), false);
+        CountDownLatch release = new CountDownLatch(1);
+        LaggingEmitter lagging = new LaggingEmitter(release, 0);
+        service.admit(lagging);
+        Thread first = broadcastInBackground(service, "first");
+        assertTrue(lagging.entered.await(5, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        service.broadcastEvent("stale", "payload", 100);
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        release.countDown();
+        first.join(5_000);
+        service.broadcastEvent("fresh", "payload");
+
+        assertTrue(waitedMs < 2_000, "the send timeout is 5s; waited " + waitedMs + "ms");
+        assertEquals(1, service.expiredDeliveries());
+        assertEquals(List.of("first", "fresh"), lagging.received);
+        assertEquals(1, service.connectionCount(), "a lagging subscriber is not dropped for it");
+        assertEquals(0, service.memoryReport().pendingSends());
+        service.shutdown();
+    }
+
+    @Test
+    void drain_SkipsAFrameThatExpiredWhileTheBroadcasterWaitedOnAnotherSubscriber() throws Exception {
+        EventService service = new EventService(SseProperties.defaults()
+            .withTtl(new SseProperties.Ttl(Map.of("tick", 200L), 0)), false);
+        LaggingEmitter slow = new LaggingEmitter(new CountDownLatch(0), 1_000);
+        CountDownLatch release = new CountDownLatch(1);
+        LaggingEmitter parked = new LaggingEmitter(release, 0);
+        service.admit(slow);
+        service.admit(parked);
+        Thread first = broadcastInBackground(service, "first");
+        assertTrue(parked.entered.await(5, TimeUnit.SECONDS));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (slow.received.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(first.isAlive(), "still waiting on the parked subscriber");
+
+        // The slow send starts before the TTL passes, so the broadcaster waits it out
+        // and only reaches the parked subscriber after the drain there has moved on.
+        Thread tick = broadcastInBackground(service, "tick");
+        Thread.sleep(500);
+        release.countDown();
+        tick.join(5_000);
+        first.join(5_000);
+
+        assertEquals(List.of("first", "tick"), slow.received);
+        assertEquals(List.of("first"), parked.received);
+        assertEquals(1, service.expiredDeliveries());
+        assertEquals(0, service.memoryReport().pendingSends());
+        service.shutdown();
+    }
+
+    @Test
+    void ttl_ByEventNameWithADefault() {
+        SseProperties.Ttl ttl = new SseProperties.Ttl(Map.of("price", 1_000L), 30_000L);
+
+        assertEquals(1_000L, ttl.of("price"));
+        assertEquals(30_000L, ttl.of("custom"));
+        assertEquals(0L, SseProperties.Ttl.defaults().of("price"));
+        assertThrows(IllegalArgumentException.class, () -> new SseProperties.Ttl(Map.of("price", -1L), 0));
+        EventService service = new EventService(false);
+        assertThrows(IllegalArgumentException.class, () -> service.broadcastEvent("custom", "payload", -1));
+        service.shutdown();
+    }
+}
@@ -0,0 +1,352 @@
+package com.example.sseexample.service;
+
+import com.example.sseexample.config.SseProperties;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Capacity-planning harness: runs {@link EventService} against a synthetic client
+ * population and reports throughput, drops and latency for one {@link SseProperties}
+ * configuration. The emitters are fakes, so the figures describe the broadcast and
+ * drain machinery, not the network; a slow client stands in for a full socket
+ * buffer by blocking in {@code send}, and a dead one never returns from it.
+ *
+ * <p>Each event carries its publish time as its message, so delivery latency is
+ * measured from the publisher's call to the subscriber's send completing.
+ */
+final class FanOutSimulation {
+
+    private static final Pattern PUBLISHED_AT = Pattern.compile("\"message\":\"(\\d+)\"");
+
+    private FanOutSimulation() {
+    }
+
+    /**
+     * One kind of client.
+     *
+     * @param name               label in the report
+     * @param count              clients of this kind
+     * @param writeLatencyMicros time every send blocks
+     * @param jitterMicros       random extra latency per send, up to this much
+     * @param failureRate        chance that a send fails, which drops the client
+     * @param dead               sends never return until the run ends, like a peer that stopped reading
+     * @param reconnectMs        delay before a dropped client connects again; negative for never
+     */
+    record ClientProfile(String name, int count, long writeLatencyMicros, long jitterMicros,
+                         double failureRate, boolean dead, long reconnectMs) {
+
+        static ClientProfile fast(int count) {
+            return new ClientProfile("fast", count, 0, 0, 0, false, -1);
+        }
+
+        static ClientProfile slow(int count, long writeLatencyMs) {
+            long micros = TimeUnit.MILLISECONDS.toMicros(writeLatencyMs);
+            return new ClientProfile("slow", count, micros, micros, 0, false, -1);
+        }
+
+        static ClientProfile flaky(int count, double failureRate) {
+            return new ClientProfile("flaky", count, 0, 0, failureRate, false, -1);
+        }
+
+        static ClientProfile dead(int count) {
+            return new ClientProfile("dead", count, 0, 0, 0, true, -1);
+        }
+
+        ClientProfile reconnectingAfter(long reconnectMs) {
+            return new ClientProfile(name, count, writeLatencyMicros, jitterMicros, failureRate, dead, reconnectMs);
+        }
+    }
+
+    /**
+     * @param label             name in the report
+     * @param properties        the configuration under test; max-connections must cover the population
+     * @param population        the clients, admitted before the first publish
+     * @param events            broadcasts in total, split across publishers
+     * @param publishers        threads publishing concurrently, like simultaneous trigger-event requests
+     * @param publishIntervalMs pause between one publisher's broadcasts; 0 publishes back-to-back
+     */
+    record Scenario(String label, SseProperties properties, List<ClientProfile> population,
+                    int events, int publishers, long publishIntervalMs) {
+
+        int clients() {
+            return population.stream().mapToInt(ClientProfile::count).sum();
+        }
+    }
+
+    /** Latency distribution in microseconds. */
+    record Latency(int samples, long p50, long p99, long max) {
+
+        static Latency of(long[] nanos) {
+            long[] sorted = nanos.clone();
+            Arrays.sort(sorted);
+            return new Latency(sorted.length, micros(sorted, 0.50), micros(sorted, 0.99),
+                sorted.length == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(sorted[sorted.length - 1]));
+        }
+
+        private static long micros(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return TimeUnit.NANOSECONDS.toMicros(sorted[Math.max(0, index)]);
+        }
+    }
+
+    /**
+     * @param delivered  frames this kind of client received
+     * @param expected   frames it would have received had no client been dropped
+     * @param timeouts   drops for exceeding send-timeout-ms
+     * @param failures   drops for a failed send
+     * @param reconnects dropped clients that connected again
+     */
+    record ProfileResult(ClientProfile profile, long delivered, long expected, long timeouts, long failures,
+                         long reconnects, Latency latency) {
+
+        long drops() {
+            return timeouts + failures;
+        }
+
+        double deliveredRatio() {
+            return expected == 0 ? 1 : (double) delivered / expected;
+        }
+    }
+
+    record Result(Scenario scenario, long elapsedNanos, Latency publish, List<ProfileResult> profiles) {
+
+        long delivered() {
+            return profiles.stream().mapToLong(ProfileResult::delivered).sum();
+        }
+
+        double framesPerSecond() {
+            return delivered() / Math.max(1e-9, elapsedNanos / 1e9);
+        }
+
+        ProfileResult profile(String name) {
+            return profiles.stream().filter(p -> p.profile().name().equals(name)).findFirst().orElseThrow();
+        }
+    }
+
+    static Result run(Scenario scenario) throws InterruptedException {
+        EventService service = new EventService(scenario.properties(), false);
+        CountDownLatch finished = new CountDownLatch(1);
+        ScheduledExecutorService reconnects = Executors.newSingleThreadScheduledExecutor();
+        List<Population> populations = new ArrayList<>();
+        for (ClientProfile profile : scenario.population()) {
+            Population population = new Population(profile, service, finished, reconnects);
+            populations.add(population);
+            for (int i = 0; i < profile.count(); i++) {
+                population.connect();
+            }
+        }
+
+        long[] publishNanos = new long[scenario.events()];
+        AtomicLong next = new AtomicLong();
+        List<Thread> publishers = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int p = 0; p < scenario.publishers(); p++) {
+            Thread publisher = new Thread(() -> {
+                long index;
+                while ((index = next.getAndIncrement()) < scenario.events()) {
+                    long publishedAt = System.nanoTime();
+                    service.broadcastEvent("simulated", Long.toString(publishedAt));
+                    publishNanos[(int) index] = System.nanoTime() - publishedAt;
+                    pause(scenario.publishIntervalMs());
+                }
+            }, "sim-publisher-" + p);
+            publisher.start();
+            publishers.add(publisher);
+        }
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        reconnects.shutdownNow();
+        finished.countDown();
+        service.shutdown();
+        service.awaitTermination(5_000);
+
+        List<ProfileResult> profiles = new ArrayList<>();
+        for (Population population : populations) {
+            profiles.add(population.result(scenario.events()));
+        }
+        return new Result(scenario, elapsed, Latency.of(publishNanos), profiles);
+    }
+
+    /** One row per scenario and one per client kind beneath it. */
+    static String table(List<Result> results) {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format(Locale.ROOT, "%-24s %8s %8s %10s %10s %10s%n",
+            "scenario", "threads", "timeout", "frames/s", "pub p50ms", "pub p99ms"));
+        for (Result result : results) {
+            SseProperties properties = result.scenario().properties();
+            table.append(String.format(Locale.ROOT, "%-24s %8d %8d %10.0f %10.1f %10.1f%n",
+                result.scenario().label(), properties.broadcastThreads(), properties.sendTimeoutMs(),
+                result.framesPerSecond(), result.publish().p50() / 1000.0, result.publish().p99() / 1000.0));
+            for (ProfileResult profile : result.profiles()) {
+                table.append(String.format(Locale.ROOT,
+                    "  %-8s clients %5d  delivered %6.1f%%  drops %5d (timeout %d, failed %d)  "
+                        + "reconnects %4d  latency p50 %.1fms p99 %.1fms max %.1fms%n",
+                    profile.profile().name(), profile.profile().count(), 100 * profile.deliveredRatio(),
+                    profile.drops(), profile.timeouts(), profile.failures(), profile.reconnects(),
+                    profile.latency().p50() / 1000.0, profile.latency().p99() / 1000.0,
+                    profile.latency().max() / 1000.0));
+            }
+        }
+        return table.toString();
+    }
+
+    private static void pause(long millis) {
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /** The clients of one profile and what happened to them. */
+    private static final class Population {
+        private final ClientProfile profile;
+        private final EventService service;
+        private final CountDownLatch finished;
+        private final ScheduledExecutorService reconnects;
+        private final LongAdder delivered = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder reconnected = new LongAdder();
+        private final Object latencyLock = new Object();
+        private long[] latencies = new long[1024];
+        private int latencyCount;
+
+        Population(ClientProfile profile, EventService service, CountDownLatch finished,
+                   ScheduledExecutorService reconnects) {
+            this.profile = profile;
+            this.service = service;
+            this.finished = finished;
+            this.reconnects = reconnects;
+        }
+
+        void connect() {
+            service.admit(new SimulatedEmitter(this));
+        }
+
+        void delivered(long latencyNanos) {
+            delivered.increment();
+            synchronized (latencyLock) {
+                if (latencyCount == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, latencyCount * 2);
+                }
+                latencies[latencyCount++] = latencyNanos;
+            }
+        }
+
+        void dropped(Throwable cause) {
+            (cause instanceof IOException ? failures : timeouts).increment();
+            if (profile.reconnectMs() >= 0 && finished.getCount() > 0) {
+                try {
+                    reconnects.schedule(() -> {
+                        connect();
+                        reconnected.increment();
+                    }, profile.reconnectMs(), TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    // The run is over.
+                }
+            }
+        }
+
+        ProfileResult result(int events) {
+            long[] samples;
+            synchronized (latencyLock) {
+                samples = Arrays.copyOf(latencies, latencyCount);
+            }
+            return new ProfileResult(profile, delivered.sum(), (long) events * profile.count(), timeouts.sum(),
+                failures.sum(), reconnected.sum(), Latency.of(samples));
+        }
+    }
+
+    private static final class SimulatedEmitter extends SseEmitter {
+        private final Population population;
+        private final AtomicBoolean dropped = new AtomicBoolean();
+
+        SimulatedEmitter(Population population) {
+            super(0L);
+            this.population = population;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            ClientProfile profile = population.profile;
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (profile.dead()) {
+                awaitUninterruptibly(population.finished, Long.MAX_VALUE);
+                throw new IOException("Simulated dead client");
+            }
+            long latencyMicros = profile.writeLatencyMicros()
+                + (profile.jitterMicros() > 0 ? random.nextLong(profile.jitterMicros() + 1) : 0);
+            if (latencyMicros > 0) {
+                awaitUninterruptibly(new CountDownLatch(1), TimeUnit.MICROSECONDS.toNanos(latencyMicros));
+            }
+            if (profile.failureRate() > 0 && random.nextDouble() < profile.failureRate()) {
+                throw new IOException("Simulated write failure");
+            }
+            long publishedAt = publishedAt(builder);
+            if (publishedAt != 0) {
+                population.delivered(System.nanoTime() - publishedAt);
+            }
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            if (dropped.compareAndSet(false, true)) {
+                population.dropped(ex);
+            }
+        }
+
+        @Override
+        public void complete() {
+            // No async request bound; the run's end completes every emitter.
+        }
+
+        private static long publishedAt(SseEventBuilder builder) {
+            Matcher matcher = PUBLISHED_AT.matcher(SseWire.text(builder));
+            return matcher.find() ? Long.parseLong(matcher.group(1)) : 0;
+        }
+
+        private static void awaitUninterruptibly(CountDownLatch latch, long nanos) {
+            long deadline = nanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + nanos;
+            while (true) {
+                long remaining = deadline == Long.MAX_VALUE ? TimeUnit.MILLISECONDS.toNanos(50)
+                    : deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return;
+                }
+                try {
+                    if (latch.await(remaining, TimeUnit.NANOSECONDS)) {
+                        return;
+                    }
+                } catch (InterruptedException ignored) {
+                    // Like a write into a full socket buffer, the send does not end on
+                    // interrupt, so cancelling the drain cannot free the thread early.
+                }
+            }
+        }
+    }
+}
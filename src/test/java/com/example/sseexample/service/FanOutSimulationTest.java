@@ -0,0 +1,107 @@
+package com.example.sseexample.service;
+
+import com.example.sseexample.config.SseProperties;
+import com.example.sseexample.service.FanOutSimulation.ClientProfile;
+import com.example.sseexample.service.FanOutSimulation.Result;
+import com.example.sseexample.service.FanOutSimulation.Scenario;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs {@link FanOutSimulation}. The suite checks a small mixed population; the grid
+ * of broadcast pool sizes and send timeouts is a benchmark that prints its
+ * comparison, run by {@code gradle simulateFanOut} at production scale with its
+ * {@code -Psim*} parameters. Asserts only on outcomes that hold on any machine.
+ */
+class FanOutSimulationTest {
+
+    private static int intParam(String name, int defaultValue) {
+        return Integer.parseInt(System.getProperty("sse.sim." + name, String.valueOf(defaultValue)));
+    }
+
+    private static long[] longsParam(String name, String defaultValue) {
+        return Arrays.stream(System.getProperty("sse.sim." + name, defaultValue).split(","))
+            .map(String::trim).mapToLong(Long::parseLong).toArray();
+    }
+
+    /**
+     * A production-shaped mix: mostly healthy, a tail of slow and flaky, a few dead.
+     * A dead client's send never returns, so it holds a pool thread for good. Once
+     * dead clients outnumber the pool, every broadcast waits out send-timeout-ms for
+     * each starved subscriber, and a run takes accordingly long.
+     */
+    private static List<ClientProfile> population(int clients, long slowMs, double failureRate, long reconnectMs,
+                                                  int deadPercent) {
+        int slow = Math.max(1, clients / 10);
+        int flaky = Math.max(1, clients * 7 / 100);
+        int dead = Math.max(1, clients * deadPercent / 100);
+        return List.of(
+            ClientProfile.fast(clients - slow - flaky - dead),
+            ClientProfile.slow(slow, slowMs),
+            ClientProfile.flaky(flaky, failureRate).reconnectingAfter(reconnectMs),
+            ClientProfile.dead(dead));
+    }
+
+    private static SseProperties properties(int clients, long sendTimeoutMs, int broadcastThreads) {
+        SseProperties.Connector connector = SseProperties.Connector.defaults();
+        if (connector.maxConnections() <= clients) {
+            connector = new SseProperties.Connector(connector.maxThreads(), connector.minSpareThreads(),
+                clients + 1, connector.acceptCount(), connector.keepAliveTimeoutMs(),
+                connector.socketReadBufferBytes(), connector.socketWriteBufferBytes(),
+                connector.responseHeaderBufferBytes(), connector.h2c(), connector.http2MaxConcurrentStreams());
+        }
+        return new SseProperties(clients, 300_000L, sendTimeoutMs, broadcastThreads).withConnector(connector);
+    }
+
+    @Test
+    void simulation_DeliversEverythingToHealthyClientsAndDropsDeadOnes() throws Exception {
+        Scenario scenario = new Scenario("mixed", properties(40, 1_000L, 4), List.of(
+            ClientProfile.fast(30), ClientProfile.slow(4, 2), ClientProfile.flaky(4, 0.2), ClientProfile.dead(2)),
+            20, 1, 0);
+
+        Result result = FanOutSimulation.run(scenario);
+
+        assertEquals(1.0, result.profile("fast").deliveredRatio());
+        assertEquals(1.0, result.profile("slow").deliveredRatio());
+        assertEquals(2, result.profile("dead").timeouts());
+        assertEquals(0, result.profile("dead").delivered());
+        assertTrue(result.profile("flaky").failures() > 0);
+        assertEquals(0, result.profile("fast").drops());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void simulation_ComparesPoolSizesAndSendTimeouts() throws Exception {
+        int clients = intParam("clients", 100);
+        int events = intParam("events", 20);
+        int publishers = intParam("publishers", 1);
+        long intervalMs = longsParam("publishIntervalMs", "0")[0];
+        long slowMs = longsParam("slowMs", "5")[0];
+        double failureRate = Double.parseDouble(System.getProperty("sse.sim.failureRate", "0.02"));
+        long reconnectMs = longsParam("reconnectMs", "50")[0];
+        int deadPercent = intParam("deadPercent", 1);
+
+        List<Result> results = new ArrayList<>();
+        for (long threads : longsParam("threads", "4,8")) {
+            for (long sendTimeoutMs : longsParam("sendTimeoutMs", "100,500")) {
+                Scenario scenario = new Scenario("pool=" + threads + " timeout=" + sendTimeoutMs,
+                    properties(clients, sendTimeoutMs, (int) threads),
+                    population(clients, slowMs, failureRate, reconnectMs, deadPercent), events, publishers, intervalMs);
+                results.add(FanOutSimulation.run(scenario));
+            }
+        }
+        System.out.print(FanOutSimulation.table(results));
+
+        for (Result result : results) {
+            assertEquals(0, result.profile("fast").drops(), result.scenario().label());
+            assertEquals(result.profile("dead").profile().count(), result.profile("dead").timeouts(),
+                result.scenario().label());
+        }
+    }
+}
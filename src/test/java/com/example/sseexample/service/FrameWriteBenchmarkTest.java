@@ -0,0 +1,128 @@
+package com.example.sseexample.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Heap allocated by writing broadcast frames to subscribers, the garbage the young
+ * collector has to keep up with: string parts, which Spring's converter encodes on
+ * every send, against {@link SseFrame}'s one pre-encoded array. Writes go through
+ * the same converters the SSE return value handler uses, into a discarding stream.
+ * The comparison is a benchmark ({@code gradle benchmark}) that prints a table and
+ * asserts only that the shared array allocates less; the suite checks the bytes match.
+ */
+class FrameWriteBenchmarkTest {
+
+    private static final int SUBSCRIBERS = 1_000;
+    private static final int EVENTS = 100;
+
+    private static final List<HttpMessageConverter<?>> CONVERTERS = List.of(
+        new ByteArrayHttpMessageConverter(), new StringHttpMessageConverter(StandardCharsets.UTF_8));
+
+    private static final class DiscardingMessage implements HttpOutputMessage {
+        private final HttpHeaders headers = new HttpHeaders();
+
+        @Override
+        public OutputStream getBody() {
+            return OutputStream.nullOutputStream();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+
+    /** As ResponseBodyEmitterReturnValueHandler does: the first converter that can write a part writes it. */
+    @SuppressWarnings("unchecked")
+    private static void write(Set<DataWithMediaType> parts, HttpOutputMessage output) throws IOException {
+        for (DataWithMediaType part : parts) {
+            for (HttpMessageConverter<?> converter : CONVERTERS) {
+                if (converter.canWrite(part.getData().getClass(), part.getMediaType())) {
+                    ((HttpMessageConverter<Object>) converter).write(part.getData(), part.getMediaType(), output);
+                    break;
+                }
+            }
+        }
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    /** Bytes allocated fanning {@link #EVENTS} broadcasts out to {@link #SUBSCRIBERS}, excluding rendering. */
+    private static long fanOut(boolean shared, String[] payloads) throws IOException {
+        HttpOutputMessage output = new DiscardingMessage();
+        long allocated = 0;
+        for (int event = 0; event < EVENTS; event++) {
+            // Rendered once either way, as frames were before they were encoded; a
+            // builder must not be built twice, since each build appends another line end.
+            Set<DataWithMediaType> parts = shared
+                ? SseFrame.of("custom", event, payloads[event]).build()
+                : SseEmitter.event().name("custom").id(Integer.toString(event)).data(payloads[event]).build();
+            long start = allocatedBytes();
+            for (int subscriber = 0; subscriber < SUBSCRIBERS; subscriber++) {
+                write(parts, output);
+            }
+            allocated += allocatedBytes() - start;
+        }
+        return allocated;
+    }
+
+    @Test
+    @Tag("benchmark")
+    void fanOut_SharedEncodedFrameAllocatesLessThanStringParts() throws IOException {
+        PayloadEncoder encoder = new PayloadEncoder();
+        String[] payloads = new String[EVENTS];
+        for (int i = 0; i < EVENTS; i++) {
+            payloads[i] = encoder.encode(PayloadEncoding.JSON, encoder.payload(
+                "{\"symbol\":\"ACME\",\"bid\":" + (100 + i) + ".25,\"ask\":" + (101 + i) + ".5,\"volume\":" + i * 1000 + "}",
+                Instant.now()));
+        }
+        // Warm up both paths so class loading and JIT do not count against either.
+        fanOut(false, payloads);
+        fanOut(true, payloads);
+
+        long strings = fanOut(false, payloads);
+        long shared = fanOut(true, payloads);
+
+        System.out.printf("%-14s %14s %22s%n", "frame parts", "bytes/send", "MiB/s @1k subs 100/s");
+        System.out.printf("%-14s %14d %22.1f%n", "strings", strings / ((long) EVENTS * SUBSCRIBERS),
+            strings / (1024.0 * 1024.0));
+        System.out.printf("%-14s %14d %22.1f%n", "shared bytes", shared / ((long) EVENTS * SUBSCRIBERS),
+            shared / (1024.0 * 1024.0));
+
+        assertTrue(shared < strings, "shared " + shared + " vs strings " + strings);
+    }
+
+    @Test
+    void sharedFrame_WritesTheSameBytesAsStringParts() throws IOException {
+        SseEmitter.SseEventBuilder parts = SseEmitter.event().name("custom").id("7").data("{\"m\":\"caf\u00e9\"}");
+        SseFrame frame = SseFrame.of("custom", 7, "{\"m\":\"caf\u00e9\"}");
+
+        StringBuilder expected = new StringBuilder();
+        for (DataWithMediaType part : parts.build()) {
+            expected.append(part.getData());
+        }
+        assertEquals(expected.toString(), SseWire.text(frame));
+        assertEquals(1, frame.build().size());
+        assertEquals(expected.toString().getBytes(StandardCharsets.UTF_8).length, frame.sizeBytes());
+    }
+}
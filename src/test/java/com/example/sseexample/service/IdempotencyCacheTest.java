@@ -0,0 +1,116 @@
+package com.example.sseexample.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private IdempotencyCache cache(long ttlMs, int maxKeys) {
+        return new IdempotencyCache(ttlMs, maxKeys, clock::get);
+    }
+
+    private void advanceMs(long ms) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(ms));
+    }
+
+    @Test
+    void claim_SameKeyWithinTtl_IsDuplicate() {
+        IdempotencyCache cache = cache(1_000, 10);
+
+        assertTrue(cache.claim("order-42"));
+        advanceMs(999);
+        assertFalse(cache.claim("order-42"));
+        assertTrue(cache.claim("order-43"));
+        assertEquals(1, cache.duplicates());
+    }
+
+    @Test
+    void claim_AfterRelease_IsAcceptedAgain() {
+        IdempotencyCache cache = cache(1_000, 10);
+        cache.claim("order-42");
+
+        cache.release("order-42");
+
+        assertTrue(cache.claim("order-42"));
+        assertEquals(1, cache.size());
+        assertEquals(0, cache.duplicates());
+        // The released claim's stale queue entry must not evict the new one.
+        advanceMs(1_500);
+        cache.claim("fresh");
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void claim_AfterTtl_IsAcceptedAgain() {
+        IdempotencyCache cache = cache(1_000, 10);
+        cache.claim("order-42");
+
+        advanceMs(1_000);
+
+        assertTrue(cache.claim("order-42"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void claim_ExpiredKeysAreEvicted() {
+        IdempotencyCache cache = cache(1_000, 10);
+        for (int i = 0; i < 5; i++) {
+            cache.claim("k" + i);
+        }
+
+        advanceMs(1_500);
+        cache.claim("fresh");
+
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void claim_OverMaxKeys_ForgetsOldestFirst() {
+        IdempotencyCache cache = cache(60_000, 3);
+        cache.claim("a");
+        cache.claim("b");
+        cache.claim("c");
+
+        cache.claim("d");
+
+        assertEquals(3, cache.size());
+        assertTrue(cache.claim("a"), "oldest key should have been evicted");
+        assertFalse(cache.claim("d"));
+    }
+
+    @Test
+    void claim_ConcurrentRetries_ExactlyOneWins() throws Exception {
+        IdempotencyCache cache = cache(60_000, 100);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger winners = new AtomicInteger();
+        for (int i = 0; i < 64; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (cache.claim("retry")) {
+                    winners.incrementAndGet();
+                }
+            });
+        }
+
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, winners.get());
+        assertEquals(63, cache.duplicates());
+    }
+}
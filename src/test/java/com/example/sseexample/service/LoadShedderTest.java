@@ -0,0 +1,117 @@
+package com.example.sseexample.service;
+
+import com.example.sseexample.actuator.SseBalancingHealthIndicator;
+import com.example.sseexample.config.SseProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Covers load shedding: the refusal follows the high- and low-water marks with
+ * hysteresis, and the oldest streams are closed in paced batches with a retry hint.
+ */
+class LoadShedderTest {
+
+    private final EventService service = new EventService(new SseProperties(10, 300_000L, 5_000L, 2), false);
+
+    /** Records the wire form of each send and whether the stream was completed. */
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> frames = new CopyOnWriteArrayList<>();
+        private volatile boolean completed;
+
+        RecordingEmitter() {
+            super(60_000L);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            frames.add(SseWire.text(builder));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private static SseProperties.Balancing balancing(long minAgeMs) {
+        return new SseProperties.Balancing(true, 0.9, 0.7, 1_000L, 0.1, minAgeMs, 2_000L, 0L);
+    }
+
+    private List<RecordingEmitter> admit(int count) {
+        List<RecordingEmitter> emitters = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            RecordingEmitter emitter = new RecordingEmitter();
+            service.admit(emitter);
+            emitters.add(emitter);
+        }
+        return emitters;
+    }
+
+    @Test
+    void evaluate_AboveHighWater_RefusesAndShedsOldestDownToLowWater() {
+        List<RecordingEmitter> emitters = admit(10);
+        LoadShedder shedder = new LoadShedder(service, balancing(0L));
+        SseBalancingHealthIndicator health = new SseBalancingHealthIndicator(shedder, service);
+
+        shedder.evaluate();
+        assertTrue(shedder.isRefusing());
+        assertEquals(Status.OUT_OF_SERVICE, health.health().getStatus());
+        assertEquals(9, service.connectionCount(), "one stream per interval at 10% of 10");
+        assertTrue(emitters.get(0).completed, "the oldest stream goes first");
+        assertTrue(emitters.get(0).frames.get(0).contains("retry:2000\n"), emitters.get(0).frames.toString());
+        assertFalse(emitters.get(1).completed);
+
+        shedder.evaluate();
+        shedder.evaluate();
+        assertEquals(7, service.connectionCount());
+        assertTrue(shedder.isRefusing(), "still refusing until an evaluation sees the low-water mark");
+
+        shedder.evaluate();
+        assertFalse(shedder.isRefusing());
+        assertEquals(7, service.connectionCount(), "nothing is shed once back at the low-water mark");
+        assertEquals(Status.UP, health.health().getStatus());
+        assertEquals(3, shedder.shedConnections());
+    }
+
+    @Test
+    void evaluate_BetweenMarks_KeepsAcceptingTraffic() {
+        admit(8);
+        LoadShedder shedder = new LoadShedder(service, balancing(0L));
+
+        shedder.evaluate();
+
+        assertFalse(shedder.isRefusing());
+        assertEquals(8, service.connectionCount());
+    }
+
+    @Test
+    void evaluate_YoungStreams_AreNotShed() {
+        admit(10);
+        LoadShedder shedder = new LoadShedder(service, balancing(60_000L));
+
+        shedder.evaluate();
+
+        assertTrue(shedder.isRefusing(), "the refusal still reflects the load");
+        assertEquals(10, service.connectionCount());
+    }
+
+    @Test
+    void load_IsConnectionsOverCap() {
+        admit(4);
+
+        assertEquals(0.4, service.load(), 1e-9);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.sseexample.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares wire bytes and encoding CPU per {@link PayloadEncoding} on a numeric
+ * feed, the traffic the compact and binary forms exist for. Prints a table to the
+ * test log; asserts only on bytes, since CPU figures vary by machine. Runs with
+ * {@code gradle benchmark}, not {@code gradle test}.
+ */
+@Tag("benchmark")
+class PayloadEncodingBenchmarkTest {
+
+    private static final int WARMUP = 2_000;
+    private static final int EVENTS = 20_000;
+
+    @Test
+    void numericFeed_CompactAndBinaryEncodingsAreSmallerThanJson() {
+        PayloadEncoder encoder = new PayloadEncoder();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        String[] messages = new String[EVENTS];
+        for (int i = 0; i < EVENTS; i++) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            messages[i] = String.format(Locale.ROOT, "{\"symbol\":\"ACME\",\"bid\":%.4f,\"ask\":%.4f,\"volume\":%d}",
+                random.nextDouble(100, 200), random.nextDouble(100, 200), random.nextLong(1_000_000));
+        }
+
+        Map<PayloadEncoding, Long> bytes = new EnumMap<>(PayloadEncoding.class);
+        Map<PayloadEncoding, Long> cpuNanos = new EnumMap<>(PayloadEncoding.class);
+        Instant now = Instant.now();
+        for (PayloadEncoding encoding : PayloadEncoding.values()) {
+            for (int i = 0; i < WARMUP; i++) {
+                encoder.encode(encoding, encoder.payload(messages[i], now));
+            }
+            long total = 0;
+            long cpuStart = threads.getCurrentThreadCpuTime();
+            for (String message : messages) {
+                total += SseFrame.of("custom", encoder.encode(encoding, encoder.payload(message, now))).sizeBytes();
+            }
+            cpuNanos.put(encoding, threads.getCurrentThreadCpuTime() - cpuStart);
+            bytes.put(encoding, total);
+        }
+
+        System.out.printf("%-8s %12s %14s%n", "encoding", "bytes/event", "cpu ns/event");
+        for (PayloadEncoding encoding : PayloadEncoding.values()) {
+            System.out.printf("%-8s %12d %14d%n", encoding.token(), bytes.get(encoding) / EVENTS,
+                cpuNanos.get(encoding) / EVENTS);
+        }
+
+        assertTrue(bytes.get(PayloadEncoding.COMPACT) < bytes.get(PayloadEncoding.JSON));
+        assertTrue(bytes.get(PayloadEncoding.CBOR) < bytes.get(PayloadEncoding.JSON));
+    }
+}
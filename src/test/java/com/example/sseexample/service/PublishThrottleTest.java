@@ -0,0 +1,200 @@
+package com.example.sseexample.service;
+
+import com.example.sseexample.config.SseProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Covers publish throttling: a quiet name broadcasts at once, a busy one at most
+ * once per window with what arrived in between conflated, and no publish is lost
+ * to a race between publishers and the closing window.
+ */
+class PublishThrottleTest {
+
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+    private final List<String> broadcasts = new CopyOnWriteArrayList<>();
+    private final List<Long> broadcastTtls = new CopyOnWriteArrayList<>();
+    private PublishThrottle throttle;
+
+    @AfterEach
+    void tearDown() {
+        if (throttle != null) {
+            throttle.shutdownNow();
+        }
+        ticker.shutdownNow();
+    }
+
+    private PublishThrottle throttle(long windowMs, SseProperties.Throttle.Conflation conflation, int maxDigestEvents) {
+        return throttle(windowMs, conflation, maxDigestEvents, 0, 262_144);
+    }
+
+    private PublishThrottle throttle(long windowMs, SseProperties.Throttle.Conflation conflation, int maxDigestEvents,
+                                     long configuredTtlMs, int maxEventBytes) {
+        SseProperties.Throttle price = new SseProperties.Throttle(windowMs, conflation, maxDigestEvents);
+        throttle = new PublishThrottle(Map.of("price", price), ticker, (name, data, ttlMs) -> {
+            broadcasts.add(name + ":" + data);
+            broadcastTtls.add(ttlMs);
+        }, name -> configuredTtlMs, maxEventBytes, Executors.defaultThreadFactory());
+        return throttle;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 5s");
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void latest_BroadcastsTheFirstAtOnceAndTheNewestWhenTheWindowCloses() throws Exception {
+        PublishThrottle throttle = throttle(200, SseProperties.Throttle.Conflation.LATEST, 100);
+
+        assertTrue(throttle.publish("price", "1", null));
+        for (int i = 2; i <= 50; i++) {
+            assertFalse(throttle.publish("price", String.valueOf(i), null));
+        }
+        assertEquals(List.of("price:1"), broadcasts);
+
+        await(() -> broadcasts.size() == 2);
+        assertEquals("price:50", broadcasts.get(1));
+        assertEquals(48, throttle.conflatedPublishes());
+        assertTrue(throttle.throttles("price") && !throttle.throttles("custom"));
+
+        // The window closes empty, so the next publish goes out at once again.
+        Thread.sleep(300);
+        assertTrue(throttle.publish("price", "51", null));
+        assertEquals("price:51", broadcasts.get(2));
+    }
+
+    @Test
+    void digest_ListsTheNewestEventsOfTheWindowAndCountsThemAll() throws Exception {
+        PublishThrottle throttle = throttle(200, SseProperties.Throttle.Conflation.DIGEST, 3);
+
+        throttle.publish("price", "{\"bid\":1}", null);
+        for (int i = 2; i <= 9; i++) {
+            throttle.publish("price", "{\"bid\":" + i + "}", null);
+        }
+        throttle.publish("price", "not json", null);
+
+        await(() -> broadcasts.size() == 2);
+        assertEquals("price:{\"count\":1,\"events\":[{\"bid\":1}]}", broadcasts.get(0));
+        assertEquals("price:{\"count\":9,\"events\":[{\"bid\":8},{\"bid\":9},\"not json\"]}", broadcasts.get(1));
+        assertEquals(8, throttle.conflatedPublishes());
+    }
+
+    @Test
+    void windowBroadcast_GetsWhatIsLeftOfTheNewestPublishsTtl() throws Exception {
+        PublishThrottle throttle = throttle(200, SseProperties.Throttle.Conflation.LATEST, 100, 1_000, 262_144);
+
+        throttle.publish("price", "1", null);
+        throttle.publish("price", "2", null);
+        throttle.publish("price", "3", 5_000L);
+
+        await(() -> broadcasts.size() == 2);
+        assertEquals(1_000L, broadcastTtls.get(0));
+        long left = broadcastTtls.get(1);
+        assertTrue(left > 4_000 && left <= 4_850, "expected about 4800ms left, got " + left);
+    }
+
+    @Test
+    void windowBroadcast_WhoseNewestPublishExpiredInTheWindow_IsDroppedAndCounted() throws Exception {
+        PublishThrottle throttle = throttle(300, SseProperties.Throttle.Conflation.LATEST, 100, 100, 262_144);
+
+        throttle.publish("price", "1", null);
+        throttle.publish("price", "2", null);
+        throttle.publish("price", "3", null);
+
+        await(() -> throttle.expiredPublishes() == 2);
+        Thread.sleep(400);
+        assertEquals(List.of("price:1"), broadcasts);
+        assertEquals(0, throttle.conflatedPublishes());
+        assertEquals(0, throttle.failedBroadcasts());
+        // The expired window still counts as one, so the next publish waits for it to close.
+        assertTrue(throttle.publish("price", "4", null));
+    }
+
+    @Test
+    void digest_IsSizedAsSerializedAndKeepsTheNewestEvent() throws Exception {
+        // Each publish is 100 backslashes, not JSON, so it serializes as 200 and 2 quotes.
+        String backslashes = "\\".repeat(100);
+        PublishThrottle throttle = throttle(200, SseProperties.Throttle.Conflation.DIGEST, 100, 0, 500);
+
+        throttle.publish("price", "{\"bid\":0}", null);
+        for (int i = 0; i < 4; i++) {
+            throttle.publish("price", backslashes, null);
+        }
+
+        await(() -> broadcasts.size() == 2);
+        String digest = broadcasts.get(1).substring("price:".length());
+        assertTrue(SseFrame.utf8Length(digest) <= 500, digest.length() + " bytes");
+        assertTrue(digest.startsWith("{\"count\":4,\"events\":[\""), digest);
+        assertEquals(2, digest.split(",\"").length - 1, "two of the four fit: " + digest);
+        assertEquals(0, throttle.failedBroadcasts());
+    }
+
+    @Test
+    void publish_FromManyThreads_BoundsBroadcastsAndAccountsForEveryPublish() throws Exception {
+        PublishThrottle throttle = throttle(50, SseProperties.Throttle.Conflation.LATEST, 100);
+        AtomicInteger sequence = new AtomicInteger();
+        long start = System.nanoTime();
+        Thread[] publishers = new Thread[8];
+        for (int t = 0; t < publishers.length; t++) {
+            publishers[t] = new Thread(() -> {
+                while (System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500)) {
+                    throttle.publish("price", String.valueOf(sequence.incrementAndGet()), null);
+                }
+            });
+            publishers[t].start();
+        }
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        await(() -> throttle.throttledBroadcasts() + throttle.conflatedPublishes() == throttle.receivedPublishes());
+        assertEquals(sequence.get(), throttle.receivedPublishes());
+        assertTrue(throttle.throttledBroadcasts() <= elapsedMs / 50 + 2,
+            throttle.throttledBroadcasts() + " broadcasts in " + elapsedMs + "ms");
+        assertTrue(throttle.receivedPublishes() > 10 * throttle.throttledBroadcasts());
+    }
+
+    @Test
+    void service_ConflatesThrottledPublishesAndLeavesOtherNamesAlone() throws Exception {
+        EventService service = new EventService(SseProperties.defaults().withThrottles(
+            Map.of("price", new SseProperties.Throttle(200, SseProperties.Throttle.Conflation.LATEST, 100))), false);
+        List<String> received = new CopyOnWriteArrayList<>();
+        service.admit(new SseEmitter(60_000L) {
+            @Override
+            public void send(SseEventBuilder builder) {
+                received.add(SseWire.text(builder));
+            }
+        });
+        try {
+            for (int i = 1; i <= 20; i++) {
+                service.publish("price", "tick " + i, null);
+                service.publish("custom", "message " + i, null);
+            }
+            await(() -> service.throttledBroadcasts() == 2);
+
+            assertEquals(22, received.size());
+            assertTrue(received.get(0).startsWith("event:price\n"), received.get(0));
+            assertTrue(received.get(received.size() - 1).contains("tick 20"), received.get(received.size() - 1));
+            assertEquals(18, service.conflatedPublishes());
+        } finally {
+            service.shutdown();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.sseexample.service;
+
+import com.example.sseexample.config.SseProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Covers resume tokens: a token restores the options it was issued for at any
+ * instance holding the key, and nothing else gets through.
+ */
+class ResumeTokensTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final String NEXT_SECRET = "fedcba9876543210fedcba9876543210";
+    private static final long TTL_MS = 60_000L;
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+
+    private ResumeTokens tokens(String secret, String... previous) {
+        return new ResumeTokens(new SseProperties.Resume(secret, List.of(previous), TTL_MS), now::get);
+    }
+
+    @Test
+    void verify_AtAnotherInstanceWithTheSameKey_RestoresTheOptions() {
+        StreamOptions options = StreamOptions.parse("cbor", "event==a && message^=\"b\"", true);
+
+        String token = tokens(SECRET).issue(options);
+
+        assertEquals(options, tokens(SECRET).verify(token));
+        assertEquals(StreamOptions.DEFAULT, tokens(SECRET).verify(tokens(SECRET).issue(StreamOptions.DEFAULT)));
+    }
+
+    @Test
+    void verify_TamperedOrForged_IsRejected() {
+        String token = tokens(SECRET).issue(StreamOptions.DEFAULT);
+        String payload = token.substring(0, token.indexOf('.'));
+        String signature = token.substring(token.indexOf('.') + 1);
+        byte[] bytes = Base64.getUrlDecoder().decode(payload);
+        bytes[bytes.length - 2] ^= 1;
+        String tampered = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes) + "." + signature;
+
+        assertThrows(IllegalArgumentException.class, () -> tokens(SECRET).verify(tampered));
+        assertThrows(IllegalArgumentException.class, () -> tokens(NEXT_SECRET).verify(token));
+        assertThrows(IllegalArgumentException.class, () -> tokens(SECRET).verify(payload));
+        assertThrows(IllegalArgumentException.class, () -> tokens(SECRET).verify("!!." + signature));
+        assertThrows(IllegalArgumentException.class, () -> tokens(SECRET).verify(token + ".x"));
+    }
+
+    @Test
+    void verify_AfterTtl_IsRejected() {
+        String token = tokens(SECRET).issue(StreamOptions.DEFAULT);
+
+        now.addAndGet(TTL_MS);
+        assertEquals(StreamOptions.DEFAULT, tokens(SECRET).verify(token));
+        now.incrementAndGet();
+        assertThrows(IllegalArgumentException.class, () -> tokens(SECRET).verify(token));
+    }
+
+    @Test
+    void verify_DuringRotation_AcceptsPreviousKeyButSignsWithTheNewOne() {
+        String old = tokens(SECRET).issue(StreamOptions.DEFAULT);
+        ResumeTokens rotated = tokens(NEXT_SECRET, SECRET);
+
+        assertEquals(StreamOptions.DEFAULT, rotated.verify(old));
+        assertEquals(StreamOptions.DEFAULT, tokens(NEXT_SECRET).verify(rotated.issue(StreamOptions.DEFAULT)));
+    }
+
+    @Test
+    void resume_CountsAcceptedAndRejectedTokens() {
+        SseProperties properties = SseProperties.defaults()
+            .withResume(new SseProperties.Resume(SECRET, List.of(), TTL_MS));
+        EventService service = new EventService(properties, false);
+        EventService disabled = new EventService(false);
+        try {
+            String token = new ResumeTokens(properties.resume(), System::currentTimeMillis)
+                .issue(StreamOptions.parse("compact", null, false));
+
+            assertEquals(PayloadEncoding.COMPACT, service.resume(token).encoding());
+            assertThrows(IllegalArgumentException.class, () -> service.resume("garbage"));
+            assertThrows(IllegalArgumentException.class, () -> disabled.resume(token));
+            assertEquals(1, service.resumedStreams());
+            assertEquals(1, service.rejectedResumes());
+        } finally {
+            service.shutdown();
+            disabled.shutdown();
+        }
+    }
+
+    @Test
+    void resumeConfig_RejectsShortSecrets() {
+        assertThrows(IllegalArgumentException.class, () -> new SseProperties.Resume("short", List.of(), TTL_MS));
+        assertThrows(IllegalArgumentException.class, () -> new SseProperties.Resume(SECRET, List.of("short"), TTL_MS));
+        assertFalse(SseProperties.Resume.defaults().enabled());
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.sseexample.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+
+/** Reads back the text an emitter was handed, whether its parts are strings or encoded bytes. */
+final class SseWire {
+
+    private SseWire() {
+    }
+
+    static String text(SseEmitter.SseEventBuilder builder) {
+        StringBuilder wire = new StringBuilder();
+        for (DataWithMediaType part : builder.build()) {
+            wire.append(part.getData() instanceof byte[] bytes
+                ? new String(bytes, StandardCharsets.UTF_8) : String.valueOf(part.getData()));
+        }
+        return wire.toString();
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.sseexample.service;
+
+import com.example.sseexample.config.SseProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Covers the traffic trace: what the recorder writes reads back with its timing,
+ * a damaged or full trace degrades to what was whole, and the service records its
+ * admissions, publishes and disconnects when configured to.
+ */
+class TrafficTraceTest {
+
+    private final AtomicLong nanos = new AtomicLong(5_000_000_000L);
+
+    private void advanceMillis(long millis) {
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private TrafficTrace.Recorder recorder(OutputStream out, long maxBytes, long startEpochMillis)
+        throws IOException {
+        return new TrafficTrace.Recorder(out, maxBytes, nanos::get, startEpochMillis, Executors.defaultThreadFactory());
+    }
+
+    @Test
+    void recorder_WritesEntriesThatReadBackWithTheirTiming() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        TrafficTrace.Recorder recorder = recorder(bytes, 1 << 20, 1_700_000_000_000L);
+
+        recorder.connect(7, PayloadEncoding.CBOR, TrafficTrace.ORDERED | TrafficTrace.FILTERED);
+        advanceMillis(250);
+        recorder.publish("custom", 1_234);
+        nanos.addAndGet(400);
+        recorder.publish("custom", 10);
+        advanceMillis(1_000);
+        recorder.publish(null, 3);
+        recorder.disconnect(7);
+        recorder.close();
+
+        TrafficTrace.Recording recording = TrafficTrace.read(new ByteArrayInputStream(bytes.toByteArray()));
+        List<TrafficTrace.Entry> entries = recording.entries();
+
+        assertEquals(1_700_000_000_000L, recording.startEpochMillis());
+        assertEquals(5, entries.size());
+        TrafficTrace.Entry connect = entries.get(0);
+        assertEquals(TrafficTrace.Kind.CONNECT, connect.kind());
+        assertEquals(7, connect.connectionId());
+        assertEquals(PayloadEncoding.CBOR, connect.encoding());
+        assertTrue(connect.ordered() && connect.filtered() && !connect.multiplexed());
+        assertEquals(250_000, entries.get(1).offsetMicros());
+        assertEquals("custom", entries.get(1).eventName());
+        assertEquals(1_234, entries.get(1).payloadBytes());
+        assertEquals(250_000, entries.get(2).offsetMicros(), "sub-microsecond gaps carry over");
+        assertEquals("message", entries.get(3).eventName());
+        assertEquals(TrafficTrace.Kind.DISCONNECT, entries.get(4).kind());
+        assertEquals(1_250_000, recording.durationMicros());
+        assertTrue(bytes.size() < 64, "a 17-byte header and 3 to 7 bytes a record: " + bytes.size());
+    }
+
+    @Test
+    void read_KeepsTheWholeRecordsOfATruncatedTrace() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        TrafficTrace.Recorder recorder = recorder(bytes, 1 << 20, 0);
+        recorder.connect(1, PayloadEncoding.JSON, 0);
+        recorder.publish("custom", 100_000);
+        recorder.close();
+        byte[] whole = bytes.toByteArray();
+
+        TrafficTrace.Recording truncated =
+            TrafficTrace.read(new ByteArrayInputStream(Arrays.copyOf(whole, whole.length - 1)));
+
+        assertEquals(1, truncated.entries().size());
+        assertThrows(IOException.class, () -> TrafficTrace.read(new ByteArrayInputStream("not a trace".getBytes())));
+    }
+
+    @Test
+    void recorder_StopsAtMaxBytesAndCountsWhatItDrops() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        TrafficTrace.Recorder recorder = recorder(bytes, 64, 0);
+
+        for (int i = 0; i < 100; i++) {
+            recorder.connect(i, PayloadEncoding.JSON, 0);
+        }
+        recorder.close();
+
+        assertTrue(recorder.dropped() > 0);
+        assertTrue(recorder.bytes() <= 64 + 8, recorder.bytes() + " bytes counted");
+        assertTrue(bytes.size() <= 64 + 8, bytes.size() + " bytes");
+        assertEquals(100, TrafficTrace.read(new ByteArrayInputStream(bytes.toByteArray())).entries().size()
+            + recorder.dropped());
+    }
+
+    @Test
+    void recorder_WhoseWriteIsStalled_NeverBlocksTheCallerAndCountsWhatItDrops() throws IOException {
+        CountDownLatch release = new CountDownLatch(1);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputStream stalled = new OutputStream() {
+            @Override
+            public void write(int b) {
+                bytes.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                bytes.write(b, off, len);
+            }
+        };
+        TrafficTrace.Recorder recorder = recorder(stalled, 1L << 40, 0);
+
+        // Enough to fill the writer's buffer, then the queue behind it.
+        int publishes = 200_000;
+        for (int i = 0; i < publishes; i++) {
+            recorder.publish("custom", i);
+        }
+        long droppedWhileStalled = recorder.dropped();
+        release.countDown();
+        recorder.close();
+
+        assertTrue(droppedWhileStalled > 0, "a full queue drops rather than waits");
+        assertEquals(publishes, TrafficTrace.read(new ByteArrayInputStream(bytes.toByteArray())).entries().size()
+            + recorder.dropped());
+    }
+
+    @Test
+    void service_RecordsAdmissionsPublishesAndDisconnects(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("sse.trace");
+        EventService service = new EventService(
+            SseProperties.defaults().withTrace(new SseProperties.Trace(file.toString(), 1 << 20)), false);
+        SseEmitter emitter = new SseEmitter(60_000L);
+        try {
+            service.admit(emitter, StreamOptions.parse("compact", "event==custom", true));
+            service.broadcastEvent("custom", "café");
+            service.releaseEmitter(emitter);
+        } finally {
+            service.shutdown();
+        }
+
+        List<TrafficTrace.Entry> entries = TrafficTrace.read(file).entries();
+
+        assertEquals(List.of(TrafficTrace.Kind.CONNECT, TrafficTrace.Kind.PUBLISH, TrafficTrace.Kind.DISCONNECT),
+            entries.stream().map(TrafficTrace.Entry::kind).toList());
+        assertEquals(PayloadEncoding.COMPACT, entries.get(0).encoding());
+        assertTrue(entries.get(0).ordered() && entries.get(0).filtered());
+        assertEquals(5, entries.get(1).payloadBytes());
+        assertEquals(entries.get(0).connectionId(), entries.get(2).connectionId());
+    }
+}